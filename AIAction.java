@@ -0,0 +1,23 @@
+package logic;
+
+/**
+ * What an {@link Agent} decided: "fold", "check", "call" or "raise", and
+ * for a raise the amount to raise by.
+ */
+public class AIAction {
+    private final String action;
+    private final long amount;
+
+    public AIAction(String action, long amount) {
+        this.action = action;
+        this.amount = amount;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+}
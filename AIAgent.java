@@ -0,0 +1,50 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import logic.AIAction;
+import logic.Agent;
+import logic.TableView;
+import model.Card;
+import model.Player;
+
+/**
+ * Seats a {@link PokerAI} at a table, deciding on the table's thread or,
+ * given an executor, in the background so equity sampling never holds up
+ * the table.
+ */
+public class AIAgent implements Agent {
+    private final PokerAI ai;
+    private final Executor executor; // null = decide on the caller's thread
+
+    public AIAgent(PokerAI ai) {
+        this(ai, null);
+    }
+
+    public AIAgent(PokerAI ai, Executor executor) {
+        this.ai = ai;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<AIAction> decide(TableView table, Player player) {
+        long toCall = table.getCurrentBetLevel() - player.getCurrentBet();
+        if (executor == null) {
+            return CompletableFuture.completedFuture(
+                ai.decideAction(player, table.getPlayers(), table.getCommunityCards(), toCall, table.getPot(),
+                                table.getTableId()));
+        }
+        // Copy the lists so a decision that outlives its deadline sees a stable view
+        ArrayList<Player> players = new ArrayList<>(table.getPlayers());
+        ArrayList<Card> board = new ArrayList<>(table.getCommunityCards());
+        long pot = table.getPot();
+        int tableId = table.getTableId();
+        return CompletableFuture.supplyAsync(() -> ai.decideAction(player, players, board, toCall, pot, tableId),
+                                             executor);
+    }
+
+    public PokerAI getAI() {
+        return ai;
+    }
+}
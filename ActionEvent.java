@@ -0,0 +1,49 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight recorder event for one player action applied by the engine. */
+@Name("poker.Action")
+@Label("Player Action")
+@Category("Poker")
+@StackTrace(false)
+public class ActionEvent extends Event {
+    @Label("Table")
+    public int tableId;
+
+    @Label("Hand Number")
+    public long handNumber;
+
+    @Label("Street")
+    public String street;
+
+    @Label("Seat")
+    public int seat;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Chips")
+    public long chips;
+
+    @Label("Pot")
+    public long pot;
+
+    /** Begins the event for an action, or returns null as {@link HandEvent#start} does. */
+    public static ActionEvent start() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        ActionEvent event = new ActionEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
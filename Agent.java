@@ -0,0 +1,22 @@
+package logic;
+
+import java.util.concurrent.CompletableFuture;
+import model.Player;
+
+/**
+ * Decision maker for one seat. The game loop asks the agent of the player
+ * to act and applies the action the returned future completes with;
+ * agents never mutate the table.
+ *
+ * Local agents return an already completed future and are applied at once.
+ * Agents that answer later (a person, a remote client, a computation on
+ * another thread) return a pending future; the {@link HandRunner} parks
+ * the hand until it completes or the decision deadline passes, leaving the
+ * table's thread free meanwhile. The table does not change while a decision
+ * is pending, but once it has timed out the hand moves on, so late work
+ * should not rely on the table any more.
+ */
+@FunctionalInterface
+public interface Agent {
+    CompletableFuture<AIAction> decide(TableView table, Player player);
+}
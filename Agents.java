@@ -0,0 +1,53 @@
+package sim;
+
+import ai.AIAgent;
+import ai.PokerAI;
+import java.util.random.RandomGenerator;
+import logic.Agent;
+
+/**
+ * Creates agents from the short type names used on the command line.
+ */
+public final class Agents {
+    public static final String[] TYPES = {"ai", "fastai", "call", "random"};
+
+    private Agents() {
+    }
+
+    public static Agent create(String type, String name, RandomGenerator random) {
+        switch (type) {
+            case "ai": {
+                double personality = personality(random);
+                PokerAI ai = new PokerAI(name, personality, random);
+                ai.setOpponentRange(PokerAI.defaultOpponentRange(personality));
+                return new AIAgent(ai);
+            }
+            case "fastai": {
+                PokerAI ai = new PokerAI(name, personality(random), random);
+                ai.setEquitySamples(0);
+                return new AIAgent(ai);
+            }
+            case "call":
+                return new CallingAgent();
+            case "random":
+                return new RandomAgent(random);
+            default:
+                throw new IllegalArgumentException("Unknown agent type: " + type
+                    + " (expected one of " + String.join(", ", TYPES) + ")");
+        }
+    }
+
+    public static boolean isType(String type) {
+        for (String known : TYPES) {
+            if (known.equals(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Same spread the GUI uses for its opponents
+    private static double personality(RandomGenerator random) {
+        return 0.3 + random.nextDouble() * 0.6;
+    }
+}
@@ -0,0 +1,93 @@
+package model;
+
+/**
+ * Board-only facts for the current street, computed once when the street
+ * is dealt and shared by every player's evaluation on that street: rank
+ * histogram, suit counts, per-suit rank masks, straight mask and the only
+ * suit that can still make a flush. Scoring a player then only merges the
+ * two hole cards into the precomputed suit masks.
+ */
+public class BoardAnalysis {
+    private static final int RANK_BITS = 0x1FFF;
+    private static final HandState EMPTY = new HandState();
+
+    private final int[] rankCounts = new int[Card.NUM_RANKS];
+    private final int[] suitCounts = new int[Card.NUM_SUITS];
+    private final int[] suitRanks = new int[Card.NUM_SUITS];
+    private int rankMask;
+    private int straightMask;
+    private int flushSuit = -1;
+    private long mask;
+    private int size;
+
+    /** Recomputes the analysis for the board in {@code board}; allocates nothing. */
+    public void update(HandState board) {
+        for (int r = 0; r < Card.NUM_RANKS; r++) {
+            rankCounts[r] = board.getRankCount(r);
+        }
+        flushSuit = -1;
+        for (int s = 0; s < Card.NUM_SUITS; s++) {
+            suitCounts[s] = board.getSuitCount(s);
+            suitRanks[s] = board.getSuitRanks(s);
+            // Two hole cards can only complete a flush on a suit the board has 3 of
+            if (suitCounts[s] >= 3) {
+                flushSuit = s;
+            }
+        }
+        rankMask = board.getRankMask();
+        // Ace also plays low
+        straightMask = rankMask << 1 | (rankMask >>> 12 & 1);
+        mask = board.getMask();
+        size = board.size();
+    }
+
+    public void clear() {
+        update(EMPTY);
+    }
+
+    /** Exact rank of the given hole cards on this board. */
+    public int rankWith(long holeCards) {
+        int h0 = (int) holeCards & RANK_BITS;
+        int h1 = (int) (holeCards >>> 13) & RANK_BITS;
+        int h2 = (int) (holeCards >>> 26) & RANK_BITS;
+        int h3 = (int) (holeCards >>> 39) & RANK_BITS;
+        int s0 = suitRanks[0] | h0;
+        int s1 = suitRanks[1] | h1;
+        int s2 = suitRanks[2] | h2;
+        int s3 = suitRanks[3] | h3;
+        if (flushSuit < 0) {
+            return HandEvaluator.evaluateNoFlush(s0, s1, s2, s3);
+        }
+        return HandEvaluator.evaluate(s0, s1, s2, s3);
+    }
+
+    public int getRankCount(int rankIndex) {
+        return rankCounts[rankIndex];
+    }
+
+    public int getSuitCount(int suitIndex) {
+        return suitCounts[suitIndex];
+    }
+
+    public int getRankMask() {
+        return rankMask;
+    }
+
+    /** Board ranks shifted up one bit with the ace also at bit 0, for wheel-aware straight checks. */
+    public int getStraightMask() {
+        return straightMask;
+    }
+
+    /** Suit with at least three board cards, or -1 if no flush is possible. */
+    public int getFlushSuit() {
+        return flushSuit;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public int size() {
+        return size;
+    }
+}
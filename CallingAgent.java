@@ -0,0 +1,18 @@
+package sim;
+
+import java.util.concurrent.CompletableFuture;
+import logic.AIAction;
+import logic.Agent;
+import logic.TableView;
+import model.Player;
+
+/**
+ * Calling station: checks when it can and calls every bet.
+ */
+public class CallingAgent implements Agent {
+    @Override
+    public CompletableFuture<AIAction> decide(TableView table, Player player) {
+        long toCall = table.getCurrentBetLevel() - player.getCurrentBet();
+        return CompletableFuture.completedFuture(toCall > 0 ? new AIAction("call", toCall) : new AIAction("check", 0));
+    }
+}
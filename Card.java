@@ -1,45 +1,99 @@
 package model;
 
+/**
+ * Immutable playing card. There are exactly 52 instances, created once and
+ * shared; obtain them through {@link #get(int)} or {@link #of(int, int)}.
+ *
+ * A card is identified by its index 0..51 (suit * 13 + rank), so a set of
+ * cards fits in a single {@code long} bitmask (see {@link #getMask()}).
+ */
 public class Card {
-    private String suit;
-    private String rank;
-    private int value;
-    
+    private final int index;
+    private final int rankIndex; // 0 (deuce) .. 12 (ace)
+    private final int suitIndex; // 0..3, same order as SUITS
+
     // Suit symbols
     public static final String SPADES = "♠";
     public static final String HEARTS = "♥";
     public static final String DIAMONDS = "♦";
     public static final String CLUBS = "♣";
-    
-    public Card(String suit, String rank, int value) {
-        this.suit = suit;
-        this.rank = rank;
-        this.value = value;
+
+    public static final int NUM_RANKS = 13;
+    public static final int NUM_SUITS = 4;
+    public static final int NUM_CARDS = 52;
+
+    private static final String[] SUITS = {SPADES, HEARTS, DIAMONDS, CLUBS};
+    private static final String[] RANKS = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
+
+    private static final Card[] DECK = new Card[NUM_CARDS];
+
+    static {
+        for (int i = 0; i < NUM_CARDS; i++) {
+            DECK[i] = new Card(i);
+        }
+    }
+
+    private Card(int index) {
+        this.index = index;
+        this.rankIndex = index % NUM_RANKS;
+        this.suitIndex = index / NUM_RANKS;
+    }
+
+    /** Returns the shared card for an index 0..51. */
+    public static Card get(int index) {
+        return DECK[index];
+    }
+
+    /** Returns the shared card for a rank index 0..12 and suit index 0..3. */
+    public static Card of(int rankIndex, int suitIndex) {
+        return DECK[suitIndex * NUM_RANKS + rankIndex];
+    }
+
+    /** Returns the single card whose bit is the lowest bit set in the mask. */
+    public static Card fromMask(long mask) {
+        return DECK[Long.numberOfTrailingZeros(mask)];
+    }
+
+    public int getIndex() {
+        return index;
     }
-    
+
+    public int getRankIndex() {
+        return rankIndex;
+    }
+
+    public int getSuitIndex() {
+        return suitIndex;
+    }
+
+    public long getMask() {
+        return 1L << index;
+    }
+
     public String getSuit() {
-        return suit;
+        return SUITS[suitIndex];
     }
-    
+
     public String getRank() {
-        return rank;
+        return RANKS[rankIndex];
     }
-    
+
     public int getValue() {
-        return value;
+        return rankIndex + 2;
     }
-    
+
     @Override
     public String toString() {
-        return rank + suit;
+        return getRank() + getSuit();
     }
-    
+
     @Override
     public boolean equals(Object obj) {
-        if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        Card card = (Card) obj;
-        return suit.equals(card.suit) && rank.equals(card.rank);
+        return this == obj;
     }
-}
 
+    @Override
+    public int hashCode() {
+        return index;
+    }
+}
@@ -0,0 +1,314 @@
+package history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+import logic.TexasHoldem;
+
+/**
+ * Keeps the latest checkpoint of every table in one file, written in the
+ * background.
+ *
+ * {@link #checkpoint} copies a table into a pooled buffer on the table's
+ * own thread ({@link TexasHoldem#writeCheckpoint}, a few microseconds) and
+ * queues it; a single writer thread wakes every {@value #BATCH_MILLIS} ms
+ * (or once {@value #BATCH_SIZE} checkpoints are waiting) and drains the
+ * queue in one batch of positional writes, so thousands of tables
+ * checkpoint without ever waiting for the disk. When the writer falls behind and the pool is used
+ * up, checkpoints are skipped (and counted) rather than holding up play.
+ *
+ * Table t owns two {@value #SLOT_BYTES}-byte slots at
+ * {@code t * 2 * SLOT_BYTES}, written alternately, so a write torn by a
+ * crash always leaves the previous checkpoint intact. A slot holds:
+ * <pre>
+ *  0  magic        (int)   {@value #MAGIC}
+ *  4  length       (int)   bytes from offset 12 to the end of the body
+ *  8  crc          (int)   CRC-32 of those bytes
+ * 12  table        (int)
+ * 16  sequence     (long)  higher is newer
+ * 24  log segment  (int)   hand history position at the checkpoint, -1 if none
+ * 28  log offset   (long)
+ * 36  body                 {@link TexasHoldem#writeCheckpoint}
+ * </pre>
+ */
+public class CheckpointStore implements Closeable {
+    public static final String FILE_NAME = "tables.ck";
+    public static final int SLOT_BYTES = 4096;
+    public static final int MAGIC = 0x504B4331; // "PKC1"
+
+    private static final int HEADER_BYTES = 36;
+    private static final int CRC_FROM = 12;
+    private static final int DEFAULT_MAX_BUFFERS = 4096;
+    private static final int BATCH_MILLIS = 10;
+    private static final int BATCH_SIZE = 256;
+
+    private final FileChannel channel;
+    private final ConcurrentLinkedQueue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffers = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxBuffers;
+    private final LongAdder skipped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean writerIdle;
+    private volatile boolean closed;
+    private volatile boolean sync;
+    private volatile long written;
+    private volatile long batches;
+
+    // Writer thread only
+    private final HashMap<Integer, Long> sequences = new HashMap<>();
+    private final CRC32 crc = new CRC32();
+
+    public CheckpointStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_BUFFERS);
+    }
+
+    /** @param maxBuffers checkpoints that may be queued before further ones are skipped */
+    public CheckpointStore(Path directory, int maxBuffers) throws IOException {
+        this.maxBuffers = maxBuffers;
+        Files.createDirectories(directory);
+        channel = FileChannel.open(directory.resolve(FILE_NAME), StandardOpenOption.CREATE,
+                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writer = new Thread(this::writeLoop, "checkpoint-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Checkpoints a table; call it on the table's thread, mid-hand or
+     * between hands. Returns false if the checkpoint was skipped because
+     * the writer is too far behind.
+     */
+    public boolean checkpoint(TexasHoldem game) {
+        if (closed) {
+            throw new IllegalStateException("Checkpoint store is closed");
+        }
+        if (game.getTableId() < 0) {
+            throw new IllegalArgumentException("Negative table id " + game.getTableId());
+        }
+        ByteBuffer buffer = pool.poll();
+        if (buffer == null) {
+            if (buffers.incrementAndGet() > maxBuffers) {
+                buffers.decrementAndGet();
+                skipped.increment();
+                return false;
+            }
+            buffer = ByteBuffer.allocate(SLOT_BYTES);
+        }
+        buffer.clear();
+        HistoryWriter history = game.getHistory();
+        buffer.putInt(MAGIC).putInt(0).putInt(0).putInt(game.getTableId()).putLong(0L)
+              .putInt(history != null ? history.getSegment() : -1)
+              .putLong(history != null ? history.getPosition() : 0L);
+        game.writeCheckpoint(buffer);
+        buffer.flip();
+        queue.add(buffer);
+        if (queued.incrementAndGet() >= BATCH_SIZE && writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    private void writeLoop() {
+        ArrayList<ByteBuffer> batch = new ArrayList<>();
+        while (true) {
+            ByteBuffer buffer;
+            while ((buffer = queue.poll()) != null) {
+                batch.add(buffer);
+            }
+            queued.addAndGet(-batch.size());
+            if (batch.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                writerIdle = true;
+                if (queued.get() < BATCH_SIZE && !closed) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(BATCH_MILLIS));
+                }
+                writerIdle = false;
+                continue;
+            }
+            try {
+                for (ByteBuffer checkpoint : batch) {
+                    write(checkpoint);
+                }
+                if (sync) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                System.err.println("checkpoint-writer: " + e);
+            }
+            written += batch.size();
+            batches++;
+            pool.addAll(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(ByteBuffer checkpoint) throws IOException {
+        int table = checkpoint.getInt(12);
+        Long last = sequences.get(table);
+        long sequence = (last != null ? last : newestSequence(table)) + 1;
+        sequences.put(table, sequence);
+        checkpoint.putLong(16, sequence);
+        checkpoint.putInt(4, checkpoint.limit() - CRC_FROM);
+        crc.reset();
+        crc.update(checkpoint.duplicate().position(CRC_FROM));
+        checkpoint.putInt(8, (int) crc.getValue());
+        long position = slotPosition(table, sequence);
+        while (checkpoint.hasRemaining()) {
+            position += channel.write(checkpoint, position);
+        }
+    }
+
+    // Sequence of the table's newest valid slot, 0 if it has none
+    private long newestSequence(int table) throws IOException {
+        Entry entry = latest(table);
+        return entry != null ? entry.sequence : 0L;
+    }
+
+    private static long slotPosition(int table, long sequence) {
+        return ((long) table * 2 + (sequence & 1)) * SLOT_BYTES;
+    }
+
+    /** The newest intact checkpoint of a table, or null if it has none. */
+    public Entry latest(int table) throws IOException {
+        Entry first = readSlot(slotPosition(table, 0));
+        Entry second = readSlot(slotPosition(table, 1));
+        if (first == null || first.table != table) {
+            first = null;
+        }
+        if (second == null || second.table != table) {
+            second = null;
+        }
+        if (first == null || (second != null && second.sequence > first.sequence)) {
+            return second;
+        }
+        return first;
+    }
+
+    /** Tables that have at least one checkpoint, in id order. */
+    public ArrayList<Integer> tables() throws IOException {
+        ArrayList<Integer> tables = new ArrayList<>();
+        long slots = channel.size() / SLOT_BYTES;
+        for (long slot = 0; slot < slots; slot += 2) {
+            int table = (int) (slot / 2);
+            if (latest(table) != null) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    private Entry readSlot(long position) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.read(head, position) < HEADER_BYTES || head.getInt(0) != MAGIC) {
+            return null;
+        }
+        int length = head.getInt(4);
+        if (length < HEADER_BYTES - CRC_FROM || length > SLOT_BYTES - CRC_FROM) {
+            return null;
+        }
+        ByteBuffer slot = ByteBuffer.allocate(CRC_FROM + length);
+        int read = 0;
+        while (read < slot.capacity()) {
+            int n = channel.read(slot, position + read);
+            if (n < 0) {
+                return null;
+            }
+            read += n;
+        }
+        CRC32 check = new CRC32();
+        check.update(slot.duplicate().position(CRC_FROM));
+        if ((int) check.getValue() != slot.getInt(8)) {
+            return null;
+        }
+        return new Entry(slot);
+    }
+
+    /** Forces checkpoints to disk after every batch, not just to the OS. */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    /** Checkpoints written so far. */
+    public long getWritten() {
+        return written;
+    }
+
+    /** Checkpoints dropped because the writer was behind. */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /** Writes the checkpoints went out in; fewer than written means they were batched. */
+    public long getBatches() {
+        return batches;
+    }
+
+    /** Writes everything queued so far and closes the file; stop checkpointing first. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.force(false);
+        channel.close();
+    }
+
+    /** One stored checkpoint. */
+    public static final class Entry {
+        private final int table;
+        private final long sequence;
+        private final int logSegment;
+        private final long logOffset;
+        private final ByteBuffer body;
+
+        private Entry(ByteBuffer slot) {
+            this.table = slot.getInt(12);
+            this.sequence = slot.getLong(16);
+            this.logSegment = slot.getInt(24);
+            this.logOffset = slot.getLong(28);
+            this.body = slot.position(HEADER_BYTES).slice();
+        }
+
+        public int getTable() {
+            return table;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        /** Hand history segment the table was about to write to, -1 if it kept none. */
+        public int getLogSegment() {
+            return logSegment;
+        }
+
+        public long getLogOffset() {
+            return logOffset;
+        }
+
+        /** The table, for {@link TexasHoldem#readCheckpoint}. */
+        public ByteBuffer getBody() {
+            return body.duplicate();
+        }
+    }
+}
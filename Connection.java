@@ -0,0 +1,76 @@
+package net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * One client socket, confined to the {@link ServerLoop} that owns it.
+ *
+ * Frames for the client are appended to a fixed outbound buffer and written
+ * once per loop iteration, so a burst of events costs one write. A client
+ * that lets the buffer fill up is too slow to keep and is disconnected;
+ * the table never waits for it.
+ */
+final class Connection {
+    static final int IN_CAPACITY = 4 * Protocol.MAX_FRAME;
+    static final int OUT_CAPACITY = 16 * 1024;
+
+    final SocketChannel channel;
+    final ByteBuffer in = ByteBuffer.allocate(IN_CAPACITY);
+    final ByteBuffer out = ByteBuffer.allocate(OUT_CAPACITY);
+    ServerLoop loop;
+    SelectionKey key;
+    ServerTable table; // null until joined
+    int seat = -1;     // -1 until seated
+    byte[] name;
+    boolean dirty;     // has unflushed output and is on the loop's flush list
+    boolean closed;
+
+    Connection(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * The outbound buffer with room for {@code bytes} more, or null if the
+     * client is closed or had to be dropped for not reading.
+     */
+    ByteBuffer reserve(int bytes) {
+        if (closed) {
+            return null;
+        }
+        if (out.remaining() < bytes) {
+            flush();
+            if (closed || out.remaining() < bytes) {
+                loop.close(this);
+                return null;
+            }
+        }
+        if (!dirty) {
+            dirty = true;
+            loop.markDirty(this);
+        }
+        return out;
+    }
+
+    /** Writes what the socket takes now; the rest waits for OP_WRITE. */
+    void flush() {
+        if (closed || out.position() == 0) {
+            return;
+        }
+        out.flip();
+        try {
+            channel.write(out);
+        } catch (IOException e) {
+            out.clear();
+            loop.close(this);
+            return;
+        }
+        out.compact();
+        int ops = out.position() == 0 ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+        if (key.isValid() && key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight recorder event for one AI decision and what it was based on. */
+@Name("poker.Decision")
+@Label("AI Decision")
+@Category("Poker")
+@StackTrace(false)
+public class DecisionEvent extends Event {
+    @Label("Table")
+    @Description("-1 when the caller did not say")
+    public int tableId;
+
+    @Label("Player")
+    public String player;
+
+    @Label("Street")
+    public String street;
+
+    @Label("Pot")
+    public long pot;
+
+    @Label("To Call")
+    public long toCall;
+
+    @Label("Opponents")
+    public int opponents;
+
+    @Label("Strength Source")
+    @Description("preflop table, monte carlo, exact, range or made hand")
+    public String source;
+
+    @Label("Equity Samples")
+    @Description("Showdowns sampled or enumerated, 0 without an equity calculation")
+    public long samples;
+
+    @Label("Strength")
+    @Description("Per-opponent equity or made-hand strength, 0 to 1")
+    public double strength;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Amount")
+    public long amount;
+
+    /** Begins the event for a decision, or returns null as {@link HandEvent#start} does. */
+    public static DecisionEvent start() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        DecisionEvent event = new DecisionEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
@@ -1,46 +1,138 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
+/**
+ * 52-card deck held as a permutation of card indices with a deal cursor.
+ *
+ * Shuffling is lazy: {@link #shuffle()} only arms the deck, and each
+ * {@link #deal()} performs one Fisher-Yates step, so only the cards actually
+ * dealt are ever shuffled. Nothing is allocated after construction.
+ */
 public class Deck {
-    private ArrayList<Card> cards;
-    
+    private final int[] cards = new int[Card.NUM_CARDS];
+    private int cursor;
+    private boolean shuffled;
+    private RandomGenerator random;
+
     public Deck() {
-        cards = new ArrayList<>();
+        this(new SplittableRandom());
+    }
+
+    public Deck(RandomGenerator random) {
+        this.random = random;
         initializeDeck();
     }
-    
+
     private void initializeDeck() {
-        String[] suits = {Card.SPADES, Card.HEARTS, Card.DIAMONDS, Card.CLUBS};
-        String[] ranks = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
-        int[] values = {2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14};
-        
-        for (int i = 0; i < suits.length; i++) {
-            for (int j = 0; j < ranks.length; j++) {
-                cards.add(new Card(suits[i], ranks[j], values[j]));
+        for (int i = 0; i < Card.NUM_CARDS; i++) {
+            cards[i] = i;
+        }
+        cursor = 0;
+        shuffled = false;
+    }
+
+    /** Replaces the source of randomness used by subsequent deals. */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    public RandomGenerator getRandom() {
+        return random;
+    }
+
+    /**
+     * Stacks the deck: the first {@code count} deals return {@code order}'s
+     * cards, where -1 stands for any card not named elsewhere; the rest of
+     * the deck follows in index order. Used to replay recorded hands.
+     */
+    public void arrange(int[] order, int count) {
+        initializeDeck();
+        arrangeRemaining(order, count);
+    }
+
+    /**
+     * Like {@link #arrange}, but for the cards not dealt yet: the cards
+     * already dealt stay dealt and {@code order} may only name the others.
+     */
+    public void arrangeRemaining(int[] order, int count) {
+        long used = 0L;
+        for (int i = 0; i < count; i++) {
+            if (order[i] >= 0) {
+                used |= 1L << order[i];
             }
         }
+        long rest = 0L;
+        for (int i = cursor; i < Card.NUM_CARDS; i++) {
+            rest |= 1L << cards[i];
+        }
+        if ((used & ~rest) != 0) {
+            throw new IllegalArgumentException("Cannot stack cards that were already dealt");
+        }
+        rest &= ~used;
+        for (int i = 0; cursor + i < Card.NUM_CARDS; i++) {
+            if (i < count && order[i] >= 0) {
+                cards[cursor + i] = order[i];
+            } else {
+                cards[cursor + i] = Long.numberOfTrailingZeros(rest);
+                rest &= rest - 1;
+            }
+        }
+        shuffled = false;
     }
-    
+
     public void shuffle() {
-        Collections.shuffle(cards);
+        shuffled = true;
+    }
+
+    /** Deals the next card index, or -1 if the deck is empty. */
+    public int dealIndex() {
+        if (cursor >= Card.NUM_CARDS) {
+            return -1;
+        }
+        if (shuffled) {
+            int j = cursor + random.nextInt(Card.NUM_CARDS - cursor);
+            int tmp = cards[j];
+            cards[j] = cards[cursor];
+            cards[cursor] = tmp;
+        }
+        return cards[cursor++];
     }
-    
+
     public Card deal() {
-        if (cards.isEmpty()) {
+        int index = dealIndex();
+        if (index < 0) {
             return null;
         }
-        return cards.remove(0);
+        return Card.get(index);
     }
-    
+
     public int size() {
-        return cards.size();
+        return Card.NUM_CARDS - cursor;
     }
-    
+
     public void reset() {
-        cards.clear();
         initializeDeck();
     }
-}
 
+    /**
+     * Writes the card order, deal cursor and shuffle flag. With the state of
+     * the random source this is enough to deal on exactly as this deck would.
+     */
+    public void writeState(ByteBuffer out) {
+        for (int card : cards) {
+            out.put((byte) card);
+        }
+        out.put((byte) cursor).put((byte) (shuffled ? 1 : 0));
+    }
+
+    public void readState(ByteBuffer in) {
+        for (int i = 0; i < Card.NUM_CARDS; i++) {
+            cards[i] = in.get();
+        }
+        cursor = in.get();
+        shuffled = in.get() != 0;
+    }
+}
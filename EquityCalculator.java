@@ -0,0 +1,166 @@
+package equity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import model.Card;
+import model.Hand;
+import model.HandEvaluator;
+
+/**
+ * Monte Carlo equity of known hole cards against random opponent hands.
+ *
+ * Samples run in rounds on a fork/join pool. Every leaf task owns its
+ * random stream (split off before forking) and its own {@link Tally}, so
+ * workers share no mutable state. After each round the confidence interval
+ * is checked and sampling stops once it is tight enough, the sample limit
+ * is reached or the time budget runs out.
+ */
+public class EquityCalculator {
+    public static final double DEFAULT_TARGET_HALF_WIDTH = 0.005;
+
+    private static final int MIN_ROUND = 16_384;
+
+    private final ForkJoinPool pool;
+    private final SplittableRandom random;
+    private double targetHalfWidth = DEFAULT_TARGET_HALF_WIDTH;
+
+    public EquityCalculator() {
+        this(ForkJoinPool.commonPool(), new SplittableRandom());
+    }
+
+    public EquityCalculator(ForkJoinPool pool, SplittableRandom random) {
+        this.pool = pool;
+        this.random = random;
+    }
+
+    /** Stop once the 95% confidence half-width on equity is at most this. */
+    public void setTargetHalfWidth(double targetHalfWidth) {
+        this.targetHalfWidth = targetHalfWidth;
+    }
+
+    public EquityResult equity(List<Card> holeCards, List<Card> board, int numOpponents, int maxSamples) {
+        return equity(Hand.maskOf(holeCards), Hand.maskOf(board), numOpponents, maxSamples, Long.MAX_VALUE);
+    }
+
+    public EquityResult equity(List<Card> holeCards, List<Card> board, int numOpponents, Duration budget) {
+        return equity(Hand.maskOf(holeCards), Hand.maskOf(board), numOpponents, Long.MAX_VALUE, budget.toNanos());
+    }
+
+    /**
+     * Estimates equity of the hole cards on the given board against
+     * {@code numOpponents} random hands, drawing at most {@code maxSamples}
+     * runouts within {@code budgetNanos}.
+     */
+    public EquityResult equity(long holeCards, long board, int numOpponents, long maxSamples, long budgetNanos) {
+        int boardSize = Long.bitCount(board);
+        if (numOpponents < 1 || Long.bitCount(holeCards) != 2 || boardSize > 5 || (holeCards & board) != 0
+                || (5 - boardSize) + 2 * numOpponents > Card.NUM_CARDS - 2 - boardSize) {
+            throw new IllegalArgumentException("Invalid equity query");
+        }
+        return run(new Sampler(holeCards, board, numOpponents, 0, 0, null), maxSamples, budgetNanos);
+    }
+
+    /**
+     * Runs sampling rounds of the query described by {@code prototype} (whose
+     * own sample count, deadline and stream are ignored) until
+     * the sample limit, the time budget or the target interval is reached.
+     */
+    EquityResult run(SampleTask prototype, long maxSamples, long budgetNanos) {
+        long start = System.nanoTime();
+        long deadline = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + budgetNanos;
+        int leaves = Math.max(1, pool.getParallelism());
+        Tally total = new Tally();
+        long round = Math.max(MIN_ROUND, leaves * SampleTask.LEAF_SAMPLES);
+
+        while (true) {
+            long samples = Math.min(round, maxSamples - total.count());
+            Tally tally = pool.invoke(prototype.child(samples, deadline, split()));
+            if (tally.count() == 0 && tally.rejected > 0) {
+                // Only rejections: more rounds would never reach the limit
+                throw new IllegalArgumentException("Ranges can almost never be dealt together ("
+                                                   + tally.rejected + " deals rejected)");
+            }
+            total.merge(tally);
+            EquityResult result = total.toResult(false);
+            if (total.count() >= maxSamples || System.nanoTime() >= deadline
+                    || (total.count() >= MIN_ROUND && result.getHalfWidth() <= targetHalfWidth)) {
+                return result;
+            }
+            round *= 2;
+        }
+    }
+
+    // The calculator may be shared between tables; only this split touches its stream
+    private SplittableRandom split() {
+        synchronized (random) {
+            return random.split();
+        }
+    }
+
+    private static class Sampler extends SampleTask {
+        private static final long serialVersionUID = 1L;
+
+        private final long hole;
+        private final long board;
+        private final int opponents;
+        private int[] live;
+        private int missing;
+
+        Sampler(long hole, long board, int opponents, long samples, long deadline, SplittableRandom random) {
+            super(samples, deadline, random);
+            this.hole = hole;
+            this.board = board;
+            this.opponents = opponents;
+        }
+
+        @Override
+        SampleTask child(long samples, long deadline, SplittableRandom random) {
+            return new Sampler(hole, board, opponents, samples, deadline, random);
+        }
+
+        @Override
+        void prepare() {
+            live = liveCards(hole | board);
+            missing = 5 - Long.bitCount(board);
+        }
+
+        @Override
+        void sampleOnce(Tally tally) {
+            // Partial Fisher-Yates: draw only the cards this runout needs
+            int drawn = 0;
+            long runout = board;
+            for (int i = 0; i < missing; i++) {
+                runout |= 1L << draw(live, live.length, drawn++);
+            }
+            int heroRank = HandEvaluator.evaluate(hole | runout);
+            int best = Integer.MIN_VALUE;
+            int atBest = 0;
+            for (int o = 0; o < opponents; o++) {
+                long opp = 1L << draw(live, live.length, drawn++);
+                opp |= 1L << draw(live, live.length, drawn++);
+                int rank = HandEvaluator.evaluate(opp | runout);
+                if (rank > best) {
+                    best = rank;
+                    atBest = 1;
+                } else if (rank == best) {
+                    atBest++;
+                }
+            }
+            tally.record(heroRank, best, atBest);
+        }
+    }
+
+    /** Indices of the cards not in the dead mask. */
+    static int[] liveCards(long dead) {
+        int[] live = new int[Card.NUM_CARDS - Long.bitCount(dead)];
+        int n = 0;
+        for (int i = 0; i < Card.NUM_CARDS; i++) {
+            if ((dead & (1L << i)) == 0) {
+                live[n++] = i;
+            }
+        }
+        return live;
+    }
+}
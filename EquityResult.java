@@ -0,0 +1,56 @@
+package equity;
+
+/**
+ * Outcome of an equity calculation: how often the hero wins, ties and loses,
+ * plus the equity (ties shared between the tied players) and its 95%
+ * confidence half-width. Exact enumerations report a half-width of zero.
+ */
+public class EquityResult {
+    private final long samples;
+    private final double win;
+    private final double tie;
+    private final double lose;
+    private final double equity;
+    private final double halfWidth;
+
+    public EquityResult(long samples, double win, double tie, double lose, double equity, double halfWidth) {
+        this.samples = samples;
+        this.win = win;
+        this.tie = tie;
+        this.lose = lose;
+        this.equity = equity;
+        this.halfWidth = halfWidth;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public double getWin() {
+        return win;
+    }
+
+    public double getTie() {
+        return tie;
+    }
+
+    public double getLose() {
+        return lose;
+    }
+
+    /** Share of the pot won on average, with ties split between tied players. */
+    public double getEquity() {
+        return equity;
+    }
+
+    /** Half-width of the 95% confidence interval around {@link #getEquity()}. */
+    public double getHalfWidth() {
+        return halfWidth;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("win %.2f%% tie %.2f%% lose %.2f%% (equity %.2f%% +/- %.2f%%, %d samples)",
+            win * 100, tie * 100, lose * 100, equity * 100, halfWidth * 100, samples);
+    }
+}
@@ -0,0 +1,110 @@
+package event;
+
+import java.util.Arrays;
+
+/**
+ * Publishes a table's events to any number of subscribers without ever
+ * blocking the table.
+ *
+ * Every subscriber gets its own bounded {@link EventRing} of preallocated
+ * events and its own consumer thread, so a slow UI or writer only fills its
+ * own ring and then loses events (or briefly delays the publisher, see
+ * {@link Subscription.Overflow}) without affecting the others. With no
+ * subscribers {@link #publish} returns after two volatile reads, and a table
+ * without a bus skips even that.
+ *
+ * Direct listeners are the exception: they run on the publishing thread
+ * itself, for consumers that already live on the table's thread (such as a
+ * network loop encoding events for its connections), and must never block.
+ *
+ * A bus has a single publishing thread at a time, normally the thread
+ * playing its table.
+ */
+public class EventBus {
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    private volatile GameEventListener[] direct = new GameEventListener[0];
+    private final GameEvent directEvent = new GameEvent();
+    private long sequence;
+
+    public Subscription subscribe(String name, GameEventListener listener) {
+        return subscribe(name, listener, DEFAULT_CAPACITY, Subscription.Overflow.DROP);
+    }
+
+    public synchronized Subscription subscribe(String name, GameEventListener listener, int capacity,
+                                               Subscription.Overflow overflow) {
+        Subscription subscription = new Subscription(name, listener, capacity, overflow);
+        Subscription[] current = subscriptions;
+        Subscription[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = subscription;
+        subscriptions = next;
+        return subscription;
+    }
+
+    public synchronized void unsubscribe(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] next = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                subscriptions = next;
+                break;
+            }
+        }
+        subscription.close();
+    }
+
+    /** Calls {@code listener} on the publishing thread for every event. */
+    public synchronized void addDirectListener(GameEventListener listener) {
+        GameEventListener[] current = direct;
+        GameEventListener[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = listener;
+        direct = next;
+    }
+
+    public synchronized void removeDirectListener(GameEventListener listener) {
+        GameEventListener[] current = direct;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                GameEventListener[] next = new GameEventListener[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                direct = next;
+                break;
+            }
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return subscriptions.length != 0 || direct.length != 0;
+    }
+
+    public void publish(int type, int tableId, long handNumber, int seat, int action, int round,
+                        long amount, long cards) {
+        Subscription[] current = subscriptions;
+        GameEventListener[] inline = direct;
+        if (current.length == 0 && inline.length == 0) {
+            return;
+        }
+        long seq = sequence++;
+        if (inline.length != 0) {
+            directEvent.set(seq, type, tableId, handNumber, seat, action, round, amount, cards);
+            for (GameEventListener listener : inline) {
+                listener.onEvent(directEvent);
+            }
+        }
+        for (Subscription subscription : current) {
+            subscription.offer(seq, type, tableId, handNumber, seat, action, round, amount, cards);
+        }
+    }
+
+    /** Unsubscribes and stops every subscriber. */
+    public synchronized void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+        subscriptions = new Subscription[0];
+    }
+}
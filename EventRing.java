@@ -0,0 +1,68 @@
+package event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer, single-consumer ring of preallocated events.
+ *
+ * The producer claims the slot at the tail, fills it and publishes it with
+ * a release store; the consumer reads the slot at the head and frees it the
+ * same way. Each side caches the other's index and only re-reads it when
+ * the ring looks full or empty, so the common path touches no shared
+ * cache line but its own.
+ */
+final class EventRing {
+    private final GameEvent[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next slot to consume
+    private final AtomicLong tail = new AtomicLong(); // next slot to fill
+    private long cachedHead; // producer's view of head
+    private long cachedTail; // consumer's view of tail
+
+    EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        slots = new GameEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new GameEvent();
+        }
+        mask = size - 1;
+    }
+
+    /** Producer: the next free slot, or null if the ring is full. */
+    GameEvent claim() {
+        long t = tail.get();
+        if (t - cachedHead >= slots.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= slots.length) {
+                return null;
+            }
+        }
+        return slots[(int) t & mask];
+    }
+
+    /** Producer: makes the claimed slot visible to the consumer. */
+    void publish() {
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /** Consumer: the oldest unconsumed event, or null if the ring is empty. */
+    GameEvent peek() {
+        long h = head.get();
+        if (h >= cachedTail) {
+            cachedTail = tail.get();
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        return slots[(int) h & mask];
+    }
+
+    /** Consumer: frees the slot returned by {@link #peek()}. */
+    void release() {
+        head.lazySet(head.get() + 1);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
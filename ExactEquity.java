@@ -0,0 +1,217 @@
+package equity;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import model.Card;
+import model.Hand;
+import model.HandEvaluator;
+
+/**
+ * Exact equity by exhaustive enumeration over card bitmasks.
+ *
+ * Walks every remaining board completion and, for random opponents, every
+ * opponent hole-card combination (up to two opponents). Board completions
+ * are split across cores with fork/join. Intended for late streets and
+ * fixed hands, where the number of cases is small enough to be exact and
+ * still interactive; use {@link EquityCalculator} for the rest.
+ */
+public class ExactEquity {
+    public static final int MAX_RANDOM_OPPONENTS = 2;
+
+    private static final int LEAF_RUNOUTS = 8;
+
+    private final ForkJoinPool pool;
+
+    public ExactEquity() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ExactEquity(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public EquityResult equity(List<Card> holeCards, List<Card> board, int numOpponents) {
+        return equity(Hand.maskOf(holeCards), Hand.maskOf(board), numOpponents);
+    }
+
+    /** Exact equity against one or two random opponent hands. */
+    public EquityResult equity(long holeCards, long board, int numOpponents) {
+        if (numOpponents < 1 || numOpponents > MAX_RANDOM_OPPONENTS) {
+            throw new IllegalArgumentException("Exact equity supports 1 to " + MAX_RANDOM_OPPONENTS + " random opponents");
+        }
+        checkQuery(holeCards, board);
+        long[] runouts = runouts(board, holeCards);
+        return pool.invoke(new Enumerator(holeCards, runouts, 0, runouts.length, numOpponents, null)).toResult(true);
+    }
+
+    /** Exact equity against known opponent hands; only the board is enumerated. */
+    public EquityResult equityVs(long holeCards, long board, long... opponentHands) {
+        checkQuery(holeCards, board);
+        long dead = holeCards | board;
+        for (long opponent : opponentHands) {
+            if (Long.bitCount(opponent) != 2 || (opponent & dead) != 0) {
+                throw new IllegalArgumentException("Invalid or overlapping opponent hand");
+            }
+            dead |= opponent;
+        }
+        long[] runouts = runouts(board, dead);
+        return pool.invoke(new Enumerator(holeCards, runouts, 0, runouts.length, 0, opponentHands)).toResult(true);
+    }
+
+    private static void checkQuery(long holeCards, long board) {
+        if (Long.bitCount(holeCards) != 2 || Long.bitCount(board) > 5 || (holeCards & board) != 0) {
+            throw new IllegalArgumentException("Invalid equity query");
+        }
+    }
+
+    /** Every 5-card board that extends the given board using live cards. */
+    static long[] runouts(long board, long dead) {
+        int[] live = EquityCalculator.liveCards(board | dead);
+        int missing = 5 - Long.bitCount(board);
+        long[] out = new long[(int) choose(live.length, missing)];
+        int[] idx = new int[missing];
+        for (int i = 0; i < missing; i++) {
+            idx[i] = i;
+        }
+        int n = 0;
+        while (true) {
+            long runout = board;
+            for (int i = 0; i < missing; i++) {
+                runout |= 1L << live[idx[i]];
+            }
+            out[n++] = runout;
+            // Advance to the next combination in lexicographic order
+            int i = missing - 1;
+            while (i >= 0 && idx[i] == live.length - missing + i) {
+                i--;
+            }
+            if (i < 0) {
+                return out;
+            }
+            idx[i]++;
+            for (int j = i + 1; j < missing; j++) {
+                idx[j] = idx[j - 1] + 1;
+            }
+        }
+    }
+
+    static long choose(int n, int k) {
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+    private static class Enumerator extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final long hole;
+        private final long[] runouts;
+        private final int from;
+        private final int to;
+        private final int randomOpponents;
+        private final long[] knownOpponents;
+
+        Enumerator(long hole, long[] runouts, int from, int to, int randomOpponents, long[] knownOpponents) {
+            this.hole = hole;
+            this.runouts = runouts;
+            this.from = from;
+            this.to = to;
+            this.randomOpponents = randomOpponents;
+            this.knownOpponents = knownOpponents;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > LEAF_RUNOUTS) {
+                int mid = (from + to) >>> 1;
+                Enumerator left = new Enumerator(hole, runouts, from, mid, randomOpponents, knownOpponents);
+                Enumerator right = new Enumerator(hole, runouts, mid, to, randomOpponents, knownOpponents);
+                left.fork();
+                Tally tally = right.compute();
+                tally.merge(left.join());
+                return tally;
+            }
+            Tally tally = new Tally();
+            if (knownOpponents != null) {
+                enumerateKnown(tally);
+            } else {
+                enumerateRandom(tally);
+            }
+            return tally;
+        }
+
+        private void enumerateKnown(Tally tally) {
+            for (int r = from; r < to; r++) {
+                long runout = runouts[r];
+                int heroRank = HandEvaluator.evaluate(hole | runout);
+                int best = Integer.MIN_VALUE;
+                int atBest = 0;
+                for (long opponent : knownOpponents) {
+                    int rank = HandEvaluator.evaluate(opponent | runout);
+                    if (rank > best) {
+                        best = rank;
+                        atBest = 1;
+                    } else if (rank == best) {
+                        atBest++;
+                    }
+                }
+                tally.record(heroRank, best, atBest);
+            }
+        }
+
+        private void enumerateRandom(Tally tally) {
+            int liveCount = Card.NUM_CARDS - Long.bitCount(hole | runouts[from]);
+            long[] pairMasks = new long[(int) choose(liveCount, 2)];
+            int[] pairRanks = new int[pairMasks.length];
+
+            for (int r = from; r < to; r++) {
+                long runout = runouts[r];
+                long dead = hole | runout;
+                int heroRank = HandEvaluator.evaluate(dead);
+
+                // Rank every opponent holding once per runout
+                int pairs = 0;
+                for (int a = 0; a < Card.NUM_CARDS; a++) {
+                    long ma = 1L << a;
+                    if ((dead & ma) != 0) {
+                        continue;
+                    }
+                    for (int b = a + 1; b < Card.NUM_CARDS; b++) {
+                        long mb = 1L << b;
+                        if ((dead & mb) == 0) {
+                            pairMasks[pairs] = ma | mb;
+                            pairRanks[pairs] = HandEvaluator.evaluate(ma | mb | runout);
+                            pairs++;
+                        }
+                    }
+                }
+
+                if (randomOpponents == 1) {
+                    for (int p = 0; p < pairs; p++) {
+                        tally.record(heroRank, pairRanks[p], 1);
+                    }
+                    continue;
+                }
+                // Two opponents: each unordered pair of disjoint holdings
+                for (int p = 0; p < pairs; p++) {
+                    long pm = pairMasks[p];
+                    int pr = pairRanks[p];
+                    for (int q = p + 1; q < pairs; q++) {
+                        if ((pairMasks[q] & pm) != 0) {
+                            continue;
+                        }
+                        int qr = pairRanks[q];
+                        if (pr == qr) {
+                            tally.record(heroRank, pr, 2);
+                        } else {
+                            tally.record(heroRank, Math.max(pr, qr), 1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
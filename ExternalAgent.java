@@ -0,0 +1,46 @@
+package logic;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import model.Player;
+
+/**
+ * Agent whose decisions come from outside the table: a person at the GUI
+ * or a remote client. Each decision is a pending future that
+ * {@link #submit} completes from any thread; if the runner's deadline
+ * passes first the future is completed with its check or fold instead and
+ * a late answer is refused.
+ */
+public class ExternalAgent implements Agent {
+    private final BiConsumer<TableView, Player> prompt;
+    private volatile CompletableFuture<AIAction> pending;
+
+    public ExternalAgent() {
+        this((table, player) -> { });
+    }
+
+    /** @param prompt told on the table's thread whenever a decision is wanted */
+    public ExternalAgent(BiConsumer<TableView, Player> prompt) {
+        this.prompt = prompt;
+    }
+
+    @Override
+    public CompletableFuture<AIAction> decide(TableView table, Player player) {
+        CompletableFuture<AIAction> decision = new CompletableFuture<>();
+        pending = decision;
+        prompt.accept(table, player);
+        return decision;
+    }
+
+    /** Answers the open decision; false if there is none or it already timed out. */
+    public boolean submit(String action, long amount) {
+        CompletableFuture<AIAction> decision = pending;
+        return decision != null && decision.complete(new AIAction(action, amount));
+    }
+
+    /** Whether a decision has been asked for and not answered yet. */
+    public boolean isWaiting() {
+        CompletableFuture<AIAction> decision = pending;
+        return decision != null && !decision.isDone();
+    }
+}
@@ -0,0 +1,89 @@
+package event;
+
+/**
+ * A table event as seen by subscribers of an {@link EventBus}.
+ *
+ * Events live in preallocated ring slots and are overwritten once consumed,
+ * so a listener must copy anything it wants to keep before returning.
+ */
+public final class GameEvent {
+    public static final int HAND_START = 1;   // seat: button, amount: hand number
+    public static final int BLIND = 2;        // amount: chips posted
+    public static final int ACTION = 3;       // action: GameState code, amount: chips put in
+    public static final int STREET = 4;       // round: street dealt, cards: board so far
+    public static final int SHOWDOWN = 5;     // cards: hole cards shown
+    public static final int POT_AWARDED = 6;  // amount: chips won
+    public static final int HOLE = 7;         // cards: the seat's hole cards, not for other players' eyes
+    public static final int HAND_END = 8;     // amount: pot that was settled
+
+    private static final String[] NAMES = {
+        "?", "HAND_START", "BLIND", "ACTION", "STREET", "SHOWDOWN", "POT_AWARDED", "HOLE", "HAND_END"
+    };
+
+    private long sequence;
+    private int type;
+    private int tableId;
+    private long handNumber;
+    private int seat;
+    private int action;
+    private int round;
+    private long amount;
+    private long cards;
+
+    void set(long sequence, int type, int tableId, long handNumber, int seat, int action, int round,
+             long amount, long cards) {
+        this.sequence = sequence;
+        this.type = type;
+        this.tableId = tableId;
+        this.handNumber = handNumber;
+        this.seat = seat;
+        this.action = action;
+        this.round = round;
+        this.amount = amount;
+        this.cards = cards;
+    }
+
+    /** Position of this event in its bus's stream; gaps mean events were dropped. */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    public long getHandNumber() {
+        return handNumber;
+    }
+
+    public int getSeat() {
+        return seat;
+    }
+
+    public int getAction() {
+        return action;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    /** Card mask (see {@link model.Card#getMask()}). */
+    public long getCards() {
+        return cards;
+    }
+
+    @Override
+    public String toString() {
+        return "GameEvent[#" + sequence + " " + NAMES[type] + " table=" + tableId + " hand=" + handNumber
+            + " seat=" + seat + " action=" + action + " round=" + round + " amount=" + amount + "]";
+    }
+}
@@ -0,0 +1,10 @@
+package event;
+
+/**
+ * Receives events on its subscription's own thread.
+ */
+@FunctionalInterface
+public interface GameEventListener {
+    /** Called once per event; the event is only valid until this returns. */
+    void onEvent(GameEvent event);
+}
@@ -0,0 +1,247 @@
+package net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.atomic.LongAdder;
+import logic.HandRunner;
+import logic.SeedTree;
+import metrics.Metrics;
+import model.TableState;
+
+/**
+ * Hosts {@link logic.TexasHoldem} tables for network clients speaking the
+ * {@link Protocol}.
+ *
+ * A few selector loops carry all connections and tables; table t lives on
+ * loop {@code t % loops} together with everybody seated at it, so one
+ * thread can serve hundreds of tables and thousands of connections while
+ * every action is handled without locks or thread hand-offs. Table ids run
+ * from 0 to {@code --tables} - 1; a table is created when the first player
+ * joins it, dropped when the last one has gone, and deals from seed tree
+ * coordinates (seed, table, hand) like simulated tables. A table started
+ * again after a drop carries on numbering hands, so it never repeats a deal.
+ *
+ * Usage: {@code java net.GameServer [--port N] [--loops N] [--tables N]
+ * [--seats N] [--stack N] [--timeout MS] [--pause MS] [--rebuy] [--seed N]
+ * [--metrics FILE]}. The server always publishes its {@link Metrics} over
+ * JMX; {@code --metrics} also appends them to FILE every second.
+ */
+public class GameServer {
+    public static final int DEFAULT_MAX_TABLES = 10_000;
+
+    private final int port;
+    private final ServerLoop[] loops;
+    private ServerSocketChannel channel;
+    private int nextLoop;
+    private final LongAdder hands = new LongAdder();
+    private final LongAdder actions = new LongAdder();
+
+    private SeedTree seeds = new SeedTree(System.nanoTime());
+    private int maxTables = DEFAULT_MAX_TABLES;
+    private int seatsPerTable = 6;
+    private long startingStack = 1000;
+    private long decisionTimeoutMillis = HandRunner.DEFAULT_DECISION_TIMEOUT_MILLIS;
+    private long handPauseMillis;
+    private boolean rebuy;
+
+    /** @param port 0 picks a free port, see {@link #getPort()} */
+    public GameServer(int port, int loops) throws IOException {
+        this.port = port;
+        this.loops = new ServerLoop[loops];
+        for (int i = 0; i < loops; i++) {
+            this.loops[i] = new ServerLoop(this, i);
+        }
+    }
+
+    public void start() throws IOException {
+        channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(port), 4096);
+        channel.configureBlocking(false);
+        loops[0].listen(channel);
+        for (ServerLoop loop : loops) {
+            loop.start();
+        }
+    }
+
+    /** Stops all loops, closing every connection. */
+    public void close() throws IOException, InterruptedException {
+        channel.close();
+        for (ServerLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    ServerLoop loopFor(int tableId) {
+        return loops[Math.floorMod(tableId, loops.length)];
+    }
+
+    // Accepting loop only
+    ServerLoop nextLoop() {
+        ServerLoop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+        return loop;
+    }
+
+    void countHand(long handActions) {
+        hands.increment();
+        actions.add(handActions);
+    }
+
+    public int getConnectionCount() {
+        int count = 0;
+        for (ServerLoop loop : loops) {
+            count += loop.getConnectionCount();
+        }
+        return count;
+    }
+
+    public int getTableCount() {
+        int count = 0;
+        for (ServerLoop loop : loops) {
+            count += loop.getTableCount();
+        }
+        return count;
+    }
+
+    public long getHands() {
+        return hands.sum();
+    }
+
+    public long getActions() {
+        return actions.sum();
+    }
+
+    // Settings apply to tables created afterwards; set them before start()
+
+    public void setSeed(long seed) {
+        this.seeds = new SeedTree(seed);
+    }
+
+    SeedTree getSeeds() {
+        return seeds;
+    }
+
+    /** Joins name table ids below this. */
+    public void setMaxTables(int maxTables) {
+        this.maxTables = maxTables;
+    }
+
+    public int getMaxTables() {
+        return maxTables;
+    }
+
+    /** Players per table, at most {@link TableState#MAX_SEATS}. */
+    public void setSeatsPerTable(int seatsPerTable) {
+        this.seatsPerTable = Math.min(seatsPerTable, TableState.MAX_SEATS);
+    }
+
+    public int getSeatsPerTable() {
+        return seatsPerTable;
+    }
+
+    public void setStartingStack(long startingStack) {
+        this.startingStack = startingStack;
+    }
+
+    public long getStartingStack() {
+        return startingStack;
+    }
+
+    public void setDecisionTimeout(long millis) {
+        this.decisionTimeoutMillis = millis;
+    }
+
+    public long getDecisionTimeout() {
+        return decisionTimeoutMillis;
+    }
+
+    /** Pause between hands, so people can see the result. */
+    public void setHandPause(long millis) {
+        this.handPauseMillis = millis;
+    }
+
+    public long getHandPause() {
+        return handPauseMillis;
+    }
+
+    /** Tops broke players up to the starting stack while they stay connected. */
+    public void setRebuy(boolean rebuy) {
+        this.rebuy = rebuy;
+    }
+
+    public boolean isRebuy() {
+        return rebuy;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = Protocol.DEFAULT_PORT;
+        int loops = Runtime.getRuntime().availableProcessors();
+        Long seed = null;
+        int tables = DEFAULT_MAX_TABLES;
+        int seats = 6;
+        long stack = 1000;
+        long timeout = HandRunner.DEFAULT_DECISION_TIMEOUT_MILLIS;
+        long pause = 0;
+        boolean rebuy = false;
+        String metricsFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--rebuy")) {
+                rebuy = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                System.err.println("Missing value for " + args[i]);
+                System.exit(2);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--port": port = Integer.parseInt(value); break;
+                case "--loops": loops = Integer.parseInt(value); break;
+                case "--tables": tables = Integer.parseInt(value); break;
+                case "--seats": seats = Integer.parseInt(value); break;
+                case "--stack": stack = Long.parseLong(value); break;
+                case "--timeout": timeout = Long.parseLong(value); break;
+                case "--pause": pause = Long.parseLong(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--metrics": metricsFile = value; break;
+                default:
+                    System.err.println("Unknown option: " + args[i - 1]);
+                    System.exit(2);
+            }
+        }
+
+        Metrics.start(metricsFile != null ? Paths.get(metricsFile) : null, 1000);
+        GameServer server = new GameServer(port, loops);
+        if (seed != null) {
+            server.setSeed(seed);
+        }
+        server.setMaxTables(tables);
+        server.setSeatsPerTable(seats);
+        server.setStartingStack(stack);
+        server.setDecisionTimeout(timeout);
+        server.setHandPause(pause);
+        server.setRebuy(rebuy);
+        server.start();
+        System.out.printf("listening on port %d with %d loops%n", server.getPort(), loops);
+
+        long lastHands = 0;
+        long lastActions = 0;
+        while (true) {
+            Thread.sleep(5000);
+            long hands = server.getHands();
+            long actions = server.getActions();
+            System.out.printf("%d connections, %d tables, %.0f hands/s, %.0f actions/s%n",
+                server.getConnectionCount(), server.getTableCount(),
+                (hands - lastHands) / 5.0, (actions - lastActions) / 5.0);
+            lastHands = hands;
+            lastActions = actions;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package logic;
+
+import model.TableState;
+
+/**
+ * Compact, copyable betting state of a hand: pot, bet level, round,
+ * player to act, who has acted since the last raise and every seat's
+ * chips, bet and status.
+ *
+ * {@link #apply(int, long)} and {@link #nextStreet()} record what they
+ * change in a preallocated undo journal, so search code can step forward
+ * and {@link #undo()} back, or {@link #copyFrom(GameState)} a fork, without
+ * allocating. {@link TexasHoldem} keeps its own betting state in one of
+ * these, so the rules applied here are the engine's rules.
+ */
+public class GameState {
+    public static final int FOLD = 0;
+    public static final int CHECK = 1;
+    public static final int CALL = 2;
+    public static final int RAISE = 3;
+
+    public static final int DEFAULT_UNDO_DEPTH = 256;
+
+    private static final int ACTION_ENTRY = 0;
+    private static final int STREET_ENTRY = 1;
+
+    private final TableState seats;
+    private long pot;
+    private long betLevel;
+    private int round;
+    private int currentSeat;
+    private int button;
+    private long acted; // bit per seat that has acted since the last bet or raise
+
+    // Undo journal: one entry per apply()/nextStreet()
+    private final int[] jKind;
+    private final long[] jPot;
+    private final long[] jBetLevel;
+    private final int[] jRound;
+    private final int[] jCurrent;
+    private final long[] jActed;
+    private final long[] jChips;
+    private final long[] jBet;
+    private final long[] jCommitted;
+    private final int[] jStatus;
+    private final long[] jBets; // all seat bets, for street entries
+    private int depth;
+
+    public GameState() {
+        this(new TableState(), DEFAULT_UNDO_DEPTH);
+    }
+
+    /** An {@code undoDepth} of 0 turns journaling off, as the live engine does. */
+    public GameState(TableState seats, int undoDepth) {
+        if (seats.getCapacity() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " seats, not " + seats.getCapacity());
+        }
+        this.seats = seats;
+        jKind = new int[undoDepth];
+        jPot = new long[undoDepth];
+        jBetLevel = new long[undoDepth];
+        jRound = new int[undoDepth];
+        jCurrent = new int[undoDepth];
+        jActed = new long[undoDepth];
+        jChips = new long[undoDepth];
+        jBet = new long[undoDepth];
+        jCommitted = new long[undoDepth];
+        jStatus = new int[undoDepth];
+        jBets = new long[undoDepth * seats.getCapacity()];
+    }
+
+    public static int actionCode(String action) {
+        switch (action.toLowerCase()) {
+            case "fold": return FOLD;
+            case "call": return CALL;
+            case "raise": return RAISE;
+            default: return CHECK;
+        }
+    }
+
+    /** Inverse of {@link #actionCode}; unknown codes are checks. */
+    public static String actionName(int code) {
+        switch (code) {
+            case FOLD: return "fold";
+            case CALL: return "call";
+            case RAISE: return "raise";
+            default: return "check";
+        }
+    }
+
+    /** Copies another state; the undo history is not copied. */
+    public void copyFrom(GameState other) {
+        seats.copyFrom(other.seats);
+        pot = other.pot;
+        betLevel = other.betLevel;
+        round = other.round;
+        currentSeat = other.currentSeat;
+        button = other.button;
+        acted = other.acted;
+        depth = 0;
+    }
+
+    /**
+     * Applies the current player's action and moves to the next player.
+     * {@code amount} is the raise on top of the call for {@link #RAISE}.
+     */
+    public void apply(int action, long amount) {
+        int seat = currentSeat;
+        push(ACTION_ENTRY, seat);
+
+        if (seats.is(seat, TableState.FOLDED) || seats.is(seat, TableState.ALL_IN)) {
+            moveToNextPlayer();
+            return;
+        }
+
+        long betToCall = betLevel - seats.getBet(seat);
+        switch (action) {
+            case FOLD:
+                seats.set(seat, TableState.FOLDED, true);
+                break;
+            case CALL: {
+                long callAmount = Math.min(betToCall, seats.getChips(seat));
+                seats.call(seat, callAmount);
+                pot += callAmount;
+                break;
+            }
+            case RAISE: {
+                long actualRaise = Math.min(betToCall + amount, seats.getChips(seat));
+                seats.bet(seat, actualRaise);
+                pot += actualRaise;
+                // A short all-in raise never lowers the bet to match
+                if (seats.getBet(seat) > betLevel) {
+                    betLevel = seats.getBet(seat);
+                    // Everyone else has to answer the raise
+                    acted = 0L;
+                }
+                break;
+            }
+            default:
+                // Check: nothing changes, even when facing a bet
+                break;
+        }
+        acted |= 1L << seat;
+        moveToNextPlayer();
+    }
+
+    /**
+     * Clears all bets and advances to the next round, where the first
+     * player after the button who can still act is to act.
+     */
+    public void nextStreet() {
+        resetBets();
+        openStreet(round + 1);
+    }
+
+    // Sets the round without touching bets; the dealing engine resets those itself
+    void openStreet(int round) {
+        this.round = round;
+        int n = seats.getSeatCount();
+        for (int i = 1; i <= n; i++) {
+            int seat = (button + i) % n;
+            if (seats.is(seat, TableState.OCCUPIED) && !seats.is(seat, TableState.FOLDED)
+                    && !seats.is(seat, TableState.ALL_IN)) {
+                currentSeat = seat;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Clears all bets for a new betting round without changing the round;
+     * nobody has acted in it yet.
+     */
+    public void resetBets() {
+        boolean journaled = push(STREET_ENTRY, currentSeat);
+        int base = (depth - 1) * seats.getCapacity();
+        for (int seat = 0; seat < seats.getSeatCount(); seat++) {
+            if (journaled) {
+                jBets[base + seat] = seats.getBet(seat);
+            }
+            seats.setBet(seat, 0);
+        }
+        betLevel = 0;
+        acted = 0L;
+    }
+
+    /** Reverts the most recent {@link #apply}, {@link #resetBets} or {@link #nextStreet}. */
+    public void undo() {
+        if (depth == 0) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        int i = --depth;
+        pot = jPot[i];
+        betLevel = jBetLevel[i];
+        round = jRound[i];
+        currentSeat = jCurrent[i];
+        acted = jActed[i];
+        if (jKind[i] == ACTION_ENTRY) {
+            int seat = currentSeat;
+            seats.setChips(seat, jChips[i]);
+            seats.setBet(seat, jBet[i]);
+            seats.setCommitted(seat, jCommitted[i]);
+            seats.set(seat, TableState.FOLDED, (jStatus[i] & TableState.FOLDED) != 0);
+            seats.set(seat, TableState.ALL_IN, (jStatus[i] & TableState.ALL_IN) != 0);
+        } else {
+            int base = i * seats.getCapacity();
+            for (int seat = 0; seat < seats.getSeatCount(); seat++) {
+                seats.setBet(seat, jBets[base + seat]);
+            }
+        }
+    }
+
+    /** Forgets the undo history, e.g. when a new hand starts. */
+    public void clearHistory() {
+        depth = 0;
+    }
+
+    public int getUndoDepth() {
+        return depth;
+    }
+
+    private boolean push(int kind, int seat) {
+        if (jKind.length == 0) {
+            return false;
+        }
+        if (depth == jKind.length) {
+            throw new IllegalStateException("Undo journal full (" + jKind.length + " entries)");
+        }
+        int i = depth++;
+        jKind[i] = kind;
+        jPot[i] = pot;
+        jBetLevel[i] = betLevel;
+        jRound[i] = round;
+        jCurrent[i] = currentSeat;
+        jActed[i] = acted;
+        jChips[i] = seats.getChips(seat);
+        jBet[i] = seats.getBet(seat);
+        jCommitted[i] = seats.getCommitted(seat);
+        jStatus[i] = seats.getStatus(seat);
+        return true;
+    }
+
+    private void moveToNextPlayer() {
+        int start = currentSeat;
+        int players = 0;
+        for (int seat = 0; seat < seats.getSeatCount(); seat++) {
+            if (seats.is(seat, TableState.OCCUPIED)) {
+                players++;
+            }
+        }
+        int attempts = 0;
+        do {
+            currentSeat = nextOccupied(currentSeat);
+            attempts++;
+            // Prevent infinite loop
+            if (attempts >= players) {
+                break;
+            }
+        } while ((seats.is(currentSeat, TableState.FOLDED) || seats.is(currentSeat, TableState.ALL_IN))
+                 && currentSeat != start);
+    }
+
+    private int nextOccupied(int seat) {
+        int n = seats.getSeatCount();
+        for (int i = 1; i <= n; i++) {
+            int next = (seat + i) % n;
+            if (seats.is(next, TableState.OCCUPIED)) {
+                return next;
+            }
+        }
+        return seat;
+    }
+
+    /**
+     * Whether the street's betting is over: every player who can still act
+     * has acted since the last bet or raise and matched it. Blinds are not
+     * actions, so the big blind gets its option. A player left alone with
+     * chips against all-in opponents is not asked to act unless facing a bet.
+     */
+    public boolean isBettingRoundComplete() {
+        int activePlayers = 0;
+        int canAct = 0;
+        int pending = 0;
+        boolean facingBet = false;
+        for (int seat = 0; seat < seats.getSeatCount(); seat++) {
+            if (seats.is(seat, TableState.OCCUPIED) && !seats.is(seat, TableState.FOLDED)) {
+                activePlayers++;
+                if (!seats.is(seat, TableState.ALL_IN)) {
+                    canAct++;
+                    boolean behind = seats.getBet(seat) < betLevel;
+                    facingBet |= behind;
+                    if (behind || (acted & (1L << seat)) == 0) {
+                        pending++;
+                    }
+                }
+            }
+        }
+        return activePlayers <= 1 || pending == 0 || (canAct == 1 && !facingBet);
+    }
+
+    public int getActivePlayerCount() {
+        int count = 0;
+        for (int seat = 0; seat < seats.getSeatCount(); seat++) {
+            if (seats.is(seat, TableState.OCCUPIED) && !seats.is(seat, TableState.FOLDED)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public TableState getSeats() {
+        return seats;
+    }
+
+    public long getPot() {
+        return pot;
+    }
+
+    void setPot(long pot) {
+        this.pot = pot;
+    }
+
+    public long getBetLevel() {
+        return betLevel;
+    }
+
+    void setBetLevel(long betLevel) {
+        this.betLevel = betLevel;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    void setRound(int round) {
+        this.round = round;
+    }
+
+    public int getCurrentSeat() {
+        return currentSeat;
+    }
+
+    void setCurrentSeat(int currentSeat) {
+        this.currentSeat = currentSeat;
+    }
+
+    /** Seat of the button, after which each postflop street opens. */
+    public int getButton() {
+        return button;
+    }
+
+    void setButton(int button) {
+        this.button = button;
+    }
+
+    /** Seats that have acted since the last bet or raise, one bit per seat. */
+    public long getActed() {
+        return acted;
+    }
+
+    void setActed(long acted) {
+        this.acted = acted;
+    }
+}
@@ -1,204 +1,102 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
+import metrics.Metrics;
 
+/**
+ * A set of cards held as a 64-bit mask (bit i set = {@code Card.get(i)} held).
+ * Deal order is kept alongside so the cards can still be listed as dealt.
+ */
 public class Hand {
-    private ArrayList<Card> cards;
+    public static final int MAX_CARDS = 7;
+    
+    private long mask;
+    private final Card[] order = new Card[MAX_CARDS];
+    private int count;
+    private final HandState state = new HandState();
     
     public Hand() {
-        cards = new ArrayList<>();
     }
     
     public void addCard(Card card) {
-        cards.add(card);
-    }
-    
-    public ArrayList<Card> getCards() {
-        return cards;
-    }
-    
-    public void clear() {
-        cards.clear();
+        if (contains(card)) {
+            throw new IllegalArgumentException("Card " + card + " is already in the hand");
+        }
+        if (count == MAX_CARDS) {
+            throw new IllegalStateException("A hand holds at most " + MAX_CARDS + " cards");
+        }
+        mask |= card.getMask();
+        order[count++] = card;
+        state.addCard(card);
     }
     
-    public int size() {
-        return cards.size();
+    /** Incremental evaluation state of the held cards. */
+    public HandState getState() {
+        return state;
     }
     
-    public double evaluate() {
-        if (cards.size() < 2) {
-            return 0.0;
-        }
-        
-        // Sort cards by value in descending order
-        ArrayList<Card> sortedCards = new ArrayList<>(cards);
-        sortedCards.sort(Comparator.comparing(Card::getValue).reversed());
-        
-        // Check for different hand types and return normalized strength (0.0 - 1.0)
-        if (isRoyalFlush(sortedCards)) return 1.0;
-        if (isStraightFlush(sortedCards)) return 0.95;
-        if (isFourOfAKind(sortedCards)) return 0.90;
-        if (isFullHouse(sortedCards)) return 0.85;
-        if (isFlush(sortedCards)) return 0.80;
-        if (isStraight(sortedCards)) return 0.75;
-        if (isThreeOfAKind(sortedCards)) return 0.70;
-        if (isTwoPair(sortedCards)) return 0.65;
-        if (isPair(sortedCards)) return 0.60;
-        
-        // High card
-        return 0.30 + (sortedCards.get(0).getValue() / 100.0);
+    public long getMask() {
+        return mask;
     }
     
-    // Helper methods for hand evaluation
-    
-    private boolean isRoyalFlush(ArrayList<Card> cards) {
-        return isStraightFlush(cards) && cards.get(0).getValue() == 14;
+    public boolean contains(Card card) {
+        return (mask & card.getMask()) != 0;
     }
     
-    private boolean isStraightFlush(ArrayList<Card> cards) {
-        return isStraight(cards) && isFlush(cards);
+    public Card getCard(int i) {
+        return order[i];
     }
     
-    private boolean isFourOfAKind(ArrayList<Card> cards) {
-        if (cards.size() < 4) return false;
-        for (int i = 0; i < cards.size(); i++) {
-            int count = 1;
-            for (int j = i + 1; j < cards.size(); j++) {
-                if (cards.get(i).getValue() == cards.get(j).getValue()) {
-                    count++;
-                }
-            }
-            if (count >= 4) return true;
+    /** Returns a new list of the held cards in deal order. */
+    public ArrayList<Card> getCards() {
+        ArrayList<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cards.add(order[i]);
         }
-        return false;
+        return cards;
     }
     
-    private boolean isFullHouse(ArrayList<Card> cards) {
-        return isThreeOfAKind(cards) && isPair(cards);
+    public void clear() {
+        mask = 0L;
+        count = 0;
+        state.clear();
     }
     
-    private boolean isFlush(ArrayList<Card> cards) {
-        if (cards.size() < 5) return false;
-        String suit = cards.get(0).getSuit();
-        int count = 0;
-        for (Card card : cards) {
-            if (card.getSuit().equals(suit)) {
-                count++;
-            }
-        }
-        return count >= 5;
+    public int size() {
+        return count;
     }
     
-    private boolean isStraight(ArrayList<Card> cards) {
-        if (cards.size() < 5) return false;
-        
-        ArrayList<Integer> values = new ArrayList<>();
-        for (Card card : cards) {
-            values.add(card.getValue());
-        }
-        Collections.sort(values);
-        
-        for (int i = 0; i < values.size() - 4; i++) {
-            boolean isStraight = true;
-            for (int j = 1; j < 5; j++) {
-                if (values.get(i + j) != values.get(i) + j) {
-                    isStraight = false;
-                    break;
-                }
-            }
-            if (isStraight) return true;
-        }
-        
-        // Check for A-2-3-4-5 straight
-        if (values.contains(14) && values.contains(2) && values.contains(3) && 
-            values.contains(4) && values.contains(5)) {
-            return true;
+    public static long maskOf(List<Card> cards) {
+        long mask = 0L;
+        for (int i = 0; i < cards.size(); i++) {
+            mask |= cards.get(i).getMask();
         }
-        
-        return false;
+        return mask;
     }
     
-    private boolean isThreeOfAKind(ArrayList<Card> cards) {
-        if (cards.size() < 3) return false;
-        for (int i = 0; i < cards.size(); i++) {
-            int count = 1;
-            for (int j = i + 1; j < cards.size(); j++) {
-                if (cards.get(i).getValue() == cards.get(j).getValue()) {
-                    count++;
-                }
-            }
-            if (count >= 3) return true;
-        }
-        return false;
+    /** Exact comparable rank of the held cards (see {@link HandEvaluator}). */
+    public int rank() {
+        return state.getRank();
     }
     
-    private boolean isTwoPair(ArrayList<Card> cards) {
-        if (cards.size() < 4) return false;
-        int pairCount = 0;
-        ArrayList<Integer> checkedValues = new ArrayList<>();
-        for (int i = 0; i < cards.size(); i++) {
-            if (checkedValues.contains(cards.get(i).getValue())) continue;
-            int count = 1;
-            for (int j = i + 1; j < cards.size(); j++) {
-                if (cards.get(i).getValue() == cards.get(j).getValue()) {
-                    count++;
-                }
-            }
-            if (count >= 2) {
-                pairCount++;
-                checkedValues.add(cards.get(i).getValue());
-            }
-        }
-        return pairCount >= 2;
+    /** Exact comparable rank of the held cards together with the community cards. */
+    public int rank(List<Card> communityCards) {
+        return HandEvaluator.evaluate(mask | maskOf(communityCards));
     }
     
-    private boolean isPair(ArrayList<Card> cards) {
-        if (cards.size() < 2) return false;
-        for (int i = 0; i < cards.size(); i++) {
-            for (int j = i + 1; j < cards.size(); j++) {
-                if (cards.get(i).getValue() == cards.get(j).getValue()) {
-                    return true;
-                }
-            }
+    public double evaluate() {
+        if (count < 2) {
+            return 0.0;
         }
-        return false;
+        return HandEvaluator.toStrength(rank());
     }
     
-    // Find the best 5-card hand from 7 cards (2 hole cards + 5 community cards)
+    // Best 5-card hand from hole cards + community cards, as a 0.0 - 1.0 strength
     public double evaluateBestHand(ArrayList<Card> communityCards) {
-        ArrayList<Card> allCards = new ArrayList<>(cards);
-        allCards.addAll(communityCards);
-        
-        if (allCards.size() < 5) {
-            return evaluate();
-        }
-        
-        double bestStrength = 0.0;
-        // Try all combinations of 5 cards
-        for (int i = 0; i < allCards.size(); i++) {
-            for (int j = i + 1; j < allCards.size(); j++) {
-                for (int k = j + 1; k < allCards.size(); k++) {
-                    for (int l = k + 1; l < allCards.size(); l++) {
-                        for (int m = l + 1; m < allCards.size(); m++) {
-                            Hand tempHand = new Hand();
-                            tempHand.addCard(allCards.get(i));
-                            tempHand.addCard(allCards.get(j));
-                            tempHand.addCard(allCards.get(k));
-                            tempHand.addCard(allCards.get(l));
-                            tempHand.addCard(allCards.get(m));
-                            double strength = tempHand.evaluate();
-                            if (strength > bestStrength) {
-                                bestStrength = strength;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        
-        return bestStrength;
+        long start = Metrics.EVALUATIONS.start();
+        double strength = HandEvaluator.toStrength(rank(communityCards));
+        Metrics.EVALUATIONS.stop(start);
+        return strength;
     }
 }
-
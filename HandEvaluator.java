@@ -0,0 +1,184 @@
+package model;
+
+/**
+ * Table-driven poker hand evaluator working on card bitmasks (see {@link Card#getMask()}).
+ *
+ * Scores any set of up to 7 cards directly, without enumerating 5-card subsets
+ * and without allocating. The returned rank is an exact, totally ordered int:
+ * a higher value always means a better hand, and equal values are true ties.
+ * Layout: category in bits 20..23, then up to five rank nibbles (most
+ * significant first) for the cards that decide the hand and its kickers.
+ */
+public final class HandEvaluator {
+    public static final int HIGH_CARD = 0;
+    public static final int PAIR = 1;
+    public static final int TWO_PAIR = 2;
+    public static final int THREE_OF_A_KIND = 3;
+    public static final int STRAIGHT = 4;
+    public static final int FLUSH = 5;
+    public static final int FULL_HOUSE = 6;
+    public static final int FOUR_OF_A_KIND = 7;
+    public static final int STRAIGHT_FLUSH = 8;
+
+    private static final String[] CATEGORY_NAMES = {
+        "High Card", "Pair", "Two Pair", "Three of a Kind", "Straight",
+        "Flush", "Full House", "Four of a Kind", "Straight Flush"
+    };
+
+    private static final int CATEGORY_SHIFT = 20;
+    private static final int RANK_BITS = 0x1FFF;
+    private static final int ACE = 12;
+
+    // Indexed by a 13-bit rank mask
+    private static final byte[] STRAIGHT_HIGH = new byte[RANK_BITS + 1]; // -1 if no straight
+    private static final byte[] TOP_CARD = new byte[RANK_BITS + 1];
+    private static final int[] TOP_FIVE = new int[RANK_BITS + 1];       // top 5 ranks as nibbles 4..0
+
+    static {
+        for (int m = 0; m <= RANK_BITS; m++) {
+            STRAIGHT_HIGH[m] = (byte) findStraight(m);
+            TOP_CARD[m] = (byte) (31 - Integer.numberOfLeadingZeros(m));
+            int packed = 0;
+            int rest = m;
+            for (int i = 4; i >= 0 && rest != 0; i--) {
+                int top = 31 - Integer.numberOfLeadingZeros(rest);
+                packed |= top << (i * 4);
+                rest &= ~(1 << top);
+            }
+            TOP_FIVE[m] = packed;
+        }
+    }
+
+    private HandEvaluator() {
+    }
+
+    private static int findStraight(int ranks) {
+        for (int high = ACE; high >= 4; high--) {
+            int run = 0x1F << (high - 4);
+            if ((ranks & run) == run) {
+                return high;
+            }
+        }
+        // A-2-3-4-5
+        int wheel = (1 << ACE) | 0xF;
+        return (ranks & wheel) == wheel ? 3 : -1;
+    }
+
+    /**
+     * Evaluates the cards in a mask (up to 7 cards).
+     */
+    public static int evaluate(long cards) {
+        int s0 = (int) cards & RANK_BITS;
+        int s1 = (int) (cards >>> 13) & RANK_BITS;
+        int s2 = (int) (cards >>> 26) & RANK_BITS;
+        int s3 = (int) (cards >>> 39) & RANK_BITS;
+        return evaluate(s0, s1, s2, s3);
+    }
+
+    /**
+     * Evaluates a hand given as one 13-bit rank mask per suit.
+     */
+    static int evaluate(int s0, int s1, int s2, int s3) {
+        // With at most 7 cards a flush rules out quads and full houses
+        int flush = Integer.bitCount(s0) >= 5 ? s0
+                  : Integer.bitCount(s1) >= 5 ? s1
+                  : Integer.bitCount(s2) >= 5 ? s2
+                  : Integer.bitCount(s3) >= 5 ? s3 : 0;
+        if (flush != 0) {
+            int high = STRAIGHT_HIGH[flush];
+            if (high >= 0) {
+                return make(STRAIGHT_FLUSH, high << 16);
+            }
+            return make(FLUSH, TOP_FIVE[flush]);
+        }
+        return evaluateNoFlush(s0, s1, s2, s3);
+    }
+
+    /**
+     * Evaluates a hand already known not to contain a flush, such as any
+     * hand on a board without three cards of one suit.
+     */
+    static int evaluateNoFlush(int s0, int s1, int s2, int s3) {
+        int ranks = s0 | s1 | s2 | s3;
+        int four = s0 & s1 & s2 & s3;
+        if (four != 0) {
+            int quad = TOP_CARD[four];
+            return make(FOUR_OF_A_KIND, quad << 16 | TOP_FIVE[ranks & ~(1 << quad)] >>> 16);
+        }
+
+        int threeOrMore = ((s0 & s1) & (s2 | s3)) | ((s2 & s3) & (s0 | s1));
+        int twoOrMore = (s0 & s1) | (s0 & s2) | (s0 & s3) | (s1 & s2) | (s1 & s3) | (s2 & s3);
+        int pairs = twoOrMore & ~threeOrMore;
+
+        if (threeOrMore != 0) {
+            int trip = TOP_CARD[threeOrMore];
+            int others = (threeOrMore & ~(1 << trip)) | pairs;
+            if (others != 0) {
+                return make(FULL_HOUSE, trip << 16 | TOP_CARD[others] << 12);
+            }
+        }
+
+        int high = STRAIGHT_HIGH[ranks];
+        if (high >= 0) {
+            return make(STRAIGHT, high << 16);
+        }
+
+        if (threeOrMore != 0) {
+            int trip = TOP_CARD[threeOrMore];
+            return make(THREE_OF_A_KIND, trip << 16 | TOP_FIVE[ranks & ~(1 << trip)] >>> 12);
+        }
+
+        if (pairs != 0) {
+            int top = TOP_CARD[pairs];
+            int rest = pairs & ~(1 << top);
+            if (rest != 0) {
+                int second = TOP_CARD[rest];
+                int kickers = ranks & ~(1 << top) & ~(1 << second);
+                return make(TWO_PAIR, top << 16 | second << 12 | TOP_FIVE[kickers] >>> 16);
+            }
+            return make(PAIR, top << 16 | TOP_FIVE[ranks & ~(1 << top)] >>> 8);
+        }
+
+        return make(HIGH_CARD, TOP_FIVE[ranks]);
+    }
+
+    static int straightHigh(int rankMask) {
+        return STRAIGHT_HIGH[rankMask];
+    }
+
+    private static int make(int category, int ranks) {
+        return category << CATEGORY_SHIFT | ranks;
+    }
+
+    public static int getCategory(int rank) {
+        return rank >>> CATEGORY_SHIFT;
+    }
+
+    public static String describe(int rank) {
+        int category = getCategory(rank);
+        if (category == STRAIGHT_FLUSH && (rank >>> 16 & 0xF) == ACE) {
+            return "Royal Flush!";
+        }
+        return CATEGORY_NAMES[category];
+    }
+
+    /**
+     * Maps an exact rank onto the 0.0 - 1.0 strength scale used by the AI.
+     */
+    public static double toStrength(int rank) {
+        switch (getCategory(rank)) {
+            case STRAIGHT_FLUSH:
+                return (rank >>> 16 & 0xF) == ACE ? 1.0 : 0.95;
+            case FOUR_OF_A_KIND: return 0.90;
+            case FULL_HOUSE: return 0.85;
+            case FLUSH: return 0.80;
+            case STRAIGHT: return 0.75;
+            case THREE_OF_A_KIND: return 0.70;
+            case TWO_PAIR: return 0.65;
+            case PAIR: return 0.60;
+            default:
+                // High card
+                return 0.30 + ((rank >>> 16 & 0xF) + 2) / 100.0;
+        }
+    }
+}
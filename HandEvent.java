@@ -0,0 +1,54 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight recorder event spanning one hand, from the deal until the pot is paid out. */
+@Name("poker.Hand")
+@Label("Hand")
+@Category("Poker")
+@StackTrace(false)
+@Description("One hand from the deal until the pot is paid out")
+public class HandEvent extends Event {
+    @Label("Table")
+    public int tableId;
+
+    @Label("Hand Number")
+    public long handNumber;
+
+    @Label("Players")
+    public int players;
+
+    @Label("Street")
+    @Description("Last street dealt")
+    public String street;
+
+    @Label("Pot")
+    public long pot;
+
+    @Label("Showdown")
+    public boolean showdown;
+
+    /**
+     * Begins a hand's event, or returns null when no recording wants one.
+     * Until the flight recorder is first used this is one static read and
+     * allocates nothing, which the JIT cannot promise for a plain
+     * {@code new} in a method as large as the engine's.
+     */
+    public static HandEvent start() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        HandEvent event = new HandEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,93 @@
+package history;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One fixed-size hand-history record, read in place.
+ *
+ * Every record is {@value #BYTES} little-endian bytes:
+ * <pre>
+ *  0  type     (byte)   see the record type constants
+ *  1  seat     (byte)   acting seat, or -1
+ *  2  action   (byte)   action code, street or seat count, depending on type
+ *  3  card0    (byte)   card index 0-51, or {@value #NO_CARD}
+ *  4  card1    (byte)
+ *  5  card2    (byte)
+ *  6  aux      (short)  player id, table id (0 to {@value #MAX_AUX}) or format version
+ *  8  amount   (long)   chips, hand number or magic
+ * </pre>
+ * A reader reuses one instance per stream and points it at each record in
+ * turn with {@link #wrap}, so reading allocates nothing.
+ */
+public final class HandRecord {
+    public static final int BYTES = 16;
+    public static final int NO_CARD = 0xFF;
+    public static final int MAX_AUX = Short.MAX_VALUE;
+
+    public static final int SEGMENT = 1;    // action: -, aux: version, amount: magic
+    public static final int HAND_START = 2; // seat: button, action: seats, aux: table id, amount: hand number
+    public static final int SEAT = 3;       // aux: player id, amount: stack before blinds
+    public static final int BLIND = 4;      // amount: chips posted
+    public static final int HOLE = 5;       // card0, card1: hole cards
+    public static final int ACTION = 6;     // action: GameState code, amount: chips put in
+    public static final int BOARD = 7;      // action: round, card0..2: cards dealt this street
+    public static final int WIN = 8;        // action: 1 if shown down, card0, card1: hole cards, amount: chips won
+    public static final int HAND_END = 9;   // amount: total pot
+
+    public static final long MAGIC = 0x3130484852454B4FL; // "OKERHH01"
+    public static final int VERSION = 1;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    /** Points this record at {@code offset} in {@code buffer}. */
+    public HandRecord wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getType() {
+        return buffer.get(offset);
+    }
+
+    public int getSeat() {
+        return buffer.get(offset + 1);
+    }
+
+    public int getAction() {
+        return buffer.get(offset + 2);
+    }
+
+    /** Card index 0-51 in slot 0-2, or {@link #NO_CARD}. */
+    public int getCard(int slot) {
+        return buffer.get(offset + 3 + slot) & 0xFF;
+    }
+
+    public int getAux() {
+        return buffer.getShort(offset + 6);
+    }
+
+    public long getAmount() {
+        return buffer.getLong(offset + 8);
+    }
+
+    static void write(ByteBuffer buffer, int type, int seat, int action,
+                      int card0, int card1, int card2, int aux, long amount) {
+        buffer.put((byte) type)
+              .put((byte) seat)
+              .put((byte) action)
+              .put((byte) card0)
+              .put((byte) card1)
+              .put((byte) card2)
+              .putShort((short) aux)
+              .putLong(amount);
+    }
+
+    @Override
+    public String toString() {
+        return "HandRecord[type=" + getType() + ", seat=" + getSeat() + ", action=" + getAction()
+            + ", cards=" + getCard(0) + "/" + getCard(1) + "/" + getCard(2)
+            + ", aux=" + getAux() + ", amount=" + getAmount() + "]";
+    }
+}
@@ -0,0 +1,223 @@
+package logic;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import model.Player;
+
+/**
+ * Plays complete hands of a {@link TexasHoldem} table with one
+ * {@link Agent} per seat: blinds, all betting rounds, streets and showdown.
+ * This is the same flow the GUI drives, without any UI or delays.
+ *
+ * Decisions that are ready at once are applied inline. When an agent's
+ * future is still pending the hand is parked without holding a thread and
+ * resumed on the runner's executor once the decision arrives; if it does
+ * not arrive within the decision timeout the player checks, or folds when
+ * facing a bet. A hand is only ever advanced by one thread at a time.
+ */
+public class HandRunner {
+    public static final long DEFAULT_DECISION_TIMEOUT_MILLIS = 30_000;
+
+    // Caps raising wars; after this many actions in a street everyone just calls
+    private static final int MAX_ACTIONS_PER_STREET = 64;
+
+    private final TexasHoldem game;
+    private final Agent[] agents;
+    private final Executor executor;
+    private long decisionTimeoutMillis = DEFAULT_DECISION_TIMEOUT_MILLIS;
+    private CompletableFuture<Player> hand; // null between hands
+    private int streetActions;
+    private long actions;
+    private long timeouts;
+
+    /** @param agents agent per seat, indexed by {@link Player#getPosition()} */
+    public HandRunner(TexasHoldem game, Agent[] agents) {
+        this(game, agents, ForkJoinPool.commonPool());
+    }
+
+    /** @param executor where a hand resumes after waiting for a decision */
+    public HandRunner(TexasHoldem game, Agent[] agents, Executor executor) {
+        this.game = game;
+        this.agents = agents;
+        this.executor = executor;
+    }
+
+    /**
+     * Plays one hand, waiting for it if an agent answers late. Returns the
+     * winner, or null if fewer than two players have chips left and no
+     * hand could be dealt.
+     */
+    public Player playHand() {
+        return playHandAsync().join();
+    }
+
+    /**
+     * Starts the next hand and plays it as far as the agents allow. The
+     * future completes with the winner (null if no hand could be dealt),
+     * already before this returns when every agent answered at once.
+     */
+    public CompletableFuture<Player> playHandAsync() {
+        if (hand != null) {
+            throw new IllegalStateException("A hand is already in progress");
+        }
+        game.startNewHand();
+        if (game.getPlayers().size() < 2) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return run();
+    }
+
+    /**
+     * Plays out the hand the table is in the middle of, as after restoring
+     * it from a checkpoint, or starts the next one if it is between hands.
+     */
+    public CompletableFuture<Player> resumeHandAsync() {
+        if (hand != null) {
+            throw new IllegalStateException("A hand is already in progress");
+        }
+        if (!game.isHandInProgress()) {
+            return playHandAsync();
+        }
+        return run();
+    }
+
+    private CompletableFuture<Player> run() {
+        CompletableFuture<Player> result = new CompletableFuture<>();
+        hand = result;
+        streetActions = 0;
+        advance();
+        return result;
+    }
+
+    // Runs the hand until it is over or an agent has not answered yet
+    private void advance() {
+        try {
+            while (true) {
+                Player player = game.isBettingRoundComplete() ? null : game.getCurrentPlayer();
+                if (player == null) {
+                    if (game.getActivePlayerCount() <= 1 || game.getCurrentRound() == TexasHoldem.RIVER) {
+                        finish();
+                        return;
+                    }
+                    // The new street opens with nobody having acted, so it is bet
+                    // until every player who can still act has had a turn
+                    game.resetBets();
+                    dealNextStreet();
+                    streetActions = 0;
+                    continue;
+                }
+                CompletableFuture<AIAction> decision = agents[player.getPosition()].decide(game, player);
+                if (!decision.isDone()) {
+                    AIAction fallback = fallback(player);
+                    if (decisionTimeoutMillis > 0) {
+                        decision.completeOnTimeout(fallback, decisionTimeoutMillis, TimeUnit.MILLISECONDS);
+                    }
+                    decision.whenCompleteAsync((action, failure) -> {
+                        try {
+                            apply(player, failure == null && action != null ? action : fallback, fallback);
+                        } catch (RuntimeException e) {
+                            fail(e);
+                            return;
+                        }
+                        advance();
+                    }, executor);
+                    return;
+                }
+                AIAction action = decision.isCompletedExceptionally() ? null : decision.join();
+                if (action == null) {
+                    AIAction fallback = fallback(player);
+                    apply(player, fallback, fallback);
+                } else {
+                    apply(player, action, null);
+                }
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    // Ends the hand with an error instead of leaving its future pending
+    private void fail(RuntimeException e) {
+        CompletableFuture<Player> failed = hand;
+        hand = null;
+        failed.completeExceptionally(e);
+    }
+
+    private void apply(Player player, AIAction decision, AIAction fallback) {
+        if (decision == fallback) {
+            timeouts++;
+        }
+        String action = decision.getAction();
+        if (action == null) {
+            throw new IllegalStateException("The agent of " + player.getName() + " answered without an action");
+        }
+        long toCall = game.getCurrentBetLevel() - player.getCurrentBet();
+        if (streetActions++ >= MAX_ACTIONS_PER_STREET) {
+            action = "call";
+        } else if (action.equals("check") && toCall > 0) {
+            // Checking is not allowed when facing a bet
+            action = "fold";
+        }
+        game.processPlayerAction(action, action.equals("raise") ? decision.getAmount() : 0);
+        actions++;
+    }
+
+    private AIAction fallback(Player player) {
+        return game.getCurrentBetLevel() > player.getCurrentBet() ? new AIAction("fold", 0) : new AIAction("check", 0);
+    }
+
+    private void finish() {
+        game.resetBets();
+        Player winner = game.determineWinner();
+        if (winner != null) {
+            game.distributePots();
+        }
+        CompletableFuture<Player> done = hand;
+        hand = null;
+        done.complete(winner);
+    }
+
+    private void dealNextStreet() {
+        int round = game.getCurrentRound();
+        if (round == TexasHoldem.PRE_FLOP) {
+            game.dealFlop();
+        } else if (round == TexasHoldem.FLOP) {
+            game.dealTurn();
+        } else if (round == TexasHoldem.TURN) {
+            game.dealRiver();
+        }
+    }
+
+    /**
+     * Time an agent gets per decision before it is checked or folded for
+     * it (default {@value #DEFAULT_DECISION_TIMEOUT_MILLIS}); 0 waits forever.
+     */
+    public void setDecisionTimeout(long millis) {
+        this.decisionTimeoutMillis = millis;
+    }
+
+    public long getDecisionTimeout() {
+        return decisionTimeoutMillis;
+    }
+
+    /** Whether a hand has been started and is not over yet. */
+    public boolean isHandInProgress() {
+        return hand != null;
+    }
+
+    /** Total player actions applied by this runner. */
+    public long getActions() {
+        return actions;
+    }
+
+    /** Decisions checked or folded for an agent that timed out or failed. */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public TexasHoldem getGame() {
+        return game;
+    }
+}
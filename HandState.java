@@ -0,0 +1,93 @@
+package model;
+
+/**
+ * Incremental evaluation state for a growing set of cards.
+ *
+ * Each {@link #addCard(Card)} updates rank counts, suit counts and the
+ * per-suit rank masks in constant time and re-scores the hand, so reading
+ * {@link #getRank()} is just a field read. Cards are only ever added during
+ * a hand; {@link #clear()} starts over.
+ */
+public class HandState {
+    private final int[] rankCounts = new int[Card.NUM_RANKS];
+    private final int[] suitCounts = new int[Card.NUM_SUITS];
+    private final int[] suitRanks = new int[Card.NUM_SUITS]; // 13-bit rank mask per suit
+    private int rankMask;
+    private long mask;
+    private int size;
+    private int rank;
+
+    public HandState() {
+        rank = HandEvaluator.evaluate(0, 0, 0, 0);
+    }
+
+    public void addCard(Card card) {
+        int r = card.getRankIndex();
+        int s = card.getSuitIndex();
+        rankCounts[r]++;
+        suitCounts[s]++;
+        suitRanks[s] |= 1 << r;
+        rankMask |= 1 << r;
+        mask |= card.getMask();
+        size++;
+        rank = HandEvaluator.evaluate(suitRanks[0], suitRanks[1], suitRanks[2], suitRanks[3]);
+    }
+
+    public void copyFrom(HandState other) {
+        System.arraycopy(other.rankCounts, 0, rankCounts, 0, rankCounts.length);
+        System.arraycopy(other.suitCounts, 0, suitCounts, 0, suitCounts.length);
+        System.arraycopy(other.suitRanks, 0, suitRanks, 0, suitRanks.length);
+        rankMask = other.rankMask;
+        mask = other.mask;
+        size = other.size;
+        rank = other.rank;
+    }
+
+    public void clear() {
+        for (int i = 0; i < rankCounts.length; i++) {
+            rankCounts[i] = 0;
+        }
+        for (int i = 0; i < Card.NUM_SUITS; i++) {
+            suitCounts[i] = 0;
+            suitRanks[i] = 0;
+        }
+        rankMask = 0;
+        mask = 0L;
+        size = 0;
+        rank = HandEvaluator.evaluate(0, 0, 0, 0);
+    }
+
+    /** Exact rank of the cards added so far (see {@link HandEvaluator}). */
+    public int getRank() {
+        return rank;
+    }
+
+    public int getRankCount(int rankIndex) {
+        return rankCounts[rankIndex];
+    }
+
+    public int getSuitCount(int suitIndex) {
+        return suitCounts[suitIndex];
+    }
+
+    public int getSuitRanks(int suitIndex) {
+        return suitRanks[suitIndex];
+    }
+
+    public int getRankMask() {
+        return rankMask;
+    }
+
+    /** High card rank index of the best straight made so far, or -1. */
+    public int getStraightHigh() {
+        return HandEvaluator.straightHigh(rankMask);
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,117 @@
+package sim;
+
+import history.CheckpointStore;
+import history.HistoryWriter;
+import java.io.IOException;
+import java.nio.file.Paths;
+import logic.SeedTree;
+import metrics.Metrics;
+import metrics.MetricsReporter;
+
+/**
+ * Command-line simulation without any UI.
+ *
+ * Usage: {@code java sim.HeadlessRunner [--hands N] [--seats N]
+ * [--agents type,type,...] [--seed N] [--stack N] [--history DIR]
+ * [--checkpoints DIR [--checkpoint-every N]] [--metrics FILE]}. Agent types
+ * are assigned to seats in order and repeated if there are fewer types than
+ * seats; see {@link Agents#TYPES}. With {@code --history} every hand is
+ * recorded to {@code DIR/table-0-*.hh}; with {@code --checkpoints} the table
+ * is checkpointed every N hands (default 1000), see
+ * {@link history.TableRecovery}; with {@code --metrics} the {@link Metrics}
+ * are appended to FILE ("-" for standard output) every second.
+ */
+public class HeadlessRunner {
+    public static void main(String[] args) throws IOException {
+        long hands = 100_000;
+        int seats = 6;
+        String agents = "fastai";
+        long seed = System.nanoTime();
+        long stack = 1000;
+        String historyDir = null;
+        String checkpointDir = null;
+        long checkpointEvery = 1000;
+        String metricsFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--hands": hands = Long.parseLong(require(args[i], value)); i++; break;
+                case "--seats": seats = Integer.parseInt(require(args[i], value)); i++; break;
+                case "--agents": agents = require(args[i], value); i++; break;
+                case "--seed": seed = Long.parseLong(require(args[i], value)); i++; break;
+                case "--stack": stack = Long.parseLong(require(args[i], value)); i++; break;
+                case "--history": historyDir = require(args[i], value); i++; break;
+                case "--checkpoints": checkpointDir = require(args[i], value); i++; break;
+                case "--checkpoint-every": checkpointEvery = Long.parseLong(require(args[i], value)); i++; break;
+                case "--metrics": metricsFile = require(args[i], value); i++; break;
+                default:
+                    usage("Unknown option: " + args[i]);
+            }
+        }
+        if (seats < 2 || seats > 10) {
+            usage("Seats must be between 2 and 10");
+        }
+
+        String[] types = agents.split(",");
+        String[] seatTypes = new String[seats];
+        for (int seat = 0; seat < seats; seat++) {
+            seatTypes[seat] = types[seat % types.length].trim();
+        }
+
+        TableSession table = new TableSession(new SeedTree(seed), 0, seatTypes, stack);
+        HistoryWriter history = null;
+        if (historyDir != null) {
+            history = new HistoryWriter(Paths.get(historyDir), "table-0");
+            table.setHistory(history);
+        }
+        MetricsReporter metrics = metricsFile != null ? Metrics.start(Paths.get(metricsFile), 1000) : null;
+        CheckpointStore checkpoints = checkpointDir != null ? new CheckpointStore(Paths.get(checkpointDir)) : null;
+        long start = System.nanoTime();
+        for (long n = 0; n < hands; n++) {
+            table.playHand();
+            if (checkpoints != null && (n + 1) % checkpointEvery == 0) {
+                checkpoints.checkpoint(table.getGame());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (history != null) {
+            history.close();
+        }
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
+        if (metrics != null) {
+            table.getGame().flushMetrics();
+            metrics.close();
+        }
+
+        System.out.printf("seed %d, %d seats (%s)%n", seed, seats, String.join(",", seatTypes));
+        System.out.printf("%d hands in %.2fs: %.0f hands/s, %.0f actions/s (%.1f per hand)%n",
+            table.getHands(), seconds, table.getHands() / seconds, table.getActions() / seconds,
+            (double) table.getActions() / table.getHands());
+        System.out.printf("showdowns %d, rebuys %d%n", table.getShowdowns(), table.getRebuys());
+        if (history != null) {
+            System.out.printf("history: %d records in %d segment(s) under %s%n",
+                history.getRecordCount(), history.getSegmentCount(), historyDir);
+        }
+        if (checkpoints != null) {
+            System.out.printf("checkpoints: %d written under %s%n", checkpoints.getWritten(), checkpointDir);
+        }
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            usage("Missing value for " + option);
+        }
+        return value;
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java sim.HeadlessRunner [--hands N] [--seats N] [--agents "
+            + String.join("|", Agents.TYPES) + ",...] [--seed N] [--stack N] [--history DIR]"
+            + " [--checkpoints DIR [--checkpoint-every N]] [--metrics FILE]");
+        System.exit(2);
+    }
+}
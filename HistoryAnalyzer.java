@@ -0,0 +1,159 @@
+package history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import logic.TexasHoldem;
+
+/**
+ * Batch statistics over a recorded hand history.
+ *
+ * The log is cut into fixed-size byte chunks that are analysed in parallel
+ * on a fork/join pool, each into its own {@link HistoryStats}, and the
+ * partial results are merged pairwise on the way back up. A chunk owns the
+ * hands that start inside it: it skips to the first hand start and reads
+ * its last hand to the end even past the chunk or segment boundary. If
+ * the next hand starts first, the last one was cut short and is counted
+ * as truncated; the next hand belongs to the next chunk.
+ *
+ * Usage: {@code java history.HistoryAnalyzer DIR [PREFIX] [--bb N] [--chunk MB]}.
+ */
+public class HistoryAnalyzer {
+    public static final long DEFAULT_CHUNK_BYTES = 8L << 20;
+
+    private final ForkJoinPool pool;
+
+    public HistoryAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public HistoryAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public HistoryStats analyze(Path directory, String prefix) throws IOException {
+        return analyze(directory, prefix, DEFAULT_CHUNK_BYTES);
+    }
+
+    public HistoryStats analyze(Path directory, String prefix, long chunkBytes) throws IOException {
+        long chunk = Math.max(HandRecord.BYTES, chunkBytes / HandRecord.BYTES * HandRecord.BYTES);
+        ArrayList<long[]> chunks = new ArrayList<>(); // {segment, start, end}
+        int segments = HistoryReader.segmentCount(directory, prefix);
+        for (int segment = 0; segment < segments; segment++) {
+            long size = Files.size(HistoryWriter.segmentPath(directory, prefix, segment));
+            for (long start = 0; start < size; start += chunk) {
+                chunks.add(new long[] {segment, start, Math.min(start + chunk, size)});
+            }
+        }
+        if (chunks.isEmpty()) {
+            throw new IOException("No history segments for " + prefix + " in " + directory);
+        }
+        try {
+            return pool.invoke(new ChunkTask(directory, prefix, chunks, 0, chunks.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Stats for the hands that start in bytes [start, end) of one segment. */
+    static HistoryStats analyzeChunk(Path directory, String prefix, int segment, long start, long end)
+            throws IOException {
+        HistoryStats stats = new HistoryStats();
+        try (HistoryReader reader = new HistoryReader(directory, prefix, segment, start)) {
+            while (reader.next()) {
+                HandRecord record = reader.record();
+                boolean handStart = record.getType() == HandRecord.HAND_START;
+                if ((!stats.isInHand() || handStart) && (reader.getSegment() != segment || reader.getOffset() >= end)) {
+                    break;
+                }
+                if (stats.isInHand() || handStart) {
+                    stats.accept(record);
+                }
+            }
+        }
+        stats.truncate();
+        return stats;
+    }
+
+    private static class ChunkTask extends RecursiveTask<HistoryStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final String prefix;
+        private final ArrayList<long[]> chunks;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(Path directory, String prefix, ArrayList<long[]> chunks, int lo, int hi) {
+            this.directory = directory;
+            this.prefix = prefix;
+            this.chunks = chunks;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected HistoryStats compute() {
+            if (hi - lo == 1) {
+                long[] chunk = chunks.get(lo);
+                try {
+                    return analyzeChunk(directory, prefix, (int) chunk[0], chunk[1], chunk[2]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int mid = (lo + hi) >>> 1;
+            ChunkTask left = new ChunkTask(directory, prefix, chunks, lo, mid);
+            left.fork();
+            HistoryStats right = new ChunkTask(directory, prefix, chunks, mid, hi).compute();
+            HistoryStats stats = left.join();
+            stats.merge(right);
+            return stats;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String directory = null;
+        String prefix = "table-0";
+        long bigBlind = TexasHoldem.BIG_BLIND;
+        long chunkBytes = DEFAULT_CHUNK_BYTES;
+        int positional = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--bb": bigBlind = Long.parseLong(args[++i]); break;
+                case "--chunk": chunkBytes = Long.parseLong(args[++i]) << 20; break;
+                default:
+                    if (positional++ == 0) {
+                        directory = args[i];
+                    } else {
+                        prefix = args[i];
+                    }
+            }
+        }
+        if (directory == null) {
+            System.err.println("Usage: java history.HistoryAnalyzer DIR [PREFIX] [--bb N] [--chunk MB]");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        HistoryStats stats = new HistoryAnalyzer().analyze(Paths.get(directory), prefix, chunkBytes);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d hands (%d truncated) in %.2fs%n", stats.getHands(), stats.getTruncatedHands(), seconds);
+        System.out.printf("%6s %10s %6s %6s %6s %9s %7s %18s%n",
+            "player", "hands", "VPIP", "PFR", "AF", "showdowns", "SD won", "bb/100");
+        for (PlayerStats p : stats.getPlayers()) {
+            double af = p.getAggressionFactor();
+            System.out.printf("%6d %10d %5.1f%% %5.1f%% %6s %9d %6.1f%% %8.2f +/- %6.2f%n",
+                p.getPlayerId(), p.getHands(), 100 * p.getVpip(), 100 * p.getPfr(),
+                Double.isNaN(af) ? "-" : Double.isInfinite(af) ? "inf" : String.format("%.2f", af),
+                p.getShowdowns(), 100 * p.getShowdownWinRate(),
+                p.getBbPer100(bigBlind), p.getBbPer100HalfWidth(bigBlind));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the records of a {@link HistoryWriter} log back in order.
+ *
+ * Segments are mapped read-only one at a time and records are read in
+ * place through a single reused {@link HandRecord}, so memory stays bounded
+ * however long the log is:
+ * <pre>
+ * try (HistoryReader reader = new HistoryReader(dir, "table-0")) {
+ *     while (reader.next()) {
+ *         HandRecord r = reader.record();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * Segment header records are skipped.
+ */
+public class HistoryReader implements Closeable {
+    private final Path directory;
+    private final String prefix;
+    private final HandRecord record = new HandRecord();
+    private MappedByteBuffer buffer;
+    private int segment = -1;
+    private int position;
+
+    public HistoryReader(Path directory, String prefix) throws IOException {
+        this(directory, prefix, 0, 0);
+    }
+
+    /**
+     * Starts reading at byte {@code offset} (a multiple of
+     * {@link HandRecord#BYTES}) of segment {@code segment} and carries on
+     * through the following segments.
+     */
+    public HistoryReader(Path directory, String prefix, int segment, long offset) throws IOException {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segment = segment - 1;
+        if (offset % HandRecord.BYTES != 0) {
+            throw new IllegalArgumentException("Offset is not on a record boundary: " + offset);
+        }
+        if (!openNext()) {
+            throw new IOException("No history segment " + segment + " for " + prefix + " in " + directory);
+        }
+        position = (int) Math.max(offset, HandRecord.BYTES);
+    }
+
+    /** Number of consecutive segment files of a log. */
+    public static int segmentCount(Path directory, String prefix) {
+        int count = 0;
+        while (Files.isRegularFile(HistoryWriter.segmentPath(directory, prefix, count))) {
+            count++;
+        }
+        return count;
+    }
+
+    /** Reads a single segment file. */
+    public static HistoryReader ofSegment(Path file) throws IOException {
+        return new HistoryReader(file);
+    }
+
+    private HistoryReader(Path file) throws IOException {
+        this.directory = null;
+        this.prefix = null;
+        map(file);
+    }
+
+    /** Advances to the next record; false at the end of the log. */
+    public boolean next() throws IOException {
+        while (true) {
+            if (buffer != null && position + HandRecord.BYTES <= buffer.limit()) {
+                record.wrap(buffer, position);
+                int type = record.getType();
+                if (type != 0) {
+                    position += HandRecord.BYTES;
+                    if (type == HandRecord.SEGMENT) {
+                        continue;
+                    }
+                    return true;
+                }
+            }
+            // Zero-filled tail or end of file: move on to the next segment
+            if (directory == null || !openNext()) {
+                return false;
+            }
+        }
+    }
+
+    /** Segment of the current record. */
+    public int getSegment() {
+        return segment;
+    }
+
+    /** Byte offset of the current record within its segment. */
+    public long getOffset() {
+        return position - HandRecord.BYTES;
+    }
+
+    /** The current record; only valid until the next call to {@link #next()}. */
+    public HandRecord record() {
+        return record;
+    }
+
+    private boolean openNext() throws IOException {
+        Path file = HistoryWriter.segmentPath(directory, prefix, segment + 1);
+        if (!Files.isRegularFile(file)) {
+            buffer = null;
+            return false;
+        }
+        segment++;
+        map(file);
+        return true;
+    }
+
+    private void map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        position = 0;
+        if (buffer.limit() < HandRecord.BYTES
+                || record.wrap(buffer, 0).getType() != HandRecord.SEGMENT
+                || record.getAmount() != HandRecord.MAGIC) {
+            throw new IOException("Not a hand history segment: " + file);
+        }
+        if (record.getAux() != HandRecord.VERSION) {
+            throw new IOException("Unsupported hand history version " + record.getAux() + ": " + file);
+        }
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+}
@@ -0,0 +1,180 @@
+package history;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import logic.GameState;
+import model.TableState;
+
+/**
+ * Folds a stream of {@link HandRecord}s into {@link PlayerStats}, keyed by
+ * the player ids from the SEAT records.
+ *
+ * Records are consumed one at a time with only the hand in progress kept
+ * in fixed per-seat arrays, so memory is bounded by the number of players,
+ * not the length of the log. Records outside a complete hand (a chunk that
+ * starts mid-hand) are ignored, and a hand that never ends (the table
+ * crashed mid-hand) only counts towards {@link #getTruncatedHands()}.
+ * Partial results merge with {@link #merge}.
+ */
+public class HistoryStats {
+    private static final int VPIP = 1;
+    private static final int PFR = 2;
+
+    private PlayerStats[] players = new PlayerStats[16];
+    private long hands;
+    private long truncatedHands;
+
+    // Hand in progress
+    private final int[] seatPlayer = new int[TableState.MAX_SEATS];
+    private final long[] committed = new long[TableState.MAX_SEATS];
+    private final long[] won = new long[TableState.MAX_SEATS];
+    private final int[] flags = new int[TableState.MAX_SEATS];
+    private int round;
+    private boolean inHand;
+
+    public void accept(HandRecord record) {
+        int type = record.getType();
+        if (type == HandRecord.HAND_START) {
+            truncate();
+            Arrays.fill(seatPlayer, -1);
+            Arrays.fill(committed, 0);
+            Arrays.fill(won, 0);
+            Arrays.fill(flags, 0);
+            round = 0;
+            inHand = true;
+            return;
+        }
+        if (!inHand) {
+            return;
+        }
+        int seat = record.getSeat();
+        switch (type) {
+            case HandRecord.SEAT:
+                if (record.getAux() >= 0) {
+                    seatPlayer[seat] = record.getAux();
+                    stats(seatPlayer[seat]);
+                }
+                break;
+            case HandRecord.BLIND:
+                committed[seat] += record.getAmount();
+                break;
+            case HandRecord.ACTION:
+                action(seat, record.getAction(), record.getAmount());
+                break;
+            case HandRecord.BOARD:
+                round = record.getAction();
+                break;
+            case HandRecord.WIN:
+                won[seat] += record.getAmount();
+                if (record.getAction() == 1 && seatPlayer[seat] >= 0) {
+                    PlayerStats stats = players[seatPlayer[seat]];
+                    stats.showdowns++;
+                    if (record.getAmount() > 0) {
+                        stats.showdownsWon++;
+                    }
+                }
+                break;
+            case HandRecord.HAND_END:
+                endHand();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void action(int seat, int code, long amount) {
+        committed[seat] += amount;
+        if (seatPlayer[seat] < 0) {
+            return;
+        }
+        boolean raise = code == GameState.RAISE;
+        boolean call = code == GameState.CALL && amount > 0;
+        if (round == 0) {
+            if (raise || call) {
+                flags[seat] |= VPIP;
+            }
+            if (raise) {
+                flags[seat] |= PFR;
+            }
+        } else if (raise) {
+            players[seatPlayer[seat]].aggressive++;
+        } else if (call) {
+            players[seatPlayer[seat]].passive++;
+        }
+    }
+
+    private void endHand() {
+        for (int seat = 0; seat < seatPlayer.length; seat++) {
+            if (seatPlayer[seat] < 0) {
+                continue;
+            }
+            PlayerStats stats = players[seatPlayer[seat]];
+            stats.addHand(won[seat] - committed[seat]);
+            if ((flags[seat] & VPIP) != 0) {
+                stats.vpipHands++;
+            }
+            if ((flags[seat] & PFR) != 0) {
+                stats.pfrHands++;
+            }
+        }
+        hands++;
+        inHand = false;
+    }
+
+    private PlayerStats stats(int playerId) {
+        if (playerId >= players.length) {
+            players = Arrays.copyOf(players, Math.max(playerId + 1, players.length * 2));
+        }
+        if (players[playerId] == null) {
+            players[playerId] = new PlayerStats(playerId);
+        }
+        return players[playerId];
+    }
+
+    /** True between a hand's start record and its end record. */
+    public boolean isInHand() {
+        return inHand;
+    }
+
+    /** Gives up on the hand in progress, if any, counting it as truncated. */
+    public void truncate() {
+        if (inHand) {
+            truncatedHands++;
+            inHand = false;
+        }
+    }
+
+    public void merge(HistoryStats other) {
+        for (PlayerStats stats : other.players) {
+            if (stats != null) {
+                stats(stats.getPlayerId()).merge(stats);
+            }
+        }
+        hands += other.hands;
+        truncatedHands += other.truncatedHands;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    /** Hands that started but never ended, left out of every stat. */
+    public long getTruncatedHands() {
+        return truncatedHands;
+    }
+
+    /** Stats for a player id, or null if that player never appeared. */
+    public PlayerStats get(int playerId) {
+        return playerId >= 0 && playerId < players.length ? players[playerId] : null;
+    }
+
+    public ArrayList<PlayerStats> getPlayers() {
+        ArrayList<PlayerStats> list = new ArrayList<>();
+        for (PlayerStats stats : players) {
+            if (stats != null) {
+                list.add(stats);
+            }
+        }
+        return list;
+    }
+}
@@ -0,0 +1,135 @@
+package history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only hand-history log written through memory-mapped segments.
+ *
+ * Records ({@link HandRecord}) are copied straight into a mapped segment
+ * file, so appending is a handful of stores with no system call and no
+ * allocation; the OS writes the pages back. When a segment is full the
+ * writer maps the next one ({@code prefix-00000.hh}, {@code prefix-00001.hh}, ...).
+ * Each segment starts with a {@link HandRecord#SEGMENT} header record and
+ * the unused tail stays zero-filled, which readers treat as the end.
+ * A new writer truncates its first segment and deletes the ones after
+ * it, so segments left by an earlier, longer run into the same directory
+ * are never read as part of the new log.
+ *
+ * A writer belongs to one table and is not thread-safe.
+ */
+public class HistoryWriter implements Closeable {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    public static final String SUFFIX = ".hh";
+
+    private final Path directory;
+    private final String prefix;
+    private final long segmentBytes;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int segment = -1;
+    private long records;
+
+    public HistoryWriter(Path directory, String prefix) throws IOException {
+        this(directory, prefix, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public HistoryWriter(Path directory, String prefix, long segmentBytes) throws IOException {
+        this(directory, prefix, segmentBytes, 0);
+    }
+
+    /**
+     * Starts writing at segment {@code firstSegment}, e.g. to carry on a log
+     * after a restart without touching the segments already written.
+     */
+    public HistoryWriter(Path directory, String prefix, long segmentBytes, int firstSegment) throws IOException {
+        if (segmentBytes < 2 * HandRecord.BYTES || segmentBytes % HandRecord.BYTES != 0
+                || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bad segment size: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentBytes = segmentBytes;
+        this.segment = firstSegment - 1;
+        Files.createDirectories(directory);
+        int stale = firstSegment + 1;
+        while (Files.deleteIfExists(segmentPath(directory, prefix, stale))) {
+            stale++;
+        }
+        roll();
+    }
+
+    public static Path segmentPath(Path directory, String prefix, int segment) {
+        return directory.resolve(String.format("%s-%05d%s", prefix, segment, SUFFIX));
+    }
+
+    /** Appends one record; {@code aux} must be 0 to {@link HandRecord#MAX_AUX}, as it is stored in 16 bits. */
+    public void append(int type, int seat, int action, int card0, int card1, int card2, int aux, long amount) {
+        if (aux < 0 || aux > HandRecord.MAX_AUX) {
+            throw new IllegalArgumentException("Aux value " + aux + " of a type " + type
+                                               + " record does not fit a hand history record (0 to "
+                                               + HandRecord.MAX_AUX + ")");
+        }
+        if (!buffer.hasRemaining()) {
+            try {
+                roll();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open history segment " + (segment + 1), e);
+            }
+        }
+        HandRecord.write(buffer, type, seat, action, card0, card1, card2, aux, amount);
+        records++;
+    }
+
+    private void roll() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+        }
+        segment++;
+        channel = FileChannel.open(segmentPath(directory, prefix, segment), StandardOpenOption.CREATE,
+                                   StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        HandRecord.write(buffer, HandRecord.SEGMENT, -1, 0, HandRecord.NO_CARD, HandRecord.NO_CARD,
+                         HandRecord.NO_CARD, HandRecord.VERSION, HandRecord.MAGIC);
+    }
+
+    /** Records appended so far, not counting segment headers. */
+    public long getRecordCount() {
+        return records;
+    }
+
+    public int getSegmentCount() {
+        return segment + 1;
+    }
+
+    /** Segment the next record goes to, unless it is full. */
+    public int getSegment() {
+        return segment;
+    }
+
+    /** Byte offset in {@link #getSegment()} where the next record goes. */
+    public long getPosition() {
+        return buffer.position();
+    }
+
+    /** Forces the current segment's written pages to disk. */
+    public void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
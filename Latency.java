@@ -0,0 +1,100 @@
+package metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts an operation and times a random sample of its calls into a
+ * {@link LatencyHistogram}:
+ * <pre>
+ * long start = latency.start();
+ * ... the operation ...
+ * latency.stop(start);
+ * </pre>
+ * Reading the clock costs tens of nanoseconds, so operations that take
+ * about a microsecond are only timed once every so many calls; the count
+ * is always exact. Both calls do nothing when {@link Metrics#ENABLED} is
+ * off.
+ */
+public class Latency implements LatencyMBean {
+    private final String name;
+    private final int sampleMask;
+    private final LongAdder count = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /** @param sampleEvery time one call in this many, a power of two */
+    public Latency(String name, int sampleEvery) {
+        if (Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("Sample rate must be a power of two: " + sampleEvery);
+        }
+        this.name = name;
+        this.sampleMask = sampleEvery - 1;
+    }
+
+    /** Returns the start time if this call is timed, 0 if not. */
+    public long start() {
+        if (!Metrics.ENABLED) {
+            return 0L;
+        }
+        count.increment();
+        if (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return 0L;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        if (start != 0L) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getSampled() {
+        return LatencyHistogram.total(counts());
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return LatencyHistogram.mean(counts()) / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return LatencyHistogram.valueAtPercentile(counts(), 50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return LatencyHistogram.valueAtPercentile(counts(), 99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return LatencyHistogram.valueAtPercentile(counts(), 99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return LatencyHistogram.max(counts()) / 1000.0;
+    }
+
+    private long[] counts() {
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        histogram.copyCounts(counts);
+        return counts;
+    }
+}
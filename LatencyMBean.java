@@ -0,0 +1,18 @@
+package metrics;
+
+/** JMX view of a {@link Latency}; times are in microseconds since start. */
+public interface LatencyMBean {
+    long getCount();
+
+    long getSampled();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
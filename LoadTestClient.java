@@ -0,0 +1,315 @@
+package net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import event.GameEvent;
+import logic.GameState;
+
+/**
+ * Drives a {@link GameServer} with thousands of simulated players over
+ * localhost and reports throughput and action round-trip times.
+ *
+ * Every table is filled with one connection per seat. A player answers its
+ * TURN at once (mostly calling or checking, sometimes raising or folding),
+ * and the round trip is the time from sending ACT to receiving the
+ * server's ACTION event for that seat. A few selector threads carry all
+ * connections, so the client itself stays cheap.
+ *
+ * Usage: {@code java net.LoadTestClient [--host H] [--port N] [--tables N]
+ * [--seats N] [--seconds N] [--warmup N] [--threads N] [--first-table N]
+ * [--embedded]}. {@code --embedded} starts a server in this process; an
+ * external one should run with {@code --rebuy} and the same seat count.
+ */
+public class LoadTestClient {
+    // Round trips in 10us buckets up to a second, the last one collects everything slower
+    private static final int BUCKET_MICROS = 10;
+    private static final int BUCKETS = 100_000;
+
+    private volatile boolean running = true;
+    private volatile boolean recording;
+
+    private static final class Client {
+        final SocketChannel channel;
+        final int table;
+        final ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+        final ByteBuffer out = ByteBuffer.allocate(Protocol.MAX_FRAME);
+        int seat = -1;
+        long sentAt; // 0 when no ACT is outstanding
+
+        Client(SocketChannel channel, int table) {
+            this.channel = channel;
+            this.table = table;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        final Selector selector = Selector.open();
+        final ArrayList<Client> clients = new ArrayList<>();
+        final long[] micros = new long[BUCKETS + 1];
+        final SplittableRandom random;
+        long hands;
+        long actions;
+        long errors;
+        int seated;
+
+        Worker(long seed) throws IOException {
+            random = new SplittableRandom(seed);
+        }
+
+        void connect(InetSocketAddress address, int table) throws IOException {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Client client = new Client(channel, table);
+            clients.add(client);
+            if (channel.connect(address)) {
+                joined(client);
+                channel.register(selector, SelectionKey.OP_READ, client);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, client);
+            }
+        }
+
+        private void joined(Client client) throws IOException {
+            Protocol.putJoin(client.out, client.table, "load-" + client.table);
+            write(client);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(100);
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        Client client = (Client) key.attachment();
+                        try {
+                            if (key.isConnectable()) {
+                                client.channel.finishConnect();
+                                key.interestOps(SelectionKey.OP_READ);
+                                joined(client);
+                            } else if (key.isReadable()) {
+                                read(client, key);
+                            } else if (key.isWritable()) {
+                                write(client);
+                                if (client.out.position() == 0) {
+                                    key.interestOps(SelectionKey.OP_READ);
+                                }
+                            }
+                        } catch (IOException e) {
+                            errors++;
+                            key.cancel();
+                            client.channel.close();
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+                for (Client client : clients) {
+                    client.channel.close();
+                }
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("load worker: " + e);
+            }
+        }
+
+        private void read(Client client, SelectionKey key) throws IOException {
+            if (client.channel.read(client.in) < 0) {
+                throw new IOException("server closed the connection");
+            }
+            ByteBuffer in = client.in;
+            in.flip();
+            int length;
+            while ((length = Protocol.frameLength(in)) > 0) {
+                int end = in.position() + length;
+                in.position(in.position() + Protocol.LENGTH_BYTES);
+                frame(client, in);
+                in.position(end);
+            }
+            in.compact();
+            if (client.out.position() > 0) {
+                write(client);
+                if (client.out.position() > 0) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            }
+        }
+
+        private void frame(Client client, ByteBuffer in) {
+            switch (in.get() & 0xFF) {
+                case Protocol.SEATED:
+                    in.getInt();
+                    client.seat = in.get() & 0xFF;
+                    seated++;
+                    break;
+                case Protocol.TURN: {
+                    int seat = in.get() & 0xFF;
+                    long toCall = in.getLong();
+                    long pot = in.getLong();
+                    if (seat == client.seat) {
+                        act(client, toCall, pot);
+                    }
+                    break;
+                }
+                case Protocol.EVENT: {
+                    int type = in.get() & 0xFF;
+                    int seat = in.get() & 0xFF;
+                    if (type == GameEvent.ACTION && seat == client.seat && client.sentAt != 0) {
+                        if (recording) {
+                            long rtt = (System.nanoTime() - client.sentAt) / 1000;
+                            micros[(int) Math.min(rtt / BUCKET_MICROS, BUCKETS)]++;
+                            actions++;
+                        }
+                        client.sentAt = 0;
+                    } else if (type == GameEvent.HAND_END && client.seat == 0 && recording) {
+                        hands++;
+                    }
+                    break;
+                }
+                case Protocol.ERROR:
+                    errors++;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void act(Client client, long toCall, long pot) {
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                Protocol.putAct(client.out, GameState.RAISE, Math.max(pot, 20));
+            } else if (roll == 1 && toCall > 0) {
+                Protocol.putAct(client.out, GameState.FOLD, 0);
+            } else {
+                Protocol.putAct(client.out, toCall > 0 ? GameState.CALL : GameState.CHECK, 0);
+            }
+            client.sentAt = System.nanoTime();
+        }
+
+        private void write(Client client) throws IOException {
+            client.out.flip();
+            client.channel.write(client.out);
+            client.out.compact();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = "127.0.0.1";
+        int port = Protocol.DEFAULT_PORT;
+        int tables = 500;
+        int seats = 6;
+        int seconds = 10;
+        int warmup = 2;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int firstTable = 0;
+        boolean embedded = false;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--embedded")) {
+                embedded = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                System.err.println("Missing value for " + args[i]);
+                System.exit(2);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--host": host = value; break;
+                case "--port": port = Integer.parseInt(value); break;
+                case "--tables": tables = Integer.parseInt(value); break;
+                case "--seats": seats = Integer.parseInt(value); break;
+                case "--seconds": seconds = Integer.parseInt(value); break;
+                case "--warmup": warmup = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--first-table": firstTable = Integer.parseInt(value); break;
+                default:
+                    System.err.println("Unknown option: " + args[i - 1]);
+                    System.exit(2);
+            }
+        }
+
+        GameServer server = null;
+        if (embedded) {
+            server = new GameServer(0, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            server.setMaxTables(tables);
+            server.setSeatsPerTable(seats);
+            server.setRebuy(true);
+            server.start();
+            port = server.getPort();
+        }
+
+        LoadTestClient test = new LoadTestClient();
+        Worker[] workers = new Worker[threads];
+        for (int w = 0; w < threads; w++) {
+            workers[w] = test.new Worker(w);
+        }
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        int connections = tables * seats;
+        for (int c = 0; c < connections; c++) {
+            workers[c % threads].connect(address, firstTable + c / seats);
+        }
+        Thread[] workerThreads = new Thread[threads];
+        for (int w = 0; w < threads; w++) {
+            workerThreads[w] = new Thread(workers[w], "load-" + w);
+            workerThreads[w].start();
+        }
+
+        Thread.sleep(warmup * 1000L);
+        test.recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        test.recording = false;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        test.running = false;
+        for (Thread thread : workerThreads) {
+            thread.join();
+        }
+
+        long[] micros = new long[BUCKETS + 1];
+        long hands = 0;
+        long actions = 0;
+        long errors = 0;
+        int seated = 0;
+        for (Worker worker : workers) {
+            for (int i = 0; i <= BUCKETS; i++) {
+                micros[i] += worker.micros[i];
+            }
+            hands += worker.hands;
+            actions += worker.actions;
+            errors += worker.errors;
+            seated += worker.seated;
+        }
+        System.out.printf("%d connections (%d seated, %d errors), %d tables x %d seats, %d client threads%n",
+            connections, seated, errors, tables, seats, threads);
+        System.out.printf("%.1fs: %.0f hands/s, %.0f actions/s%n", elapsed, hands / elapsed, actions / elapsed);
+        System.out.printf("action round trip (us): p50 %s, p90 %s, p99 %s, p99.9 %s, max %s%n",
+            percentile(micros, actions, 0.50), percentile(micros, actions, 0.90),
+            percentile(micros, actions, 0.99), percentile(micros, actions, 0.999),
+            percentile(micros, actions, 1.0));
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private static String percentile(long[] counts, long total, double fraction) {
+        if (total == 0) {
+            return "-";
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * fraction));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKETS ? ">" + BUCKETS * BUCKET_MICROS : Integer.toString((i + 1) * BUCKET_MICROS);
+            }
+        }
+        return "-";
+    }
+}
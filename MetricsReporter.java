@@ -0,0 +1,182 @@
+package metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns the {@link Metrics} counters into per-period rates on a daemon
+ * thread and, given a CSV file, appends one row per period: the counters,
+ * their rates, and for every latency the calls made in the period with
+ * the p50, p99 and maximum of the calls timed in it, in microseconds.
+ */
+public class MetricsReporter implements MetricsReporterMBean, Closeable {
+    private final long periodMillis;
+    private final PrintWriter csv; // null without a CSV file
+    private final boolean ownsCsv;
+    private final ScheduledExecutorService timer;
+
+    // Report thread only
+    private long lastNanos = System.nanoTime();
+    private long lastHands;
+    private long lastActions;
+    private long lastEquityEvaluations;
+    private final long[] lastCalls = new long[Metrics.LATENCIES.length];
+    private final long[][] lastCounts = new long[Metrics.LATENCIES.length][LatencyHistogram.BUCKETS];
+    private final long[] counts = new long[LatencyHistogram.BUCKETS];
+
+    private volatile double handsPerSecond;
+    private volatile double actionsPerSecond;
+    private volatile double equityEvaluationsPerSecond;
+
+    MetricsReporter(Path csvPath, long periodMillis) throws IOException {
+        this.periodMillis = periodMillis;
+        boolean header = true;
+        if (csvPath == null) {
+            csv = null;
+            ownsCsv = false;
+        } else if (csvPath.toString().equals("-")) {
+            csv = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            ownsCsv = false;
+        } else {
+            // Appending to an earlier run's file keeps its header
+            header = !Files.exists(csvPath) || Files.size(csvPath) == 0;
+            csv = new PrintWriter(Files.newBufferedWriter(csvPath, StandardCharsets.UTF_8,
+                                                          StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+            ownsCsv = true;
+        }
+        if (csv != null && header) {
+            writeHeader();
+        }
+        lastHands = Metrics.HANDS.sum();
+        lastActions = Metrics.ACTIONS.sum();
+        lastEquityEvaluations = Metrics.EQUITY_EVALUATIONS.sum();
+        for (int i = 0; i < Metrics.LATENCIES.length; i++) {
+            lastCalls[i] = Metrics.LATENCIES[i].getCount();
+            Metrics.LATENCIES[i].getHistogram().copyCounts(lastCounts[i]);
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void writeHeader() {
+        StringBuilder header = new StringBuilder(
+            "time_ms,hands,hands_per_s,actions,actions_per_s,equity_evaluations_per_s");
+        for (Latency latency : Metrics.LATENCIES) {
+            String name = latency.getName();
+            header.append(',').append(name).append(',')
+                  .append(name).append("_p50_us,").append(name).append("_p99_us,").append(name).append("_max_us");
+        }
+        csv.println(header);
+        csv.flush();
+    }
+
+    private synchronized void report() {
+        Metrics.nextPeriod();
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastNanos) / 1e9);
+        long hands = Metrics.HANDS.sum();
+        long actions = Metrics.ACTIONS.sum();
+        long equityEvaluations = Metrics.EQUITY_EVALUATIONS.sum();
+        handsPerSecond = (hands - lastHands) / seconds;
+        actionsPerSecond = (actions - lastActions) / seconds;
+        equityEvaluationsPerSecond = (equityEvaluations - lastEquityEvaluations) / seconds;
+        lastNanos = now;
+        lastHands = hands;
+        lastActions = actions;
+        lastEquityEvaluations = equityEvaluations;
+
+        StringBuilder row = csv != null ? new StringBuilder(256) : null;
+        if (row != null) {
+            row.append(System.currentTimeMillis()).append(',').append(hands).append(',')
+               .append(Math.round(handsPerSecond)).append(',').append(actions).append(',')
+               .append(Math.round(actionsPerSecond)).append(',').append(Math.round(equityEvaluationsPerSecond));
+        }
+        for (int i = 0; i < Metrics.LATENCIES.length; i++) {
+            Latency latency = Metrics.LATENCIES[i];
+            long calls = latency.getCount();
+            latency.getHistogram().copyCounts(counts);
+            long[] last = lastCounts[i];
+            for (int b = 0; b < counts.length; b++) {
+                long count = counts[b];
+                counts[b] = count - last[b];
+                last[b] = count;
+            }
+            if (row != null) {
+                row.append(',').append(calls - lastCalls[i])
+                   .append(',').append(micros(LatencyHistogram.valueAtPercentile(counts, 50)))
+                   .append(',').append(micros(LatencyHistogram.valueAtPercentile(counts, 99)))
+                   .append(',').append(micros(LatencyHistogram.max(counts)));
+            }
+            lastCalls[i] = calls;
+        }
+        if (row != null) {
+            csv.println(row);
+            csv.flush();
+        }
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+    }
+
+    @Override
+    public long getHands() {
+        return Metrics.HANDS.sum();
+    }
+
+    @Override
+    public long getActions() {
+        return Metrics.ACTIONS.sum();
+    }
+
+    @Override
+    public long getEquityEvaluations() {
+        return Metrics.EQUITY_EVALUATIONS.sum();
+    }
+
+    @Override
+    public double getHandsPerSecond() {
+        return handsPerSecond;
+    }
+
+    @Override
+    public double getActionsPerSecond() {
+        return actionsPerSecond;
+    }
+
+    @Override
+    public double getEquityEvaluationsPerSecond() {
+        return equityEvaluationsPerSecond;
+    }
+
+    @Override
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    /** Writes a last row for the partial period and stops reporting. */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        report();
+        if (ownsCsv) {
+            csv.close();
+        } else if (csv != null) {
+            csv.flush();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package metrics;
+
+/** JMX view of the engine counters; rates cover the last report period. */
+public interface MetricsReporterMBean {
+    long getHands();
+
+    long getActions();
+
+    long getEquityEvaluations();
+
+    double getHandsPerSecond();
+
+    double getActionsPerSecond();
+
+    double getEquityEvaluationsPerSecond();
+
+    long getPeriodMillis();
+}
@@ -0,0 +1,288 @@
+package sim;
+
+import history.CheckpointStore;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import logic.SeedTree;
+import metrics.Metrics;
+import metrics.MetricsReporter;
+
+/**
+ * Runs many independent tables concurrently on a work-stealing pool.
+ *
+ * Each table is confined to one task that plays a chunk of hands and then
+ * re-queues itself, so a table is only ever touched by one thread at a
+ * time and needs no locks, while the pool keeps every core busy. Counters
+ * go into a per-worker {@link SimStats} and are merged once all tables
+ * are done. {@link #cancel()} stops every table after its current chunk;
+ * so does a table that fails, and {@link #run} then rethrows its failure.
+ * With a {@link CheckpointStore} every table is checkpointed after each
+ * chunk, without waiting for the write.
+ *
+ * Usage: {@code java sim.MultiTableRunner [--tables N] [--hands N]
+ * [--seats N] [--agents type,...] [--seed N] [--stack N] [--threads N]
+ * [--checkpoints DIR] [--metrics FILE]}, where {@code --hands} is per table
+ * and {@code --metrics} appends the {@link Metrics} to FILE every
+ * second.
+ */
+public class MultiTableRunner {
+    private static final int CHUNK_HANDS = 256;
+
+    private final ForkJoinPool pool;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final LongAdder progress = new LongAdder();
+    private volatile CheckpointStore checkpoints;
+    private final ConcurrentLinkedQueue<SimStats> workerStats = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<SimStats> localStats = ThreadLocal.withInitial(() -> {
+        SimStats stats = new SimStats();
+        workerStats.add(stats);
+        return stats;
+    });
+
+    public MultiTableRunner(int threads) {
+        this.pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    /**
+     * Plays {@code handsPerTable} hands at each of {@code tables} tables and
+     * blocks until all are done or cancelled. Table t deals from seed tree
+     * coordinates (seed, t, hand), so any table can be re-run on its own.
+     * If a table fails the others are cancelled and the first failure is
+     * rethrown once they have stopped.
+     */
+    public SimStats run(int tables, long handsPerTable, String[] seatTypes, long seed, long stack)
+            throws InterruptedException {
+        for (String type : seatTypes) {
+            if (!Agents.isType(type)) {
+                throw new IllegalArgumentException("Unknown agent type: " + type);
+            }
+        }
+        SeedTree seeds = new SeedTree(seed);
+        CountDownLatch done = new CountDownLatch(tables);
+        for (int t = 0; t < tables; t++) {
+            pool.execute(new TableTask(seeds, t, seatTypes, stack, handsPerTable, done));
+        }
+        done.await();
+        Throwable failed = failure.get();
+        if (failed instanceof RuntimeException) {
+            throw (RuntimeException) failed;
+        } else if (failed instanceof Error) {
+            throw (Error) failed;
+        }
+
+        SimStats total = new SimStats();
+        for (SimStats stats : workerStats) {
+            total.merge(stats);
+        }
+        return total;
+    }
+
+    /** Checkpoints every table after each chunk of hands; null stops it. */
+    public void setCheckpoints(CheckpointStore checkpoints) {
+        this.checkpoints = checkpoints;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /** Hands completed so far across all tables. */
+    public long getProgress() {
+        return progress.sum();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private class TableTask implements Runnable {
+        private final SeedTree seeds;
+        private final int tableId;
+        private final String[] seatTypes;
+        private final long stack;
+        private final long hands;
+        private final CountDownLatch done;
+        private TableSession table; // created and used only inside run()
+
+        TableTask(SeedTree seeds, int tableId, String[] seatTypes, long stack, long hands, CountDownLatch done) {
+            this.seeds = seeds;
+            this.tableId = tableId;
+            this.seatTypes = seatTypes;
+            this.stack = stack;
+            this.hands = hands;
+            this.done = done;
+        }
+
+        // Counts down exactly once per table, when it finishes, is cancelled or fails
+        @Override
+        public void run() {
+            boolean finished = true;
+            try {
+                SimStats stats = localStats.get();
+                if (table == null) {
+                    table = new TableSession(seeds, tableId, seatTypes, stack);
+                    stats.tables++;
+                }
+                long hands0 = table.getHands();
+                long actions0 = table.getActions();
+                long showdowns0 = table.getShowdowns();
+                long rebuys0 = table.getRebuys();
+
+                long chunk = Math.min(CHUNK_HANDS, hands - hands0);
+                for (long n = 0; n < chunk; n++) {
+                    table.playHand();
+                }
+                stats.add(table.getHands() - hands0, table.getActions() - actions0,
+                          table.getShowdowns() - showdowns0, table.getRebuys() - rebuys0);
+                progress.add(chunk);
+                CheckpointStore store = checkpoints;
+                if (store != null) {
+                    store.checkpoint(table.getGame());
+                }
+
+                if (table.getHands() >= hands || cancelled.get()) {
+                    table.getGame().flushMetrics();
+                } else {
+                    // Re-queue so other tables get a turn; the table moves with the task
+                    pool.execute(this);
+                    finished = false;
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+                cancel();
+            } finally {
+                if (finished) {
+                    done.countDown();
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int tables = 1000;
+        long hands = 1000;
+        int seats = 6;
+        String agents = "fastai";
+        long seed = System.nanoTime();
+        long stack = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String checkpointDir = null;
+        String metricsFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--tables": tables = Integer.parseInt(require(args[i], value)); i++; break;
+                case "--hands": hands = Long.parseLong(require(args[i], value)); i++; break;
+                case "--seats": seats = Integer.parseInt(require(args[i], value)); i++; break;
+                case "--agents": agents = require(args[i], value); i++; break;
+                case "--seed": seed = Long.parseLong(require(args[i], value)); i++; break;
+                case "--stack": stack = Long.parseLong(require(args[i], value)); i++; break;
+                case "--threads": threads = Integer.parseInt(require(args[i], value)); i++; break;
+                case "--checkpoints": checkpointDir = require(args[i], value); i++; break;
+                case "--metrics": metricsFile = require(args[i], value); i++; break;
+                default:
+                    usage("Unknown option: " + args[i]);
+            }
+        }
+        if (seats < 2 || seats > 10) {
+            usage("Seats must be between 2 and 10");
+        }
+        String[] types = agents.split(",");
+        String[] seatTypes = new String[seats];
+        for (int seat = 0; seat < seats; seat++) {
+            seatTypes[seat] = types[seat % types.length].trim();
+            if (!Agents.isType(seatTypes[seat])) {
+                usage("Unknown agent type: " + seatTypes[seat]);
+            }
+        }
+
+        MultiTableRunner runner = new MultiTableRunner(threads);
+        CheckpointStore checkpoints = null;
+        if (checkpointDir != null) {
+            checkpoints = new CheckpointStore(Paths.get(checkpointDir));
+            runner.setCheckpoints(checkpoints);
+        }
+        MetricsReporter metrics = metricsFile != null ? Metrics.start(Paths.get(metricsFile), 1000) : null;
+        long total = tables * hands;
+        long start = System.nanoTime();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            long played = runner.getProgress();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d/%d hands (%.1f%%), %.0f hands/s%n",
+                played, total, 100.0 * played / total, played / seconds);
+        }, 1, 1, TimeUnit.SECONDS);
+
+        // Ctrl-C finishes the current chunks and still prints the totals
+        Thread main = Thread.currentThread();
+        Thread hook = new Thread(() -> {
+            runner.cancel();
+            try {
+                main.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(hook);
+
+        SimStats stats = runner.run(tables, hands, seatTypes, seed, stack);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        reporter.shutdownNow();
+        runner.shutdown();
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
+        if (metrics != null) {
+            metrics.close();
+        }
+
+        System.out.printf("seed %d, %d tables x %d seats (%s), %d threads%s%n", seed, stats.getTables(), seats,
+            String.join(",", seatTypes), threads, runner.isCancelled() ? ", cancelled" : "");
+        System.out.printf("%d hands in %.2fs: %.0f hands/s, %.0f actions/s (%.1f per hand)%n",
+            stats.getHands(), seconds, stats.getHands() / seconds, stats.getActions() / seconds,
+            (double) stats.getActions() / stats.getHands());
+        System.out.printf("showdowns %d, rebuys %d%n", stats.getShowdowns(), stats.getRebuys());
+        if (checkpoints != null) {
+            System.out.printf("checkpoints: %d written in %d batches, %d skipped, under %s%n",
+                checkpoints.getWritten(), checkpoints.getBatches(), checkpoints.getSkipped(), checkpointDir);
+        }
+        if (!runner.isCancelled()) {
+            Runtime.getRuntime().removeShutdownHook(hook);
+        }
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            usage("Missing value for " + option);
+        }
+        return value;
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java sim.MultiTableRunner [--tables N] [--hands N] [--seats N] [--agents "
+            + String.join("|", Agents.TYPES) + ",...] [--seed N] [--stack N] [--threads N]"
+            + " [--checkpoints DIR] [--metrics FILE]");
+        System.exit(2);
+    }
+}
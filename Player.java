@@ -2,33 +2,63 @@ package model;
 
 import java.util.ArrayList;
 
+/**
+ * A seated player. Chips, bet, status and hole cards live in a
+ * {@link TableState} seat; this class is a façade over that seat plus the
+ * player's name and {@link Hand}. A new player owns a one-seat state until
+ * a table attaches it to one of its own seats.
+ */
 public class Player {
     private String name;
-    private double chips;
     private Hand hand;
-    private boolean isAI;
-    private double currentBet;
-    private boolean isFolded;
-    private boolean isAllIn;
+    private TableState state;
+    private int seat;
     private int position; // For AI decision making
+    private int id; // Stable identity across tables, for hand histories
     
-    public Player(String name, double chips, boolean isAI) {
+    // Hole cards plus the community cards absorbed so far this hand
+    private HandState showdownState;
+    private ArrayList<Card> absorbedBoard;
+    private int absorbedCount;
+    private int absorbedHoleCards;
+    
+    public Player(String name, long chips, boolean isAI) {
         this.name = name;
-        this.chips = chips;
         this.hand = new Hand();
-        this.isAI = isAI;
-        this.currentBet = 0;
-        this.isFolded = false;
-        this.isAllIn = false;
+        this.state = new TableState(1);
+        this.seat = state.addSeat(chips, isAI);
         this.position = 0;
+        this.showdownState = new HandState();
+    }
+    
+    /** Moves this player's seat into a table's state, keeping its values. */
+    public void attach(TableState table) {
+        int newSeat = table.addSeat(state.getChips(seat), state.is(seat, TableState.AI));
+        table.setBet(newSeat, state.getBet(seat));
+        table.setCommitted(newSeat, state.getCommitted(seat));
+        table.set(newSeat, TableState.FOLDED, state.is(seat, TableState.FOLDED));
+        table.set(newSeat, TableState.ALL_IN, state.is(seat, TableState.ALL_IN));
+        for (int i = 0; i < hand.size(); i++) {
+            table.addHoleCard(newSeat, hand.getCard(i));
+        }
+        state = table;
+        seat = newSeat;
+    }
+    
+    public TableState getTableState() {
+        return state;
+    }
+    
+    public int getSeat() {
+        return seat;
     }
     
     public String getName() {
         return name;
     }
     
-    public double getChips() {
-        return chips;
+    public long getChips() {
+        return state.getChips(seat);
     }
     
     public Hand getHand() {
@@ -36,19 +66,27 @@ public class Player {
     }
     
     public boolean isAI() {
-        return isAI;
+        return state.is(seat, TableState.AI);
     }
     
-    public double getCurrentBet() {
-        return currentBet;
+    public long getCurrentBet() {
+        return state.getBet(seat);
     }
     
     public boolean isFolded() {
-        return isFolded;
+        return state.is(seat, TableState.FOLDED);
     }
     
     public boolean isAllIn() {
-        return isAllIn;
+        return state.is(seat, TableState.ALL_IN);
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public void setId(int id) {
+        this.id = id;
     }
     
     public int getPosition() {
@@ -59,56 +97,70 @@ public class Player {
         this.position = position;
     }
     
-    public void bet(double amount) {
-        if (amount >= chips) {
-            currentBet = chips;
-            chips = 0;
-            isAllIn = true;
-        } else {
-            currentBet += amount;
-            chips -= amount;
-        }
+    public void dealCard(Card card) {
+        hand.addCard(card);
+        state.addHoleCard(seat, card);
     }
     
-    public void call(double amount) {
-        double callAmount = Math.min(amount, chips);
-        if (callAmount >= chips) {
-            isAllIn = true;
-        }
-        bet(callAmount);
+    public void bet(long amount) {
+        state.bet(seat, amount);
+    }
+    
+    public void call(long amount) {
+        state.call(seat, amount);
     }
     
     public void fold() {
-        isFolded = true;
+        state.set(seat, TableState.FOLDED, true);
     }
     
     public void newHand() {
         hand.clear();
-        isFolded = false;
-        isAllIn = false;
-        currentBet = 0;
+        absorbedBoard = null;
+        state.newHand(seat);
     }
     
     public void resetBet() {
-        currentBet = 0;
+        state.setBet(seat, 0);
     }
     
-    public void winPot(double pot) {
-        chips += pot;
+    public void winPot(long pot) {
+        state.setChips(seat, state.getChips(seat) + pot);
     }
     
     public double getHandStrength(ArrayList<Card> communityCards) {
         if (hand.size() < 2) {
             return 0.0;
         }
-        if (communityCards.isEmpty()) {
-            return hand.evaluate();
+        return HandEvaluator.toStrength(getHandRank(communityCards));
+    }
+    
+    public int getHandRank(ArrayList<Card> communityCards) {
+        return absorb(communityCards).getRank();
+    }
+    
+    /** Rank against a street's precomputed board analysis; merges only the hole cards. */
+    public int getHandRank(BoardAnalysis board) {
+        return board.rankWith(hand.getMask());
+    }
+    
+    // The board only grows during a hand, so only newly dealt cards are added
+    private HandState absorb(ArrayList<Card> communityCards) {
+        if (communityCards != absorbedBoard || communityCards.size() < absorbedCount
+                || hand.size() != absorbedHoleCards) {
+            showdownState.copyFrom(hand.getState());
+            absorbedBoard = communityCards;
+            absorbedCount = 0;
+            absorbedHoleCards = hand.size();
+        }
+        while (absorbedCount < communityCards.size()) {
+            showdownState.addCard(communityCards.get(absorbedCount++));
         }
-        return hand.evaluateBestHand(communityCards);
+        return showdownState;
     }
     
     public boolean hasChips() {
-        return chips > 0;
+        return state.getChips(seat) > 0;
     }
 }
 
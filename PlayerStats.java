@@ -0,0 +1,100 @@
+package history;
+
+/**
+ * Mergeable per-player counters gathered from hand histories.
+ *
+ * Everything is a plain count or an exact chip sum, so partial results
+ * from any number of chunks merge by addition and give the same totals
+ * regardless of how a log was split. The one exception is the sum of
+ * squares behind the variance: a double, as a long would overflow on
+ * large logs, so it can differ in the last bits between splits.
+ */
+public class PlayerStats {
+    private final int playerId;
+    long hands;
+    long vpipHands;      // voluntarily put chips in preflop
+    long pfrHands;       // raised preflop
+    long aggressive;     // postflop bets and raises
+    long passive;        // postflop calls
+    long showdowns;
+    long showdownsWon;
+    long net;            // chips won minus chips put in
+    double netSquares;   // sum of squared per-hand net, for the variance
+
+    public PlayerStats(int playerId) {
+        this.playerId = playerId;
+    }
+
+    public void merge(PlayerStats other) {
+        hands += other.hands;
+        vpipHands += other.vpipHands;
+        pfrHands += other.pfrHands;
+        aggressive += other.aggressive;
+        passive += other.passive;
+        showdowns += other.showdowns;
+        showdownsWon += other.showdownsWon;
+        net += other.net;
+        netSquares += other.netSquares;
+    }
+
+    void addHand(long handNet) {
+        hands++;
+        net += handNet;
+        netSquares += (double) handNet * handNet;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public double getVpip() {
+        return ratio(vpipHands, hands);
+    }
+
+    public double getPfr() {
+        return ratio(pfrHands, hands);
+    }
+
+    /**
+     * Postflop bets and raises per postflop call; infinite if the player
+     * never called, NaN if the player never did either.
+     */
+    public double getAggressionFactor() {
+        return passive == 0 ? (aggressive == 0 ? Double.NaN : Double.POSITIVE_INFINITY) : (double) aggressive / passive;
+    }
+
+    public long getShowdowns() {
+        return showdowns;
+    }
+
+    public double getShowdownWinRate() {
+        return ratio(showdownsWon, showdowns);
+    }
+
+    public long getNet() {
+        return net;
+    }
+
+    /** Win rate in big blinds per 100 hands. */
+    public double getBbPer100(long bigBlind) {
+        return hands == 0 ? 0.0 : 100.0 * net / hands / bigBlind;
+    }
+
+    /** Half-width of the 95% confidence interval of {@link #getBbPer100}. */
+    public double getBbPer100HalfWidth(long bigBlind) {
+        if (hands < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = (double) net / hands;
+        double variance = (netSquares - mean * net) / (hands - 1);
+        return 1.96 * Math.sqrt(Math.max(variance, 0.0) / hands) * 100.0 / bigBlind;
+    }
+
+    private static double ratio(long count, long total) {
+        return total == 0 ? 0.0 : (double) count / total;
+    }
+}
@@ -1,4 +1,5 @@
 import javax.swing.SwingUtilities;
+import metrics.Metrics;
 import ui.PokerGUI;
 
 /**
@@ -11,6 +12,7 @@ public class Poker {
 	 * Launch the application.
 	 */
 	public static void main(String[] args) {
+		Metrics.start();
 		SwingUtilities.invokeLater(() -> {
 			PokerGUI gui = new PokerGUI();
 			gui.setVisible(true);
@@ -1,35 +1,132 @@
 package ai;
 
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import equity.EquityCalculator;
+import equity.EquityResult;
+import equity.ExactEquity;
+import equity.PreflopTable;
+import equity.Range;
+import equity.RangeEquity;
+import logic.AIAction;
+import logic.TexasHoldem;
+import metrics.DecisionEvent;
+import metrics.Metrics;
 import model.Card;
+import model.Hand;
 import model.Player;
 
 public class PokerAI {
-    private static final Random random = new Random();
+    // Post-flop equity is sampled within a small per-decision budget
+    private static final EquityCalculator equity = new EquityCalculator();
+    private static final int EQUITY_SAMPLES = 50_000;
+    private static final long EQUITY_BUDGET_NANOS = 20_000_000L;
+    
+    // Late streets with few opponents are enumerated exactly instead
+    private static final ExactEquity exactEquity = new ExactEquity();
+    private static final RangeEquity rangeEquity = new RangeEquity(equity);
+    
+    // What opponents are assumed to play, from cautious to aggressive readers
+    private static final Range TIGHT_RANGE = Range.parse("22+, A9s+, KTs+, QTs+, JTs, AJo+, KQo");
+    private static final Range MEDIUM_RANGE = Range.parse("22+, A2s+, K8s+, Q9s+, J9s+, T9s, 98s, 87s, A9o+, KTo+, QJo");
+    private static final Range LOOSE_RANGE = Range.parse("22+, A2+, K2s+, K8o+, Q6s+, Q9o+, J7s+, J9o+, T7s+, T9o, "
+                                                         + "96s+, 86s+, 75s+, 65s, 54s");
+    
+    static {
+        equity.setTargetHalfWidth(0.01);
+    }
+    
     private double personality; // 0.3 (cautious) to 0.9 (aggressive)
     private String name;
+    private Range opponentRange; // null = opponents hold random hands
+    private int equitySamples = EQUITY_SAMPLES;
+    private final RandomGenerator random;
     
     public PokerAI(String name, double personality) {
+        this(name, personality, new SplittableRandom());
+    }
+    
+    public PokerAI(String name, double personality, RandomGenerator random) {
         this.name = name;
         this.personality = personality;
+        this.random = random;
+    }
+    
+    /**
+     * Caps the Monte Carlo samples per decision. Zero turns post-flop equity
+     * off and falls back to made-hand strength, for high-volume simulation.
+     */
+    public void setEquitySamples(int equitySamples) {
+        this.equitySamples = equitySamples;
+    }
+    
+    /**
+     * Models every opponent still in after the flop as holding this range
+     * instead of a random hand. Pre-flop equity stays against random hands.
+     */
+    public void setOpponentRange(Range opponentRange) {
+        this.opponentRange = opponentRange;
+    }
+    
+    public Range getOpponentRange() {
+        return opponentRange;
+    }
+    
+    /**
+     * The range a player of this personality credits opponents with: a
+     * cautious one expects strong hands, an aggressive one expects anything.
+     * Shared, so don't modify it.
+     */
+    public static Range defaultOpponentRange(double personality) {
+        if (personality < 0.45) {
+            return TIGHT_RANGE;
+        }
+        return personality < 0.7 ? MEDIUM_RANGE : LOOSE_RANGE;
     }
     
     public AIAction decideAction(Player aiPlayer, ArrayList<Player> players, 
                                   ArrayList<Card> communityCards, 
-                                  double currentBetToCall, double pot) {
+                                  long currentBetToCall, long pot) {
+        return decideAction(aiPlayer, players, communityCards, currentBetToCall, pot, -1);
+    }
+    
+    /** Same, naming the table in the decision's flight recorder event. */
+    public AIAction decideAction(Player aiPlayer, ArrayList<Player> players, ArrayList<Card> communityCards,
+                                 long currentBetToCall, long pot, int tableId) {
+        long start = Metrics.DECISIONS.start();
+        DecisionEvent event = DecisionEvent.start();
+        Strength strength = Strength.NONE;
+        AIAction action;
         if (aiPlayer.isFolded() || aiPlayer.isAllIn()) {
-            return new AIAction("check", 0);
+            action = new AIAction("check", 0);
+        } else {
+            strength = estimateStrength(aiPlayer, players, communityCards);
+            action = decide(aiPlayer, strength.value, currentBetToCall, pot);
         }
-        
-        // Evaluate hand strength
-        double handStrength = aiPlayer.getHandStrength(communityCards);
-        
-        // Adjust hand strength based on community cards
-        if (communityCards.size() > 0) {
-            handStrength = adjustStrengthForCommunity(handStrength, communityCards.size());
+        Metrics.DECISIONS.stop(start);
+        if (event != null && event.shouldCommit()) {
+            event.tableId = tableId;
+            event.player = name;
+            event.street = TexasHoldem.roundName(streetOf(communityCards.size()));
+            event.pot = pot;
+            event.toCall = currentBetToCall;
+            event.opponents = strength.opponents;
+            event.source = strength.source;
+            event.samples = strength.samples;
+            event.strength = strength.value;
+            event.action = action.getAction();
+            event.amount = action.getAmount();
+            event.commit();
         }
-        
+        return action;
+    }
+    
+    private static int streetOf(int boardCards) {
+        return boardCards == 0 ? TexasHoldem.PRE_FLOP : boardCards - 2;
+    }
+    
+    private AIAction decide(Player aiPlayer, double handStrength, long currentBetToCall, long pot) {
         // Add some randomness based on personality
         double adjustedStrength = handStrength + (personality - 0.5) * 0.2;
         
@@ -37,15 +134,15 @@ public class PokerAI {
         if (adjustedStrength > 0.8) {
             // Very strong hand - aggressive betting
             double raiseAmount = pot * (0.10 + (personality - 0.5) * 0.4);
-            return new AIAction("raise", (int) Math.min(raiseAmount, aiPlayer.getChips()));
+            return new AIAction("raise", (long) Math.min(raiseAmount, aiPlayer.getChips()));
         } 
         else if (adjustedStrength > 0.6) {
             // Strong hand - call or small raise
             if (random.nextDouble() < personality) {
                 double raiseAmount = pot * (0.10 + (personality - 0.6) * 0.2);
-                return new AIAction("raise", (int) Math.min(raiseAmount, aiPlayer.getChips()));
+                return new AIAction("raise", (long) Math.min(raiseAmount, aiPlayer.getChips()));
             } else {
-                return new AIAction("call", (int) currentBetToCall);
+                return new AIAction("call", currentBetToCall);
             }
         }
         else if (adjustedStrength > 0.4) {
@@ -53,10 +150,10 @@ public class PokerAI {
             if (random.nextDouble() < (personality * 0.3)) {
                 // Bluff with small raise
                 double bluffAmount = pot * 0.15;
-                return new AIAction("raise", (int) Math.min(bluffAmount, aiPlayer.getChips()));
+                return new AIAction("raise", (long) Math.min(bluffAmount, aiPlayer.getChips()));
             }
             else if (random.nextDouble() < 0.7) {
-                return new AIAction("call", (int) currentBetToCall);
+                return new AIAction("call", currentBetToCall);
             } else {
                 return new AIAction("fold", 0);
             }
@@ -66,13 +163,80 @@ public class PokerAI {
             if (random.nextDouble() < (personality * 0.2)) {
                 // Aggressive bluff
                 double bluffAmount = pot * 0.2;
-                return new AIAction("raise", (int) Math.min(bluffAmount, aiPlayer.getChips()));
+                return new AIAction("raise", (long) Math.min(bluffAmount, aiPlayer.getChips()));
             } else {
                 return new AIAction("fold", 0);
             }
         }
     }
     
+    private Strength estimateStrength(Player aiPlayer, ArrayList<Player> players, ArrayList<Card> communityCards) {
+        int opponents = countOpponents(aiPlayer, players);
+        if (equitySamples == 0 || opponents == 0) {
+            return madeHandStrength(aiPlayer, opponents, communityCards);
+        }
+        if (opponentRange != null && communityCards.size() >= 3 && aiPlayer.getHand().size() == 2) {
+            try {
+                EquityResult result = rangeEquity.equity(aiPlayer.getHand().getMask(), opponentRange, opponents,
+                                                         Hand.maskOf(communityCards), equitySamples,
+                                                         EQUITY_BUDGET_NANOS);
+                Metrics.countEquityEvaluations(result.getSamples() * (opponents + 1));
+                return new Strength(perOpponentEquity(result.getEquity(), opponents), "range",
+                                    result.getSamples(), opponents);
+            } catch (IllegalArgumentException e) {
+                // The cards out leave too little of the range to deal; assume random hands
+            }
+        }
+        if (communityCards.size() >= 3) {
+            long hole = aiPlayer.getHand().getMask();
+            long board = Hand.maskOf(communityCards);
+            EquityResult result;
+            String source;
+            if ((opponents == 1 && communityCards.size() >= 4) || (opponents == 2 && communityCards.size() == 5)) {
+                result = exactEquity.equity(hole, board, opponents);
+                source = "exact";
+            } else {
+                result = equity.equity(hole, board, opponents, equitySamples, EQUITY_BUDGET_NANOS);
+                source = "monte carlo";
+            }
+            Metrics.countEquityEvaluations(result.getSamples() * (opponents + 1));
+            return new Strength(perOpponentEquity(result.getEquity(), opponents), source,
+                                result.getSamples(), opponents);
+        }
+        return madeHandStrength(aiPlayer, opponents, communityCards);
+    }
+    
+    private Strength madeHandStrength(Player aiPlayer, int opponents, ArrayList<Card> communityCards) {
+        if (communityCards.isEmpty() && opponents > 0 && PreflopTable.isAvailable()
+                && aiPlayer.getHand().size() == 2) {
+            return new Strength(perOpponentEquity(PreflopTable.equity(aiPlayer.getHand().getMask(), opponents),
+                                                  opponents), "preflop table", 0, opponents);
+        }
+        
+        double strength = aiPlayer.getHandStrength(communityCards);
+        // Adjust hand strength based on community cards
+        if (communityCards.size() > 0) {
+            strength = adjustStrengthForCommunity(strength, communityCards.size());
+        }
+        return new Strength(strength, "made hand", 0, opponents);
+    }
+    
+    private int countOpponents(Player aiPlayer, ArrayList<Player> players) {
+        int count = 0;
+        for (Player player : players) {
+            if (player != aiPlayer && !player.isFolded()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    // Multiway equity shrinks roughly as p^n; undo that so the same
+    // thresholds work whatever the number of opponents
+    private double perOpponentEquity(double equity, int opponents) {
+        return opponents == 1 ? equity : Math.pow(equity, 1.0 / opponents);
+    }
+    
     private double adjustStrengthForCommunity(double strength, int communityCount) {
         // Early game (pre-flop) is more uncertain
         if (communityCount == 0) {
@@ -97,22 +261,21 @@ public class PokerAI {
         return personality;
     }
     
-    // Inner class to represent AI action
-    public static class AIAction {
-        private String action; // "fold", "call", "raise", "check"
-        private int amount;
+    // A hand strength estimate and what it was based on, for the decision's
+    // flight recorder event; kept per call so overlapping decisions can't mix them up
+    private static final class Strength {
+        static final Strength NONE = new Strength(0, "none", 0, 0);
         
-        public AIAction(String action, int amount) {
-            this.action = action;
-            this.amount = amount;
-        }
-        
-        public String getAction() {
-            return action;
-        }
+        final double value;
+        final String source;
+        final long samples;
+        final int opponents;
         
-        public int getAmount() {
-            return amount;
+        Strength(double value, String source, long samples, int opponents) {
+            this.value = value;
+            this.source = source;
+            this.samples = samples;
+            this.opponents = opponents;
         }
     }
 }
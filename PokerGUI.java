@@ -3,13 +3,38 @@ package ui;
 import java.awt.*;
 import javax.swing.*;
 
+import ai.AIAgent;
+import ai.PokerAI;
+import event.EventBus;
+import event.GameEvent;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.HandEvaluator;
 import model.Player;
+import logic.Agent;
+import logic.ExternalAgent;
+import logic.TableActor;
+import logic.TableSnapshot;
 import logic.TexasHoldem;
+import metrics.Metrics;
+import net.Protocol;
+import net.RemoteTable;
 
 public class PokerGUI extends JFrame {
     private static final long serialVersionUID = 1L;
     
-    private TexasHoldem game;
+    // Opponents take this long to "think" so their moves can be followed
+    private static final long AI_THINK_MILLIS = 1500;
+    private static final long DECISION_TIMEOUT_MILLIS = 60_000;
+    private static final String[] ACTION_NAMES = {"folds", "checks", "calls", "raises"};
+    
+    private TableActor actor;    // null when playing on a server
+    private RemoteTable remote;  // null when playing locally
+    private ExternalAgent human;
     private TablePanel tablePanel;
     private JPanel controlPanel;
     private JLabel messageLabel;
@@ -18,24 +43,67 @@ public class PokerGUI extends JFrame {
     private JButton callButton;
     private JButton raiseButton;
     private JSpinner raiseAmountSpinner;
+    private EventBus events;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
     
     public PokerGUI() {
         initializeGame();
         setupUI();
     }
     
+    /** Plays at a table of a {@link net.GameServer} instead of against local opponents. */
+    public PokerGUI(String host, int port, int tableId, String name) throws IOException {
+        human = new ExternalAgent();
+        remote = new RemoteTable(host, port, tableId, name, human, SwingUtilities::invokeLater);
+        events = remote.getEventBus();
+        // The mirror publishes on the EDT, so the snapshot is exactly the settled hand
+        events.addDirectListener(event -> {
+            if (event.getType() == GameEvent.HAND_END) {
+                TableSnapshot settled = remote.getSnapshot();
+                SwingUtilities.invokeLater(() -> showGameResult(settled));
+            }
+        });
+        setupUI();
+        remote.setSnapshotListener(this::onSnapshot);
+        messageLabel.setText("Joined table " + tableId + ", waiting for the next hand...");
+    }
+    
     private void initializeGame() {
-        game = new TexasHoldem();
+        TexasHoldem table = new TexasHoldem();
+        events = new EventBus();
+        table.setEventBus(events);
         
         // Add player (non-AI)
-        game.addPlayer(new Player("You", 1000, false));
+        table.addPlayer(new Player("You", 1000, false));
         
         // Add AI opponents with different personalities
-        game.addPlayer(new Player("Alice", 1000, true));
-        game.addPlayer(new Player("Bob", 1000, true));
-        game.addPlayer(new Player("Charlie", 1000, true));
+        table.addPlayer(new Player("Alice", 1000, true));
+        table.addPlayer(new Player("Bob", 1000, true));
+        table.addPlayer(new Player("Charlie", 1000, true));
         
-        game.startNewHand();
+        // The table lives in an actor on the common pool and the GUI only
+        // reads its snapshots; the human answers through the buttons and
+        // the opponents think in the background
+        human = new ExternalAgent();
+        Executor thinking = CompletableFuture.delayedExecutor(AI_THINK_MILLIS, TimeUnit.MILLISECONDS);
+        Agent[] agents = new Agent[table.getPlayers().size()];
+        for (Player player : table.getPlayers()) {
+            if (!player.isAI()) {
+                agents[player.getPosition()] = human;
+                continue;
+            }
+            double personality = 0.3 + (Math.random() * 0.6);
+            PokerAI ai = new PokerAI(player.getName(), personality);
+            ai.setOpponentRange(PokerAI.defaultOpponentRange(personality));
+            agents[player.getPosition()] = new AIAgent(ai, thinking);
+        }
+        actor = new TableActor(table, agents, ForkJoinPool.commonPool());
+        actor.setDecisionTimeout(DECISION_TIMEOUT_MILLIS);
+        actor.setSnapshotListener(this::onSnapshot);
+    }
+    
+    private TableSnapshot snapshot() {
+        return actor != null ? actor.getSnapshot() : remote.getSnapshot();
     }
     
     private void setupUI() {
@@ -49,25 +117,22 @@ public class PokerGUI extends JFrame {
         mainPanel.setBackground(new Color(0, 100, 0));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
-        // Create circular table panel
-        tablePanel = new TablePanel(game);
+        // Create circular table panel; it repaints whenever the table publishes a snapshot
+        tablePanel = new TablePanel(this::snapshot);
         mainPanel.add(tablePanel, BorderLayout.CENTER);
+        events.subscribe("table-messages", this::onGameEvent);
         
         // Setup control panel
         setupControlPanel();
         mainPanel.add(controlPanel, BorderLayout.SOUTH);
         
         add(mainPanel);
+        updateDisplay();
         
-        // Start the game flow
-        SwingUtilities.invokeLater(() -> {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            processGameFlow();
-        });
+        // Start the game flow; a server deals on its own
+        if (actor != null) {
+            startHandLater(500);
+        }
     }
     
     private void setupControlPanel() {
@@ -117,172 +182,103 @@ public class PokerGUI extends JFrame {
         controlPanel.add(buttonPanel, BorderLayout.CENTER);
     }
     
-    private void handlePlayerAction(String action, double amount) {
-        Player currentPlayer = game.getCurrentPlayer();
-        
-        if (currentPlayer == null || currentPlayer.isAI()) {
-            return;
+    private void handlePlayerAction(String action, long amount) {
+        if (human.submit(action, amount)) {
+            updateDisplay();
         }
-        
-        game.processPlayerAction(action, amount);
-        updateDisplay();
-        
-        // Process AI turns and game advancement
-        SwingUtilities.invokeLater(() -> {
-            processGameFlow();
-        });
     }
     
-    private void processGameFlow() {
-        // Process AI players until betting round is complete or human player's turn
-        while (true) {
-            // Check if betting round is complete
-            if (game.isBettingRoundComplete()) {
-                advanceGame();
-                break;
-            }
-            
-            Player currentPlayer = game.getCurrentPlayer();
-            if (currentPlayer == null) {
-                break;
-            }
-            
-            // If it's human player's turn, stop and wait
-            if (!currentPlayer.isAI()) {
-                break;
+    private void startHandLater(int delayMillis) {
+        Timer timer = new Timer(delayMillis, e -> startHand());
+        timer.setRepeats(false);
+        timer.start();
+    }
+    
+    private void startHand() {
+        messageLabel.setText("New hand started!");
+        actor.playHand().whenComplete((settled, failure) -> SwingUtilities.invokeLater(() -> {
+            if (failure != null) {
+                messageLabel.setText("Hand aborted: " + failure.getMessage());
+            } else if (settled.getSeats().size() < 2) {
+                messageLabel.setText("Game over!");
+                return;
+            } else {
+                showGameResult(settled);
             }
-            
-            // Process AI action
-            processSingleAITurn();
             updateDisplay();
-            
-            // Add small delay for visibility
-            try {
-                Thread.sleep(1500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        
-        updateDisplay();
+            startHandLater(3000);
+        }));
     }
     
-    private void processSingleAITurn() {
-        Player aiPlayer = game.getCurrentPlayer();
-        if (aiPlayer == null || !aiPlayer.isAI()) {
+    private void showGameResult(TableSnapshot settled) {
+        TableSnapshot.Seat winner = settled.getWinner();
+        if (winner == null) {
             return;
         }
-        
-        // Get AI decision with random personality
-        double personality = 0.3 + (Math.random() * 0.6);
-        ai.PokerAI pokerAI = new ai.PokerAI(aiPlayer.getName(), personality);
-        ai.PokerAI.AIAction action = pokerAI.decideAction(
-            aiPlayer, 
-            game.getPlayers(), 
-            game.getCommunityCards(), 
-            game.getCurrentBetLevel() - aiPlayer.getCurrentBet(), 
-            game.getPot()
-        );
-        
-        // Process AI action
-        String actionStr = action.getAction();
-        int amount = 0;
-        if (actionStr.equals("call")) {
-            amount = (int) (game.getCurrentBetLevel() - aiPlayer.getCurrentBet());
-        } else if (actionStr.equals("check")) {
-            amount = 0;
-        } else if (actionStr.equals("raise")) {
-            amount = action.getAmount();
-        }
-        
-        String actionMessage = aiPlayer.getName() + " " + actionStr;
-        if (actionStr.equals("raise")) {
-            actionMessage += " " + amount;
+        String message = winner.getName() + " wins " + winner.getWinnings() + " chips!";
+        messageLabel.setText(message);
+        JOptionPane.showMessageDialog(this, 
+            winner.getName() + " wins with " + getHandDescription(settled, winner),
+            "Hand Complete",
+            JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    private String getHandDescription(TableSnapshot settled, TableSnapshot.Seat seat) {
+        if (seat.getHoleCards().size() < 2) {
+            return "cards unseen"; // an uncontested pot at a server table
         }
-        messageLabel.setText(actionMessage);
-        
-        game.processPlayerAction(actionStr, amount);
+        return HandEvaluator.describe(settled.getHandRank(seat));
     }
     
-    private void advanceGame() {
-        // Reset bets
-        game.resetBets();
-        
-        // Deal next community cards based on round
-        int round = game.getCurrentRound();
-        if (round == TexasHoldem.PRE_FLOP) {
-            game.dealFlop();
-            messageLabel.setText("Flop dealt! Betting round begins.");
-        } else if (round == TexasHoldem.FLOP) {
-            game.dealTurn();
-            messageLabel.setText("Turn dealt! Betting round begins.");
-        } else if (round == TexasHoldem.TURN) {
-            game.dealRiver();
-            messageLabel.setText("River dealt! Final betting round.");
-        } else if (round == TexasHoldem.RIVER) {
-            // Showdown
-            Player winner = game.determineWinner();
-            if (winner != null) {
-                game.distributePot(winner);
-                showGameResult(winner);
-            }
-            // Start new hand
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            game.startNewHand();
-            messageLabel.setText("New hand started!");
+    // Runs on the table's thread after every change; bursts of snapshots
+    // collapse into one repaint
+    private void onSnapshot(TableSnapshot snapshot) {
+        if (refreshPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                refreshPending.set(false);
+                tablePanel.repaint();
+                updateDisplay();
+            });
         }
-        
-        updateDisplay();
-        
-        // Continue game flow
-        SwingUtilities.invokeLater(() -> {
-            try {
-                Thread.sleep(1000);
-                processGameFlow();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        });
     }
     
-    private void showGameResult(Player winner) {
-        String message = winner.getName() + " wins the pot of " + game.getPot() + " chips!";
-        messageLabel.setText(message);
-        JOptionPane.showMessageDialog(this, 
-            winner.getName() + " wins with " + getHandDescription(winner),
-            "Hand Complete",
-            JOptionPane.INFORMATION_MESSAGE);
+    // Runs on the subscription thread; actions and streets are each reported on the EDT
+    private void onGameEvent(GameEvent event) {
+        int type = event.getType();
+        if (type == GameEvent.ACTION || type == GameEvent.STREET) {
+            int seat = event.getSeat();
+            int action = event.getAction();
+            int round = event.getRound();
+            long amount = event.getAmount();
+            SwingUtilities.invokeLater(() -> showEvent(type, seat, action, round, amount));
+        }
     }
     
-    private String getHandDescription(Player player) {
-        double strength = player.getHandStrength(game.getCommunityCards());
-        if (strength >= 0.95) {
-            if (strength >= 1.0) return "Royal Flush!";
-            return "Straight Flush";
+    private void showEvent(int type, int seat, int action, int round, long amount) {
+        if (type == GameEvent.STREET) {
+            if (round == TexasHoldem.FLOP) {
+                messageLabel.setText("Flop dealt! Betting round begins.");
+            } else if (round == TexasHoldem.TURN) {
+                messageLabel.setText("Turn dealt! Betting round begins.");
+            } else if (round == TexasHoldem.RIVER) {
+                messageLabel.setText("River dealt! Final betting round.");
+            }
+        } else {
+            TableSnapshot.Seat player = snapshot().getSeat(seat);
+            String message = (player != null ? player.getName() : "Seat " + seat) + " " + ACTION_NAMES[action];
+            if (amount > 0) {
+                message += " " + amount;
+            }
+            messageLabel.setText(message);
         }
-        if (strength >= 0.90) return "Four of a Kind";
-        if (strength >= 0.85) return "Full House";
-        if (strength >= 0.80) return "Flush";
-        if (strength >= 0.75) return "Straight";
-        if (strength >= 0.70) return "Three of a Kind";
-        if (strength >= 0.65) return "Two Pair";
-        if (strength >= 0.60) return "Pair";
-        return "High Card";
     }
     
     private void updateDisplay() {
-        // Repaint the table
-        tablePanel.repaint();
-        
         // Update buttons
-        Player currentPlayer = game.getCurrentPlayer();
-        if (currentPlayer != null && !currentPlayer.isAI()) {
-            double betToCall = game.getCurrentBetLevel() - currentPlayer.getCurrentBet();
+        TableSnapshot table = snapshot();
+        TableSnapshot.Seat currentPlayer = table.getCurrent();
+        if (human.isWaiting() && currentPlayer != null && !currentPlayer.isAI()) {
+            long betToCall = table.getBetLevel() - currentPlayer.getCurrentBet();
             
             foldButton.setEnabled(true);
             checkButton.setEnabled(betToCall == 0);
@@ -290,7 +286,7 @@ public class PokerGUI extends JFrame {
             raiseButton.setEnabled(currentPlayer.getChips() > 0);
             
             if (betToCall > 0) {
-                callButton.setText("Call (" + (int)betToCall + ")");
+                callButton.setText("Call (" + betToCall + ")");
             } else {
                 callButton.setText("Call");
             }
@@ -302,9 +298,44 @@ public class PokerGUI extends JFrame {
         }
     }
     
+    /**
+     * Usage: {@code java ui.PokerGUI [--connect HOST[:PORT]] [--table N] [--name NAME]};
+     * without {@code --connect} the game is played locally against AI opponents.
+     */
     public static void main(String[] args) {
+        String connect = null;
+        int table = 0;
+        String name = "You";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--connect": connect = args[i + 1]; break;
+                case "--table": table = Integer.parseInt(args[i + 1]); break;
+                case "--name": name = args[i + 1]; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        Metrics.start();
+        String server = connect;
+        int tableId = table;
+        String playerName = name;
         SwingUtilities.invokeLater(() -> {
-            PokerGUI gui = new PokerGUI();
+            PokerGUI gui;
+            if (server == null) {
+                gui = new PokerGUI();
+            } else {
+                int colon = server.lastIndexOf(':');
+                String host = colon < 0 ? server : server.substring(0, colon);
+                int port = colon < 0 ? Protocol.DEFAULT_PORT : Integer.parseInt(server.substring(colon + 1));
+                try {
+                    gui = new PokerGUI(host, port, tableId, playerName);
+                } catch (IOException e) {
+                    System.err.println("Cannot connect to " + server + ": " + e.getMessage());
+                    System.exit(1);
+                    return;
+                }
+            }
             gui.setVisible(true);
         });
     }
@@ -0,0 +1,97 @@
+package equity;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import model.Card;
+
+/**
+ * Read-only preflop equity table for the 169 distinct starting hands
+ * against 1 to {@value #MAX_OPPONENTS} random opponents.
+ *
+ * The table file is written offline by {@link PreflopTableGenerator} and
+ * memory-mapped once per JVM, so every table and thread shares the same
+ * pages and a lookup is a single read. The file location defaults to
+ * {@value #DEFAULT_FILE} in the working directory and can be changed with
+ * the {@code poker.preflopTable} system property.
+ */
+public final class PreflopTable {
+    public static final String DEFAULT_FILE = "preflop_equity.bin";
+    public static final int MAGIC = 0x50464551; // "PFEQ"
+    public static final int VERSION = 1;
+    public static final int HAND_CLASSES = 169;
+    public static final int MAX_OPPONENTS = 9;
+    public static final int HEADER_BYTES = 16;
+    public static final int FILE_BYTES = HEADER_BYTES + HAND_CLASSES * MAX_OPPONENTS * Float.BYTES;
+
+    private static final MappedByteBuffer TABLE = load();
+
+    private PreflopTable() {
+    }
+
+    private static MappedByteBuffer load() {
+        Path path = Paths.get(System.getProperty("poker.preflopTable", DEFAULT_FILE));
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != FILE_BYTES) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != HAND_CLASSES || buffer.getInt(12) != MAX_OPPONENTS) {
+                return null;
+            }
+            return buffer;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return TABLE != null;
+    }
+
+    /**
+     * Strategically distinct starting hand, 0..168: row-major over a 13x13
+     * rank grid with pairs on the diagonal, suited hands above it (high rank
+     * as row) and offsuit hands below it.
+     */
+    public static int handClass(Card a, Card b) {
+        int hi = Math.max(a.getRankIndex(), b.getRankIndex());
+        int lo = Math.min(a.getRankIndex(), b.getRankIndex());
+        if (a.getSuitIndex() == b.getSuitIndex()) {
+            return hi * Card.NUM_RANKS + lo;
+        }
+        return lo * Card.NUM_RANKS + hi;
+    }
+
+    public static int handClass(long holeCards) {
+        Card a = Card.fromMask(holeCards);
+        Card b = Card.fromMask(holeCards & (holeCards - 1));
+        return handClass(a, b);
+    }
+
+    static int offset(int handClass, int opponents) {
+        return HEADER_BYTES + (handClass * MAX_OPPONENTS + opponents - 1) * Float.BYTES;
+    }
+
+    /**
+     * Equity of the hole cards against {@code opponents} random hands, or
+     * NaN if no table is loaded. Opponent counts above the table are clamped.
+     */
+    public static double equity(long holeCards, int opponents) {
+        if (TABLE == null) {
+            return Double.NaN;
+        }
+        int n = Math.max(1, Math.min(MAX_OPPONENTS, opponents));
+        return TABLE.getFloat(offset(handClass(holeCards), n));
+    }
+}
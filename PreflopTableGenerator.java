@@ -0,0 +1,74 @@
+package equity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import model.Card;
+
+/**
+ * Offline generator for the {@link PreflopTable} file.
+ *
+ * Usage: {@code java equity.PreflopTableGenerator [file] [halfWidth] [seed]}
+ */
+public class PreflopTableGenerator {
+    private static final double DEFAULT_HALF_WIDTH = 0.002;
+    private static final long MAX_SAMPLES = 20_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : PreflopTable.DEFAULT_FILE);
+        double halfWidth = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_HALF_WIDTH;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        EquityCalculator calculator = new EquityCalculator(ForkJoinPool.commonPool(), new SplittableRandom(seed));
+        calculator.setTargetHalfWidth(halfWidth);
+
+        ByteBuffer out = ByteBuffer.allocate(PreflopTable.FILE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(PreflopTable.MAGIC);
+        out.putInt(PreflopTable.VERSION);
+        out.putInt(PreflopTable.HAND_CLASSES);
+        out.putInt(PreflopTable.MAX_OPPONENTS);
+
+        long start = System.currentTimeMillis();
+        for (int handClass = 0; handClass < PreflopTable.HAND_CLASSES; handClass++) {
+            long hole = representative(handClass);
+            for (int opponents = 1; opponents <= PreflopTable.MAX_OPPONENTS; opponents++) {
+                EquityResult result = calculator.equity(hole, 0L, opponents, MAX_SAMPLES, Long.MAX_VALUE);
+                out.putFloat(PreflopTable.offset(handClass, opponents), (float) result.getEquity());
+            }
+            System.out.printf("%3d/%d %-4s %.4f%n", handClass + 1, PreflopTable.HAND_CLASSES,
+                name(handClass), out.getFloat(PreflopTable.offset(handClass, 1)));
+        }
+        Files.write(path, out.array());
+        System.out.println("Wrote " + path + " in " + (System.currentTimeMillis() - start) / 1000 + "s");
+    }
+
+    /** A concrete two-card hand belonging to the class. */
+    static long representative(int handClass) {
+        int row = handClass / Card.NUM_RANKS;
+        int col = handClass % Card.NUM_RANKS;
+        if (row >= col) {
+            // Pair, or suited with the high rank as row
+            int suit = row == col ? 1 : 0;
+            return Card.of(row, 0).getMask() | Card.of(col, suit).getMask();
+        }
+        return Card.of(col, 0).getMask() | Card.of(row, 1).getMask();
+    }
+
+    static String name(int handClass) {
+        String ranks = "23456789TJQKA";
+        int row = handClass / Card.NUM_RANKS;
+        int col = handClass % Card.NUM_RANKS;
+        if (row == col) {
+            return "" + ranks.charAt(row) + ranks.charAt(col);
+        }
+        if (row > col) {
+            return "" + ranks.charAt(row) + ranks.charAt(col) + "s";
+        }
+        return "" + ranks.charAt(col) + ranks.charAt(row) + "o";
+    }
+}
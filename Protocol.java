@@ -0,0 +1,134 @@
+package net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format between {@link GameServer} and its clients.
+ *
+ * Every frame is a big-endian {@code u16} length, then a {@code u8} type,
+ * then the body; the length counts the type byte and the body. Frames are
+ * small and fixed-size apart from the names, which are at most 255 bytes of
+ * UTF-8 behind a {@code u8} length.
+ *
+ * <pre>
+ * client to server
+ *   JOIN    i32 table, u8 name length, name
+ *   ACT     u8 action (GameState code), i64 amount (raise size)
+ *   PING    i64 token
+ * server to client
+ *   SEATED  i32 table, u8 seat
+ *   PLAYER  u8 seat, i64 chips, u8 name length, name
+ *   EVENT   u8 type, u8 seat, u8 action, u8 round, i64 amount, i64 cards
+ *           (a GameEvent; seat 255 means none)
+ *   TURN    u8 seat, i64 to call, i64 pot, i32 timeout millis
+ *   PONG    i64 token
+ *   ERROR   u8 code
+ * </pre>
+ *
+ * A client joins one table per connection. It gets SEATED and a PLAYER
+ * frame for every seat when the next hand starts, then the table's events;
+ * hole cards (EVENT HOLE) go only to their owner. TURN goes to everyone,
+ * and the seat it names answers with ACT before the timeout. A PLAYER
+ * frame with 0 chips can also mean that the seat's player has left; the
+ * seat may then go to somebody else, announced by another PLAYER frame.
+ */
+public final class Protocol {
+    public static final int JOIN = 1;
+    public static final int ACT = 2;
+    public static final int PING = 3;
+
+    public static final int SEATED = 16;
+    public static final int PLAYER = 17;
+    public static final int EVENT = 18;
+    public static final int TURN = 19;
+    public static final int PONG = 20;
+    public static final int ERROR = 21;
+
+    public static final int TABLE_FULL = 1;
+    public static final int BAD_FRAME = 2;
+    public static final int ALREADY_JOINED = 3;
+    public static final int NO_SUCH_TABLE = 4;
+
+    public static final int DEFAULT_PORT = 7777;
+    public static final int NO_SEAT = 0xFF;
+    /** Largest frame including its length field. */
+    public static final int MAX_FRAME = 512;
+
+    static final int LENGTH_BYTES = 2;
+    static final int EVENT_BYTES = LENGTH_BYTES + 1 + 4 + 16;
+    static final int TURN_BYTES = LENGTH_BYTES + 1 + 1 + 16 + 4;
+
+    private Protocol() {
+    }
+
+    /** Length of the complete frame at the buffer's position, or -1 if it has not fully arrived. */
+    public static int frameLength(ByteBuffer in) {
+        if (in.remaining() < LENGTH_BYTES) {
+            return -1;
+        }
+        int length = LENGTH_BYTES + (in.getShort(in.position()) & 0xFFFF);
+        return in.remaining() >= length ? length : -1;
+    }
+
+    public static void putJoin(ByteBuffer out, int table, String name) {
+        byte[] bytes = nameBytes(name);
+        out.putShort((short) (1 + 4 + 1 + bytes.length));
+        out.put((byte) JOIN).putInt(table).put((byte) bytes.length).put(bytes);
+    }
+
+    public static void putAct(ByteBuffer out, int action, long amount) {
+        out.putShort((short) (1 + 1 + 8));
+        out.put((byte) ACT).put((byte) action).putLong(amount);
+    }
+
+    public static void putPing(ByteBuffer out, int type, long token) {
+        out.putShort((short) (1 + 8));
+        out.put((byte) type).putLong(token);
+    }
+
+    public static void putSeated(ByteBuffer out, int table, int seat) {
+        out.putShort((short) (1 + 4 + 1));
+        out.put((byte) SEATED).putInt(table).put((byte) seat);
+    }
+
+    public static void putPlayer(ByteBuffer out, int seat, long chips, byte[] name) {
+        out.putShort((short) (1 + 1 + 8 + 1 + name.length));
+        out.put((byte) PLAYER).put((byte) seat).putLong(chips).put((byte) name.length).put(name);
+    }
+
+    public static void putEvent(ByteBuffer out, int type, int seat, int action, int round, long amount, long cards) {
+        out.putShort((short) (EVENT_BYTES - LENGTH_BYTES));
+        out.put((byte) EVENT).put((byte) type).put((byte) seat).put((byte) action).put((byte) round)
+           .putLong(amount).putLong(cards);
+    }
+
+    public static void putTurn(ByteBuffer out, int seat, long toCall, long pot, int timeoutMillis) {
+        out.putShort((short) (TURN_BYTES - LENGTH_BYTES));
+        out.put((byte) TURN).put((byte) seat).putLong(toCall).putLong(pot).putInt(timeoutMillis);
+    }
+
+    public static void putError(ByteBuffer out, int code) {
+        out.putShort((short) (1 + 1));
+        out.put((byte) ERROR).put((byte) code);
+    }
+
+    /** UTF-8 bytes of a name, cut to the 255 bytes a frame can carry. */
+    public static byte[] nameBytes(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= 255) {
+            return bytes;
+        }
+        byte[] cut = new byte[255];
+        System.arraycopy(bytes, 0, cut, 0, cut.length);
+        return cut;
+    }
+
+    /** Reads a {@code u8}-prefixed name at the buffer's position. */
+    public static String getName(ByteBuffer in) {
+        int length = in.get() & 0xFF;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,37 @@
+package sim;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.random.RandomGenerator;
+import logic.AIAction;
+import logic.Agent;
+import logic.TableView;
+import logic.TexasHoldem;
+import model.Player;
+
+/**
+ * Picks uniformly between folding, calling (or checking) and a pot-sized raise.
+ */
+public class RandomAgent implements Agent {
+    private final RandomGenerator random;
+
+    public RandomAgent(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public CompletableFuture<AIAction> decide(TableView table, Player player) {
+        return CompletableFuture.completedFuture(choose(table, player));
+    }
+
+    private AIAction choose(TableView table, Player player) {
+        long toCall = table.getCurrentBetLevel() - player.getCurrentBet();
+        switch (random.nextInt(3)) {
+            case 0:
+                return toCall > 0 ? new AIAction("fold", 0) : new AIAction("check", 0);
+            case 1:
+                return toCall > 0 ? new AIAction("call", toCall) : new AIAction("check", 0);
+            default:
+                return new AIAction("raise", Math.min(Math.max(table.getPot(), TexasHoldem.BIG_BLIND), player.getChips()));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package equity;
+
+import java.util.Arrays;
+import model.Card;
+
+/**
+ * Weighted hand range over the 1326 two-card combinations.
+ *
+ * Combination {@code i} holds cards {@link #comboCard1(int)} and
+ * {@link #comboCard2(int)}; weights live in a flat float array indexed by
+ * combination so ranges are cheap to copy, intersect and sample.
+ *
+ * {@link #parse(String)} accepts the usual shorthand, comma separated:
+ * {@code QQ}, {@code QQ+}, {@code 22-55}, {@code AK}, {@code AKs},
+ * {@code KTo+}, {@code A2s+}, {@code K9s-K6s}, exact combos such as
+ * {@code AsKh}, {@code random}, and an optional {@code :weight} suffix.
+ */
+public class Range {
+    public static final int COMBOS = 1326;
+
+    private static final String RANKS = "23456789TJQKA";
+    private static final String SUITS = "shdc"; // same order as the Card suit indices
+
+    private static final byte[] CARD1 = new byte[COMBOS];
+    private static final byte[] CARD2 = new byte[COMBOS];
+    private static final long[] MASKS = new long[COMBOS];
+
+    static {
+        for (int c2 = 1; c2 < Card.NUM_CARDS; c2++) {
+            for (int c1 = 0; c1 < c2; c1++) {
+                int i = comboIndex(c1, c2);
+                CARD1[i] = (byte) c1;
+                CARD2[i] = (byte) c2;
+                MASKS[i] = (1L << c1) | (1L << c2);
+            }
+        }
+    }
+
+    private final float[] weights = new float[COMBOS];
+
+    public Range() {
+    }
+
+    public Range(Range other) {
+        System.arraycopy(other.weights, 0, weights, 0, COMBOS);
+    }
+
+    public static int comboIndex(int card1, int card2) {
+        int lo = Math.min(card1, card2);
+        int hi = Math.max(card1, card2);
+        return hi * (hi - 1) / 2 + lo;
+    }
+
+    public static int comboIndex(long holeCards) {
+        int lo = Long.numberOfTrailingZeros(holeCards);
+        int hi = 63 - Long.numberOfLeadingZeros(holeCards);
+        return comboIndex(lo, hi);
+    }
+
+    public static int comboCard1(int combo) {
+        return CARD1[combo];
+    }
+
+    public static int comboCard2(int combo) {
+        return CARD2[combo];
+    }
+
+    public static long comboMask(int combo) {
+        return MASKS[combo];
+    }
+
+    public float getWeight(int combo) {
+        return weights[combo];
+    }
+
+    public void setWeight(int combo, float weight) {
+        if (weight < 0f || weight > 1f) {
+            throw new IllegalArgumentException("Weight must be between 0 and 1: " + weight);
+        }
+        weights[combo] = weight;
+    }
+
+    public void clear() {
+        Arrays.fill(weights, 0f);
+    }
+
+    /** Number of combinations with a non-zero weight. */
+    public int size() {
+        int n = 0;
+        for (int i = 0; i < COMBOS; i++) {
+            if (weights[i] > 0f) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Sum of weights over combinations that do not touch the dead cards. */
+    public double totalWeight(long dead) {
+        double total = 0.0;
+        for (int i = 0; i < COMBOS; i++) {
+            if ((MASKS[i] & dead) == 0) {
+                total += weights[i];
+            }
+        }
+        return total;
+    }
+
+    /** Cumulative weights over live combinations, for sampling by binary search. */
+    float[] cumulativeWeights(long dead) {
+        float[] cdf = new float[COMBOS];
+        float sum = 0f;
+        for (int i = 0; i < COMBOS; i++) {
+            if ((MASKS[i] & dead) == 0) {
+                sum += weights[i];
+            }
+            cdf[i] = sum;
+        }
+        return cdf;
+    }
+
+    public static Range random() {
+        Range range = new Range();
+        Arrays.fill(range.weights, 1f);
+        return range;
+    }
+
+    public static Range parse(String text) {
+        Range range = new Range();
+        for (String part : text.split(",")) {
+            String token = part.trim();
+            if (!token.isEmpty()) {
+                range.add(token);
+            }
+        }
+        return range;
+    }
+
+    private void add(String token) {
+        float weight = 1f;
+        int colon = token.indexOf(':');
+        if (colon >= 0) {
+            try {
+                weight = Float.parseFloat(token.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad weight in range token: " + token);
+            }
+            if (weight < 0f || weight > 1f) {
+                throw new IllegalArgumentException("Weight must be between 0 and 1: " + token);
+            }
+            token = token.substring(0, colon);
+        }
+
+        if (token.equalsIgnoreCase("random") || token.equalsIgnoreCase("any")) {
+            Arrays.fill(weights, weight);
+            return;
+        }
+        if (token.length() == 4 && SUITS.indexOf(token.charAt(1)) >= 0 && SUITS.indexOf(token.charAt(3)) >= 0) {
+            int c1 = card(token, 0);
+            int c2 = card(token, 2);
+            if (c1 == c2) {
+                throw new IllegalArgumentException("Duplicate card in range token: " + token);
+            }
+            weights[comboIndex(c1, c2)] = weight;
+            return;
+        }
+
+        int dash = token.indexOf('-');
+        if (dash > 0) {
+            Shape from = shape(token.substring(0, dash), token);
+            Shape to = shape(token.substring(dash + 1), token);
+            if (from.suitedness != to.suitedness || (from.pair != to.pair)
+                    || (!from.pair && from.high != to.high)) {
+                throw new IllegalArgumentException("Mismatched range bounds: " + token);
+            }
+            int a = from.pair ? from.high : from.low;
+            int b = to.pair ? to.high : to.low;
+            for (int r = Math.min(a, b); r <= Math.max(a, b); r++) {
+                addShape(from.pair ? r : from.high, r, from.suitedness, weight);
+            }
+            return;
+        }
+
+        boolean plus = token.endsWith("+");
+        Shape shape = shape(plus ? token.substring(0, token.length() - 1) : token, token);
+        if (!plus) {
+            addShape(shape.high, shape.low, shape.suitedness, weight);
+        } else if (shape.pair) {
+            for (int r = shape.high; r < Card.NUM_RANKS; r++) {
+                addShape(r, r, shape.suitedness, weight);
+            }
+        } else {
+            for (int r = shape.low; r < shape.high; r++) {
+                addShape(shape.high, r, shape.suitedness, weight);
+            }
+        }
+    }
+
+    private static int card(String token, int at) {
+        int rank = RANKS.indexOf(Character.toUpperCase(token.charAt(at)));
+        int suit = SUITS.indexOf(token.charAt(at + 1));
+        if (rank < 0 || suit < 0) {
+            throw new IllegalArgumentException("Bad card in range token: " + token);
+        }
+        return Card.of(rank, suit).getIndex();
+    }
+
+    // suitedness: 's' suited only, 'o' offsuit only, ' ' both
+    private void addShape(int high, int low, char suitedness, float weight) {
+        for (int s1 = 0; s1 < Card.NUM_SUITS; s1++) {
+            for (int s2 = 0; s2 < Card.NUM_SUITS; s2++) {
+                if (high == low && s2 <= s1) {
+                    continue;
+                }
+                if ((suitedness == 's' && s1 != s2) || (suitedness == 'o' && s1 == s2)) {
+                    continue;
+                }
+                int c1 = Card.of(high, s1).getIndex();
+                int c2 = Card.of(low, s2).getIndex();
+                weights[comboIndex(c1, c2)] = weight;
+            }
+        }
+    }
+
+    private static class Shape {
+        int high;
+        int low;
+        boolean pair;
+        char suitedness = ' ';
+    }
+
+    private static Shape shape(String text, String token) {
+        if (text.length() < 2 || text.length() > 3) {
+            throw new IllegalArgumentException("Bad range token: " + token);
+        }
+        int r1 = RANKS.indexOf(Character.toUpperCase(text.charAt(0)));
+        int r2 = RANKS.indexOf(Character.toUpperCase(text.charAt(1)));
+        if (r1 < 0 || r2 < 0) {
+            throw new IllegalArgumentException("Bad rank in range token: " + token);
+        }
+        Shape shape = new Shape();
+        shape.high = Math.max(r1, r2);
+        shape.low = Math.min(r1, r2);
+        shape.pair = r1 == r2;
+        if (text.length() == 3) {
+            char c = Character.toLowerCase(text.charAt(2));
+            if ((c != 's' && c != 'o') || shape.pair) {
+                throw new IllegalArgumentException("Bad suitedness in range token: " + token);
+            }
+            shape.suitedness = c;
+        }
+        return shape;
+    }
+}
@@ -0,0 +1,263 @@
+package equity;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import model.HandEvaluator;
+
+/**
+ * Equity between weighted hand ranges.
+ *
+ * Monte Carlo queries draw a hero combination and one combination per
+ * villain in proportion to their weights, redrawing the whole deal when
+ * any two holdings collide (card removal), then complete the board. Sampling
+ * runs on the {@link EquityCalculator}'s fork/join pool with the same
+ * stopping rules. Ranges that cannot be dealt together at all are rejected
+ * up front, and a query whose deals keep colliding fails instead of
+ * sampling forever. Heads-up river spots can be enumerated exactly.
+ */
+public class RangeEquity {
+    private static final int MAX_REJECTIONS = 64;
+    private static final int MAX_DEAL_CHECKS = 1_000_000;
+
+    private final EquityCalculator calculator;
+
+    public RangeEquity() {
+        this(new EquityCalculator());
+    }
+
+    public RangeEquity(EquityCalculator calculator) {
+        this.calculator = calculator;
+    }
+
+    public EquityResult equity(String heroRange, String villainRange, long board, long maxSamples) {
+        return equity(Range.parse(heroRange), new Range[] {Range.parse(villainRange)}, board, maxSamples, Long.MAX_VALUE);
+    }
+
+    /** Equity of known hole cards against {@code numVillains} opponents holding the same range. */
+    public EquityResult equity(long holeCards, Range villainRange, int numVillains, long board,
+                               long maxSamples, long budgetNanos) {
+        Range hero = new Range();
+        hero.setWeight(Range.comboIndex(holeCards), 1f);
+        Range[] villains = new Range[numVillains];
+        for (int i = 0; i < numVillains; i++) {
+            villains[i] = villainRange;
+        }
+        return equity(hero, villains, board, maxSamples, budgetNanos);
+    }
+
+    public EquityResult equity(Range hero, Range[] villains, long board, long maxSamples, long budgetNanos) {
+        if (villains.length < 1 || Long.bitCount(board) > 5) {
+            throw new IllegalArgumentException("Invalid range equity query");
+        }
+        if (hero.totalWeight(board) <= 0.0) {
+            throw new IllegalArgumentException("Hero range is empty on this board");
+        }
+        for (Range villain : villains) {
+            if (villain.totalWeight(board) <= 0.0) {
+                throw new IllegalArgumentException("Villain range is empty on this board");
+            }
+        }
+        if (!canDeal(hero, villains, board)) {
+            throw new IllegalArgumentException("Ranges cannot be dealt together on this board");
+        }
+        return calculator.run(new RangeSampler(hero, villains, board, 0, 0, null), maxSamples, budgetNanos);
+    }
+
+    /**
+     * Whether every range can be dealt a holding at once without sharing a
+     * card, by a depth-first search over the live combinations, smallest
+     * range first. After {@value #MAX_DEAL_CHECKS} combinations it gives up
+     * and answers yes; the sampler still fails if deals keep colliding.
+     */
+    static boolean canDeal(Range hero, Range[] villains, long board) {
+        int[][] live = new int[villains.length + 1][];
+        live[0] = liveCombos(hero, board);
+        for (int i = 0; i < villains.length; i++) {
+            live[i + 1] = liveCombos(villains[i], board);
+        }
+        Arrays.sort(live, Comparator.comparingInt(combos -> combos.length));
+        return canDeal(live, 0, board, new int[] {MAX_DEAL_CHECKS});
+    }
+
+    private static boolean canDeal(int[][] live, int next, long dead, int[] checks) {
+        if (next == live.length) {
+            return true;
+        }
+        for (int combo : live[next]) {
+            if (--checks[0] < 0) {
+                return true;
+            }
+            long mask = Range.comboMask(combo);
+            if ((mask & dead) == 0 && canDeal(live, next + 1, dead | mask, checks)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] liveCombos(Range range, long dead) {
+        int[] combos = new int[Range.COMBOS];
+        int n = 0;
+        for (int i = 0; i < Range.COMBOS; i++) {
+            if (range.getWeight(i) > 0f && (Range.comboMask(i) & dead) == 0) {
+                combos[n++] = i;
+            }
+        }
+        return Arrays.copyOf(combos, n);
+    }
+
+    /**
+     * Exact heads-up equity on a complete board: every live pair of hero and
+     * villain combinations, weighted by the product of their weights.
+     */
+    public EquityResult exactRiver(Range hero, Range villain, long board) {
+        if (Long.bitCount(board) != 5) {
+            throw new IllegalArgumentException("Exact range equity needs a complete board");
+        }
+        int[] ranks = new int[Range.COMBOS];
+        for (int i = 0; i < Range.COMBOS; i++) {
+            long mask = Range.comboMask(i);
+            if ((mask & board) == 0) {
+                ranks[i] = HandEvaluator.evaluate(mask | board);
+            }
+        }
+        double win = 0.0;
+        double tie = 0.0;
+        double total = 0.0;
+        long pairs = 0;
+        for (int h = 0; h < Range.COMBOS; h++) {
+            float hw = hero.getWeight(h);
+            long hm = Range.comboMask(h);
+            if (hw == 0f || (hm & board) != 0) {
+                continue;
+            }
+            for (int v = 0; v < Range.COMBOS; v++) {
+                float vw = villain.getWeight(v);
+                long vm = Range.comboMask(v);
+                if (vw == 0f || ((vm & (board | hm)) != 0)) {
+                    continue;
+                }
+                double w = (double) hw * vw;
+                total += w;
+                pairs++;
+                if (ranks[h] > ranks[v]) {
+                    win += w;
+                } else if (ranks[h] == ranks[v]) {
+                    tie += w;
+                }
+            }
+        }
+        if (total == 0.0) {
+            throw new IllegalArgumentException("Ranges do not overlap any live combinations");
+        }
+        return new EquityResult(pairs, win / total, tie / total, (total - win - tie) / total,
+                                (win + tie / 2) / total, 0.0);
+    }
+
+    private static class RangeSampler extends SampleTask {
+        private static final long serialVersionUID = 1L;
+
+        private final Range hero;
+        private final Range[] villains;
+        private final long board;
+        private float[] heroCdf;
+        private float[][] villainCdfs;
+        private long[] villainHoles;
+        private int[] live;
+        private int missing;
+
+        RangeSampler(Range hero, Range[] villains, long board, long samples, long deadline, SplittableRandom random) {
+            super(samples, deadline, random);
+            this.hero = hero;
+            this.villains = villains;
+            this.board = board;
+        }
+
+        @Override
+        SampleTask child(long samples, long deadline, SplittableRandom random) {
+            return new RangeSampler(hero, villains, board, samples, deadline, random);
+        }
+
+        @Override
+        void prepare() {
+            heroCdf = hero.cumulativeWeights(board);
+            villainCdfs = new float[villains.length][];
+            for (int i = 0; i < villains.length; i++) {
+                villainCdfs[i] = villains[i].cumulativeWeights(board);
+            }
+            villainHoles = new long[villains.length];
+            live = EquityCalculator.liveCards(board);
+            missing = 5 - Long.bitCount(board);
+        }
+
+        @Override
+        void sampleOnce(Tally tally) {
+            // Rejection over the whole deal keeps the joint distribution of
+            // holdings exact under card removal
+            long heroHole = 0L;
+            long dead = 0L;
+            boolean dealt = false;
+            for (int attempt = 0; attempt < MAX_REJECTIONS && !dealt; attempt++) {
+                heroHole = Range.comboMask(pick(heroCdf));
+                dead = board | heroHole;
+                dealt = true;
+                for (int v = 0; v < villains.length; v++) {
+                    long hole = Range.comboMask(pick(villainCdfs[v]));
+                    if ((hole & dead) != 0) {
+                        dealt = false;
+                        break;
+                    }
+                    villainHoles[v] = hole;
+                    dead |= hole;
+                }
+            }
+            if (!dealt) {
+                // Ranges too entangled with each other; counted so a query
+                // that never deals fails instead of running on
+                tally.rejected++;
+                return;
+            }
+
+            // Complete the board from live cards, skipping those held by players
+            long runout = board;
+            int drawn = 0;
+            for (int i = 0; i < missing; ) {
+                int card = draw(live, live.length, drawn++);
+                if ((dead & (1L << card)) == 0) {
+                    runout |= 1L << card;
+                    i++;
+                }
+            }
+
+            int heroRank = HandEvaluator.evaluate(heroHole | runout);
+            int best = Integer.MIN_VALUE;
+            int atBest = 0;
+            for (int v = 0; v < villains.length; v++) {
+                int rank = HandEvaluator.evaluate(villainHoles[v] | runout);
+                if (rank > best) {
+                    best = rank;
+                    atBest = 1;
+                } else if (rank == best) {
+                    atBest++;
+                }
+            }
+            tally.record(heroRank, best, atBest);
+        }
+
+        private int pick(float[] cdf) {
+            float u = random.nextFloat() * cdf[cdf.length - 1];
+            int lo = 0;
+            int hi = cdf.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cdf[mid] > u) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+    }
+}
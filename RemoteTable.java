@@ -0,0 +1,390 @@
+package net;
+
+import event.EventBus;
+import event.GameEvent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import logic.AIAction;
+import logic.Agent;
+import logic.GameState;
+import logic.TableSnapshot;
+import logic.TableView;
+import logic.TexasHoldem;
+import model.Card;
+import model.Player;
+import model.TableState;
+
+/**
+ * Client side of one seat at a {@link GameServer} table.
+ *
+ * The table is mirrored from the server's frames into ordinary
+ * {@link Player} objects, so the GUI and agents can read it like a local
+ * {@link TexasHoldem}; the events are re-published on this table's own
+ * {@link EventBus}. When the server asks this seat to act, the local
+ * {@link Agent} decides and its answer is sent back, so a person, an AI or
+ * a script can play remotely exactly as they would locally.
+ *
+ * A reader thread decodes the frames and applies them on the given
+ * executor (the EDT for a GUI), which is the only thread that may read the
+ * mirror; other threads read the {@link TableSnapshot} published after
+ * every frame.
+ */
+public class RemoteTable implements TableView {
+    private final SocketChannel channel;
+    private final Agent agent;
+    private final Executor executor;
+    private final EventBus events = new EventBus();
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(Protocol.MAX_FRAME); // guarded by itself
+    private volatile boolean closed;
+    private volatile int error;
+    private volatile TableSnapshot snapshot = TableSnapshot.EMPTY;
+    private volatile Consumer<TableSnapshot> snapshotListener;
+
+    // The mirror, confined to the executor
+    private final ArrayList<Player> players = new ArrayList<>();
+    private final Player[] bySeat = new Player[TableState.MAX_SEATS];
+    private final long[] winnings = new long[TableState.MAX_SEATS];
+    private final ArrayList<Card> communityCards = new ArrayList<>();
+    private long communityMask;
+    private long pot;
+    private long betLevel;
+    private int round;
+    private int currentSeat = -1;
+    private int tableId;
+    private int seat = -1;
+    private long handNumber;
+    private CompletableFuture<AIAction> decision; // our agent's answer in the making
+
+    public RemoteTable(String host, int port, int tableId, String name, Agent agent, Executor executor)
+            throws IOException {
+        this.agent = agent;
+        this.executor = executor;
+        this.tableId = tableId;
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        synchronized (sendBuffer) {
+            sendBuffer.clear();
+            Protocol.putJoin(sendBuffer, tableId, name);
+            send();
+        }
+        Thread reader = new Thread(this::readFrames, "remote-table-" + tableId);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void readFrames() {
+        ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                int length;
+                while ((length = Protocol.frameLength(in)) > 0) {
+                    int end = in.position() + length;
+                    in.position(in.position() + Protocol.LENGTH_BYTES);
+                    decode(in);
+                    in.position(end);
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            // Closed by either side
+        }
+        closed = true;
+    }
+
+    // Reads one frame's fields on the reader thread and applies them on the executor
+    private void decode(ByteBuffer in) {
+        switch (in.get() & 0xFF) {
+            case Protocol.SEATED: {
+                int table = in.getInt();
+                int mySeat = in.get() & 0xFF;
+                executor.execute(() -> {
+                    tableId = table;
+                    seat = mySeat;
+                    publishSnapshot();
+                });
+                break;
+            }
+            case Protocol.PLAYER: {
+                int playerSeat = in.get() & 0xFF;
+                long chips = in.getLong();
+                String name = Protocol.getName(in);
+                executor.execute(() -> onPlayer(playerSeat, chips, name));
+                break;
+            }
+            case Protocol.EVENT: {
+                int type = in.get() & 0xFF;
+                int eventSeat = in.get() & 0xFF;
+                int action = in.get() & 0xFF;
+                int eventRound = in.get() & 0xFF;
+                long amount = in.getLong();
+                long cards = in.getLong();
+                executor.execute(() -> onEvent(type, eventSeat == Protocol.NO_SEAT ? -1 : eventSeat, action,
+                                               eventRound, amount, cards));
+                break;
+            }
+            case Protocol.TURN: {
+                int turnSeat = in.get() & 0xFF;
+                executor.execute(() -> onTurn(turnSeat));
+                break;
+            }
+            case Protocol.ERROR:
+                error = in.get() & 0xFF;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onPlayer(int playerSeat, long chips, String name) {
+        Player player = bySeat[playerSeat];
+        // 0 chips may mean the player has left; anybody else on that seat is a newcomer
+        boolean stays = player != null && (chips == 0 || players.contains(player) && player.getName().equals(name));
+        if (!stays) {
+            players.remove(player);
+            // Only our own cards are ever face up
+            player = new Player(name, chips, playerSeat != seat);
+            player.setPosition(playerSeat);
+            bySeat[playerSeat] = player;
+            int index = 0;
+            while (index < players.size() && players.get(index).getPosition() < playerSeat) {
+                index++;
+            }
+            players.add(index, player);
+        } else {
+            player.getTableState().setChips(player.getSeat(), chips);
+        }
+        publishSnapshot();
+    }
+
+    private void onEvent(int type, int eventSeat, int action, int eventRound, long amount, long cards) {
+        Player player = eventSeat >= 0 ? bySeat[eventSeat] : null;
+        switch (type) {
+            case GameEvent.HAND_START:
+                handNumber = amount;
+                players.removeIf(p -> !p.hasChips());
+                for (Player p : players) {
+                    p.newHand();
+                }
+                communityCards.clear();
+                communityMask = 0L;
+                pot = 0;
+                betLevel = 0;
+                round = TexasHoldem.PRE_FLOP;
+                currentSeat = -1;
+                Arrays.fill(winnings, 0);
+                break;
+            case GameEvent.BLIND:
+            case GameEvent.ACTION:
+                if (player != null) {
+                    if (type == GameEvent.ACTION && action == GameState.FOLD) {
+                        player.fold();
+                    } else if (amount > 0) {
+                        player.bet(amount);
+                    }
+                    betLevel = Math.max(betLevel, player.getCurrentBet());
+                }
+                pot += amount;
+                if (type == GameEvent.ACTION) {
+                    currentSeat = -1;
+                    if (eventSeat == seat) {
+                        abandonDecision();
+                    }
+                }
+                break;
+            case GameEvent.STREET:
+                round = eventRound;
+                betLevel = 0;
+                for (Player p : players) {
+                    p.resetBet();
+                }
+                for (long rest = cards & ~communityMask; rest != 0; rest &= rest - 1) {
+                    communityCards.add(Card.get(Long.numberOfTrailingZeros(rest)));
+                }
+                communityMask = cards;
+                break;
+            case GameEvent.HOLE:
+            case GameEvent.SHOWDOWN:
+                if (player != null && player.getHand().size() == 0) {
+                    for (long rest = cards; rest != 0; rest &= rest - 1) {
+                        player.dealCard(Card.get(Long.numberOfTrailingZeros(rest)));
+                    }
+                }
+                if (type == GameEvent.SHOWDOWN) {
+                    round = TexasHoldem.SHOWDOWN;
+                }
+                break;
+            case GameEvent.POT_AWARDED:
+                if (player != null) {
+                    player.winPot(amount);
+                    winnings[eventSeat] = amount;
+                }
+                break;
+            case GameEvent.HAND_END:
+                pot = 0;
+                betLevel = 0;
+                currentSeat = -1;
+                for (Player p : players) {
+                    p.resetBet();
+                }
+                abandonDecision();
+                break;
+            default:
+                break;
+        }
+        // Listeners get the event only once the snapshot shows its effect
+        publishSnapshot();
+        events.publish(type, tableId, handNumber, eventSeat, action, eventRound, amount, cards);
+    }
+
+    private void onTurn(int turnSeat) {
+        currentSeat = turnSeat;
+        publishSnapshot();
+        Player me = bySeat[turnSeat];
+        if (turnSeat != seat || me == null) {
+            return;
+        }
+        abandonDecision();
+        CompletableFuture<AIAction> pending = agent.decide(this, me);
+        decision = pending;
+        pending.whenComplete((action, failure) -> {
+            if (failure == null && action != null) {
+                act(action.getAction(), action.getAmount());
+            }
+        });
+    }
+
+    private void publishSnapshot() {
+        TableSnapshot latest = TableSnapshot.of(this);
+        snapshot = latest;
+        Consumer<TableSnapshot> listener = snapshotListener;
+        if (listener != null) {
+            listener.accept(latest);
+        }
+    }
+
+    // The server moved on (it timed us out), so a late answer is pointless
+    private void abandonDecision() {
+        if (decision != null) {
+            decision.cancel(false);
+            decision = null;
+        }
+    }
+
+    private void act(String action, long amount) {
+        synchronized (sendBuffer) {
+            sendBuffer.clear();
+            Protocol.putAct(sendBuffer, GameState.actionCode(action), amount);
+            try {
+                send();
+            } catch (IOException e) {
+                closed = true;
+            }
+        }
+    }
+
+    // Caller holds the sendBuffer lock
+    private void send() throws IOException {
+        sendBuffer.flip();
+        while (sendBuffer.hasRemaining()) {
+            channel.write(sendBuffer);
+        }
+    }
+
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+        events.close();
+    }
+
+    /** Events of the mirrored table, published from the executor. */
+    public EventBus getEventBus() {
+        return events;
+    }
+
+    /** The mirror as of the last frame. */
+    public TableSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Told about every new snapshot, on the executor. */
+    public void setSnapshotListener(Consumer<TableSnapshot> listener) {
+        this.snapshotListener = listener;
+    }
+
+    public boolean isConnected() {
+        return !closed;
+    }
+
+    /** The {@link Protocol} error code the server sent, 0 if none. */
+    public int getError() {
+        return error;
+    }
+
+    /** Our seat, -1 until the server has seated us. */
+    public int getSeat() {
+        return seat;
+    }
+
+    @Override
+    public int getTableId() {
+        return tableId;
+    }
+
+    @Override
+    public ArrayList<Player> getPlayers() {
+        return players;
+    }
+
+    @Override
+    public ArrayList<Card> getCommunityCards() {
+        return communityCards;
+    }
+
+    @Override
+    public long getHandNumber() {
+        return handNumber;
+    }
+
+    @Override
+    public long getPot() {
+        return pot;
+    }
+
+    @Override
+    public int getCurrentRound() {
+        return round;
+    }
+
+    @Override
+    public long getCurrentBetLevel() {
+        return betLevel;
+    }
+
+    @Override
+    public Player getCurrentPlayer() {
+        return currentSeat >= 0 ? bySeat[currentSeat] : null;
+    }
+
+    @Override
+    public Player getPlayerAt(int playerSeat) {
+        return bySeat[playerSeat];
+    }
+
+    @Override
+    public long getWinnings(Player player) {
+        return winnings[player.getPosition()];
+    }
+}
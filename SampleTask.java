@@ -0,0 +1,66 @@
+package equity;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task that draws a number of Monte Carlo samples into a
+ * {@link Tally}. Large tasks split in half, giving the forked half a new
+ * stream split off this task's generator, so no random state is shared.
+ */
+abstract class SampleTask extends RecursiveTask<Tally> {
+    private static final long serialVersionUID = 1L;
+
+    static final long LEAF_SAMPLES = 4_096;
+    private static final int DEADLINE_CHECK_MASK = 1023;
+
+    final long samples;
+    final long deadline;
+    final SplittableRandom random;
+
+    SampleTask(long samples, long deadline, SplittableRandom random) {
+        this.samples = samples;
+        this.deadline = deadline;
+        this.random = random;
+    }
+
+    /** Same query with a different sample count, deadline and stream. */
+    abstract SampleTask child(long samples, long deadline, SplittableRandom random);
+
+    /** Prepares per-leaf scratch state; called once before sampling. */
+    abstract void prepare();
+
+    /** Draws one sample into the tally. */
+    abstract void sampleOnce(Tally tally);
+
+    @Override
+    protected Tally compute() {
+        if (samples > LEAF_SAMPLES) {
+            long half = samples / 2;
+            SampleTask left = child(half, deadline, random.split());
+            SampleTask right = child(samples - half, deadline, random);
+            left.fork();
+            Tally tally = right.compute();
+            tally.merge(left.join());
+            return tally;
+        }
+        Tally tally = new Tally();
+        prepare();
+        for (long n = 0; n < samples; n++) {
+            if ((n & DEADLINE_CHECK_MASK) == DEADLINE_CHECK_MASK && System.nanoTime() >= deadline) {
+                break;
+            }
+            sampleOnce(tally);
+        }
+        return tally;
+    }
+
+    /** Swaps a random card from live[drawn..liveCount) into live[drawn] and returns it. */
+    final int draw(int[] live, int liveCount, int drawn) {
+        int j = drawn + random.nextInt(liveCount - drawn);
+        int card = live[j];
+        live[j] = live[drawn];
+        live[drawn] = card;
+        return card;
+    }
+}
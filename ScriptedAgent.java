@@ -0,0 +1,59 @@
+package sim;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import logic.AIAction;
+import logic.Agent;
+import logic.TableView;
+import model.Player;
+
+/**
+ * Plays a fixed script of actions, one per decision, such as
+ * {@code "call,raise 60,check,fold"}; once the script runs out it checks
+ * or folds. With a delay every answer arrives that much later, which makes
+ * it handy for exercising decision deadlines.
+ */
+public class ScriptedAgent implements Agent {
+    private final String[] actions;
+    private final long[] amounts;
+    private final Executor delay; // null = answer at once
+    private int next;
+
+    public ScriptedAgent(String script) {
+        this(script, 0);
+    }
+
+    public ScriptedAgent(String script, long delayMillis) {
+        String[] steps = script.isBlank() ? new String[0] : script.split(",");
+        actions = new String[steps.length];
+        amounts = new long[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            String[] parts = steps[i].trim().split("\\s+");
+            actions[i] = parts[0];
+            amounts[i] = parts.length > 1 ? Long.parseLong(parts[1]) : 0;
+        }
+        delay = delayMillis > 0 ? CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS) : null;
+    }
+
+    @Override
+    public CompletableFuture<AIAction> decide(TableView table, Player player) {
+        AIAction action;
+        if (next < actions.length) {
+            action = new AIAction(actions[next], amounts[next]);
+            next++;
+        } else {
+            long toCall = table.getCurrentBetLevel() - player.getCurrentBet();
+            action = new AIAction(toCall > 0 ? "fold" : "check", 0);
+        }
+        if (delay == null) {
+            return CompletableFuture.completedFuture(action);
+        }
+        return CompletableFuture.supplyAsync(() -> action, delay);
+    }
+
+    /** Script steps not played yet. */
+    public int getRemaining() {
+        return actions.length - next;
+    }
+}
@@ -0,0 +1,44 @@
+package logic;
+
+import java.util.SplittableRandom;
+import model.SplitMix64;
+
+/**
+ * Derives independent, reproducible random streams from one root seed.
+ *
+ * Seeds are a pure function of their coordinates: table t always gets the
+ * same seed, and hand h at table t always gets the same deal, no matter how
+ * many tables ran, in what order, or on which thread. Any single hand of a
+ * large run can therefore be regenerated from (root seed, table, hand).
+ */
+public final class SeedTree {
+    private static final long TABLE_SALT = 0x5DEECE66DL;
+    private static final long HAND_SALT = 0xD1B54A32D192ED03L;
+
+    private final long rootSeed;
+
+    public SeedTree(long rootSeed) {
+        this.rootSeed = rootSeed;
+    }
+
+    public long getRootSeed() {
+        return rootSeed;
+    }
+
+    public long tableSeed(int table) {
+        return SplitMix64.mix(rootSeed ^ SplitMix64.mix(TABLE_SALT + table));
+    }
+
+    public long handSeed(int table, long hand) {
+        return SplitMix64.mix(tableSeed(table) ^ SplitMix64.mix(HAND_SALT + hand));
+    }
+
+    /** Random stream for table-level decisions; {@code split()} it to fan out further. */
+    public SplittableRandom tableRandom(int table) {
+        return new SplittableRandom(tableSeed(table));
+    }
+
+    public SplittableRandom handRandom(int table, long hand) {
+        return new SplittableRandom(handSeed(table, hand));
+    }
+}
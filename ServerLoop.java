@@ -0,0 +1,365 @@
+package net;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One selector thread of a {@link GameServer}. It owns a share of the
+ * tables together with every connection seated at them, so a table and its
+ * clients are only ever touched by this thread: reading an ACT, applying it
+ * to the table and encoding the resulting events happen back to back with
+ * no locks. A connection that joins a table owned by another loop is handed
+ * over to that loop.
+ *
+ * Other threads (decision deadlines, other loops) reach the loop through
+ * {@link #execute}, which wakes the selector at most once per batch.
+ */
+final class ServerLoop implements Executor, Runnable {
+    // Bounds the tasks run per turn so I/O is never starved
+    private static final int MAX_TASKS_PER_TURN = 1024;
+
+    private final GameServer server;
+    private final Selector selector;
+    private final Thread thread;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final ArrayList<Connection> dirty = new ArrayList<>();
+    private final HashMap<Integer, ServerTable> tables = new HashMap<>();
+    // Hands dealt by dropped tables, so a table started afresh never deals them again
+    private final HashMap<Integer, Long> droppedHands = new HashMap<>();
+    private volatile boolean running = true;
+    private volatile int connectionCount;
+    private volatile int tableCount;
+
+    ServerLoop(GameServer server, int index) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.thread = new Thread(this, "server-loop-" + index);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void listen(ServerSocketChannel channel) throws IOException {
+        channel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                // Cleared before looking at the queue, so a task added from
+                // here on either wakes the selector or is seen below
+                wakeupPending.set(false);
+                if (tasks.isEmpty()) {
+                    selector.select();
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                runTasks();
+                flushDirty();
+            } catch (IOException e) {
+                System.err.println(thread.getName() + ": " + e);
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                close((Connection) key.attachment());
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Shutting down anyway
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept((ServerSocketChannel) key.channel());
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isWritable()) {
+                connection.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(connection);
+            }
+        } catch (RuntimeException e) {
+            // A bug on one connection must not take the loop and its tables down
+            System.err.println(thread.getName() + ": dropping connection: " + e);
+            close(connection);
+        }
+    }
+
+    private void accept(ServerSocketChannel channel) throws IOException {
+        SocketChannel socket;
+        while ((socket = channel.accept()) != null) {
+            socket.configureBlocking(false);
+            socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(socket);
+            ServerLoop target = server.nextLoop();
+            if (target == this) {
+                register(connection);
+            } else {
+                target.execute(() -> target.register(connection));
+            }
+        }
+    }
+
+    private void register(Connection connection) {
+        connection.loop = this;
+        int ops = connection.out.position() == 0 ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+        try {
+            connection.key = connection.channel.register(selector, ops, connection);
+        } catch (IOException e) {
+            connection.closed = true;
+            closeQuietly(connection);
+            return;
+        }
+        connectionCount++;
+    }
+
+    private void read(Connection connection) {
+        int n;
+        try {
+            n = connection.channel.read(connection.in);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            close(connection);
+            return;
+        }
+        connection.in.flip();
+        parse(connection);
+    }
+
+    // Handles every complete frame in the inbound buffer, which is in read mode
+    private void parse(Connection connection) {
+        ByteBuffer in = connection.in;
+        while (!connection.closed && in.remaining() >= Protocol.LENGTH_BYTES) {
+            int start = in.position();
+            int length = Protocol.LENGTH_BYTES + (in.getShort(start) & 0xFFFF);
+            if (length > Protocol.MAX_FRAME || length == Protocol.LENGTH_BYTES) {
+                reject(connection, Protocol.BAD_FRAME);
+                return;
+            }
+            if (in.remaining() < length) {
+                break;
+            }
+            in.position(start + Protocol.LENGTH_BYTES);
+            int type = in.get() & 0xFF;
+            if (length != expectedLength(type, in)) {
+                reject(connection, Protocol.BAD_FRAME);
+                return;
+            }
+            if (type == Protocol.JOIN) {
+                int tableId = in.getInt();
+                String name = Protocol.getName(in);
+                in.position(start + length);
+                if (connection.table != null) {
+                    reject(connection, Protocol.ALREADY_JOINED);
+                    return;
+                }
+                if (tableId < 0 || tableId >= server.getMaxTables()) {
+                    reject(connection, Protocol.NO_SUCH_TABLE);
+                    return;
+                }
+                ServerLoop owner = server.loopFor(tableId);
+                if (owner != this) {
+                    handOver(connection, owner, tableId, name);
+                    return;
+                }
+                join(connection, tableId, name);
+                continue;
+            }
+            switch (type) {
+                case Protocol.ACT: {
+                    int action = in.get() & 0xFF;
+                    long amount = in.getLong();
+                    if (connection.table != null) {
+                        connection.table.act(connection, action, amount);
+                    }
+                    break;
+                }
+                case Protocol.PING: {
+                    long token = in.getLong();
+                    ByteBuffer out = connection.reserve(Protocol.LENGTH_BYTES + 9);
+                    if (out != null) {
+                        Protocol.putPing(out, Protocol.PONG, token);
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+            in.position(start + length);
+        }
+        if (!connection.closed) {
+            in.compact();
+        }
+    }
+
+    // Frame length a client frame of this type must have, -1 for unknown types;
+    // the buffer is positioned just after the type byte
+    private static int expectedLength(int type, ByteBuffer in) {
+        switch (type) {
+            case Protocol.JOIN:
+                int nameAt = in.position() + 4;
+                return nameAt < in.limit() ? Protocol.LENGTH_BYTES + 1 + 4 + 1 + (in.get(nameAt) & 0xFF) : -1;
+            case Protocol.ACT:
+                return Protocol.LENGTH_BYTES + 1 + 1 + 8;
+            case Protocol.PING:
+                return Protocol.LENGTH_BYTES + 1 + 8;
+            default:
+                return -1;
+        }
+    }
+
+    // Moves a connection to the loop that owns its table, unread bytes and all
+    private void handOver(Connection connection, ServerLoop owner, int tableId, String name) {
+        connection.in.compact();
+        connection.flush();
+        if (connection.closed) {
+            return;
+        }
+        connection.key.cancel();
+        connection.dirty = false;
+        connection.loop = owner;
+        connectionCount--;
+        owner.execute(() -> owner.adopt(connection, tableId, name));
+    }
+
+    private void adopt(Connection connection, int tableId, String name) {
+        register(connection);
+        if (connection.closed) {
+            return;
+        }
+        join(connection, tableId, name);
+        connection.in.flip();
+        parse(connection);
+    }
+
+    private void join(Connection connection, int tableId, String name) {
+        ServerTable table = tables.get(tableId);
+        if (table == null) {
+            table = new ServerTable(tableId, droppedHands.getOrDefault(tableId, 0L) + 1, this, server);
+            tables.put(tableId, table);
+            tableCount++;
+        }
+        table.join(connection, name);
+    }
+
+    /**
+     * Forgets a table that everybody has left after {@code lastHand} hands; a
+     * later join starts it afresh from the hand after that.
+     */
+    void dropTable(int tableId, long lastHand) {
+        if (tables.remove(tableId) != null) {
+            tableCount--;
+            droppedHands.put(tableId, lastHand);
+        }
+    }
+
+    /** Sends an error and hangs up. */
+    void reject(Connection connection, int code) {
+        ByteBuffer out = connection.reserve(Protocol.LENGTH_BYTES + 2);
+        if (out != null) {
+            Protocol.putError(out, code);
+            connection.flush();
+        }
+        close(connection);
+    }
+
+    void markDirty(Connection connection) {
+        dirty.add(connection);
+    }
+
+    void close(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        connectionCount--;
+        closeQuietly(connection);
+        if (connection.table != null) {
+            connection.table.leave(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with it
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        for (int i = 0; i < MAX_TASKS_PER_TURN && (task = tasks.poll()) != null; i++) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println(thread.getName() + ": task failed: " + e);
+            }
+        }
+    }
+
+    private void flushDirty() {
+        for (int i = 0; i < dirty.size(); i++) {
+            Connection connection = dirty.get(i);
+            if (connection.loop == this) {
+                connection.dirty = false;
+                connection.flush();
+            }
+        }
+        dirty.clear();
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        thread.join();
+    }
+
+    int getConnectionCount() {
+        return connectionCount;
+    }
+
+    int getTableCount() {
+        return tableCount;
+    }
+}
@@ -0,0 +1,244 @@
+package net;
+
+import event.EventBus;
+import event.GameEvent;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import logic.AIAction;
+import logic.Agent;
+import logic.ExternalAgent;
+import logic.GameState;
+import logic.HandRunner;
+import logic.TableView;
+import logic.TexasHoldem;
+import model.Player;
+import model.TableState;
+
+/**
+ * A table hosted by a {@link ServerLoop} and confined to its thread.
+ *
+ * Every seated connection plays through an {@link ExternalAgent} that its
+ * ACT frames answer; the {@link HandRunner} resumes on the loop, so an
+ * action, the events it causes and the next TURN are all handled in the
+ * same loop turn. Events reach the clients through a direct listener on
+ * the table's bus, encoded straight into their outbound buffers.
+ *
+ * Players who join during a hand are seated when the next one starts.
+ * A player who disconnects checks or folds for the rest of the hand, then
+ * the seat is released for the next newcomer. The table drops itself from
+ * its loop once nobody is left.
+ */
+final class ServerTable {
+    // Plays for a player whose connection is gone
+    private static final Agent AWAY = (table, player) -> CompletableFuture.completedFuture(new AIAction("check", 0));
+
+    private final int id;
+    private final ServerLoop loop;
+    private final GameServer server;
+    private final TexasHoldem game;
+    private final HandRunner runner;
+    private final Agent[] agents = new Agent[TableState.MAX_SEATS];
+    private final Connection[] connections = new Connection[TableState.MAX_SEATS];
+    private final ArrayList<Connection> waiting = new ArrayList<>();
+    private boolean handScheduled;
+    private long actionsCounted;
+
+    /** @param firstHand number of the first hand, which picks its deal from the seed tree */
+    ServerTable(int id, long firstHand, ServerLoop loop, GameServer server) {
+        this.id = id;
+        this.loop = loop;
+        this.server = server;
+        this.game = new TexasHoldem(server.getSeeds(), id);
+        game.setNextHandNumber(firstHand);
+        EventBus events = new EventBus();
+        events.addDirectListener(this::onEvent);
+        game.setEventBus(events);
+        this.runner = new HandRunner(game, agents, loop);
+        runner.setDecisionTimeout(server.getDecisionTimeout());
+    }
+
+    void join(Connection connection, String name) {
+        int held = waiting.size();
+        for (Agent agent : agents) {
+            held += agent != null ? 1 : 0;
+        }
+        if (held >= server.getSeatsPerTable()) {
+            loop.reject(connection, Protocol.TABLE_FULL);
+            return;
+        }
+        connection.table = this;
+        connection.name = Protocol.nameBytes(name);
+        waiting.add(connection);
+        scheduleHand();
+    }
+
+    void act(Connection connection, int action, long amount) {
+        if (connection.seat >= 0 && agents[connection.seat] instanceof ExternalAgent) {
+            ((ExternalAgent) agents[connection.seat]).submit(GameState.actionName(action), amount);
+        }
+    }
+
+    void leave(Connection connection) {
+        waiting.remove(connection);
+        int seat = connection.seat;
+        if (seat >= 0 && connections[seat] == connection) {
+            connections[seat] = null;
+            Agent agent = agents[seat];
+            agents[seat] = AWAY;
+            if (agent instanceof ExternalAgent) {
+                // Don't make the table wait out the deadline
+                ((ExternalAgent) agent).submit("check", 0);
+            }
+        }
+        if (!runner.isHandInProgress()) {
+            releaseAway();
+            dropIfEmpty();
+        }
+    }
+
+    // Between hands only: frees the seats of everyone who has left
+    private void releaseAway() {
+        for (int seat = 0; seat < agents.length; seat++) {
+            if (agents[seat] == AWAY) {
+                agents[seat] = null;
+                Player player = game.getPlayerAt(seat);
+                game.removePlayer(player);
+                broadcastPlayer(player);
+            }
+        }
+    }
+
+    private boolean dropIfEmpty() {
+        for (Connection connection : connections) {
+            if (connection != null) {
+                return false;
+            }
+        }
+        if (!waiting.isEmpty()) {
+            return false;
+        }
+        game.flushMetrics();
+        loop.dropTable(id, game.getHandNumber());
+        return true;
+    }
+
+    private void scheduleHand() {
+        if (!handScheduled && !runner.isHandInProgress()) {
+            handScheduled = true;
+            loop.execute(this::startHand);
+        }
+    }
+
+    private void startHand() {
+        handScheduled = false;
+        if (runner.isHandInProgress()) {
+            return;
+        }
+        seatWaiting();
+        int connected = 0;
+        int withChips = 0;
+        for (Player player : game.getPlayers()) {
+            Connection connection = connections[player.getSeat()];
+            if (connection != null && server.isRebuy() && !player.hasChips()) {
+                player.winPot(server.getStartingStack());
+                broadcastPlayer(player);
+            }
+            connected += connection != null ? 1 : 0;
+            withChips += player.hasChips() ? 1 : 0;
+        }
+        // An empty table idles until somebody joins
+        if (connected == 0 || withChips < 2) {
+            return;
+        }
+        runner.playHandAsync().whenComplete((winner, failure) -> handFinished(failure));
+    }
+
+    private void handFinished(Throwable failure) {
+        if (failure != null) {
+            System.err.println("table " + id + ": hand aborted: " + failure);
+        }
+        server.countHand(runner.getActions() - actionsCounted);
+        actionsCounted = runner.getActions();
+        releaseAway();
+        if (dropIfEmpty()) {
+            return;
+        }
+        long pause = server.getHandPause();
+        if (pause > 0) {
+            handScheduled = true;
+            CompletableFuture.delayedExecutor(pause, TimeUnit.MILLISECONDS, loop).execute(this::startHand);
+        } else {
+            scheduleHand();
+        }
+    }
+
+    private void seatWaiting() {
+        if (waiting.isEmpty()) {
+            return;
+        }
+        for (Connection connection : waiting) {
+            if (connection.closed) {
+                continue;
+            }
+            Player player = new Player(new String(connection.name, StandardCharsets.UTF_8),
+                                       server.getStartingStack(), false);
+            game.addPlayer(player);
+            int seat = player.getSeat();
+            connection.seat = seat;
+            connections[seat] = connection;
+            agents[seat] = new ExternalAgent(this::prompt);
+            ByteBuffer out = connection.reserve(Protocol.LENGTH_BYTES + 6);
+            if (out != null) {
+                Protocol.putSeated(out, id, seat);
+            }
+        }
+        waiting.clear();
+        // Newcomers learn every seat, everyone else learns the newcomers
+        for (Player player : game.getPlayers()) {
+            broadcastPlayer(player);
+        }
+    }
+
+    private void broadcastPlayer(Player player) {
+        byte[] name = Protocol.nameBytes(player.getName());
+        for (Connection connection : connections) {
+            ByteBuffer out = connection != null ? connection.reserve(Protocol.LENGTH_BYTES + 11 + name.length) : null;
+            if (out != null) {
+                Protocol.putPlayer(out, player.getSeat(), player.getChips(), name);
+            }
+        }
+    }
+
+    // Called on the loop whenever the runner wants a decision from a connected player
+    private void prompt(TableView table, Player player) {
+        long toCall = table.getCurrentBetLevel() - player.getCurrentBet();
+        int timeout = (int) Math.min(Integer.MAX_VALUE, runner.getDecisionTimeout());
+        for (Connection connection : connections) {
+            ByteBuffer out = connection != null ? connection.reserve(Protocol.TURN_BYTES) : null;
+            if (out != null) {
+                Protocol.putTurn(out, player.getSeat(), toCall, table.getPot(), timeout);
+            }
+        }
+    }
+
+    private void onEvent(GameEvent event) {
+        if (event.getType() == GameEvent.HOLE) {
+            send(connections[event.getSeat()], event);
+            return;
+        }
+        for (Connection connection : connections) {
+            send(connection, event);
+        }
+    }
+
+    private static void send(Connection connection, GameEvent event) {
+        ByteBuffer out = connection != null ? connection.reserve(Protocol.EVENT_BYTES) : null;
+        if (out != null) {
+            Protocol.putEvent(out, event.getType(), event.getSeat(), event.getAction(), event.getRound(),
+                              event.getAmount(), event.getCards());
+        }
+    }
+}
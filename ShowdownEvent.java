@@ -0,0 +1,46 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight recorder event for one winner determination. */
+@Name("poker.Showdown")
+@Label("Determine Winner")
+@Category("Poker")
+@StackTrace(false)
+public class ShowdownEvent extends Event {
+    @Label("Table")
+    public int tableId;
+
+    @Label("Hand Number")
+    public long handNumber;
+
+    @Label("Street")
+    public String street;
+
+    @Label("Pot")
+    public long pot;
+
+    @Label("Contenders")
+    public int contenders;
+
+    @Label("Winner Seat")
+    public int winnerSeat;
+
+    /** Begins the event for a winner determination, or returns null as {@link HandEvent#start} does. */
+    public static ShowdownEvent start() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        ShowdownEvent event = new ShowdownEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
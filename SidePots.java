@@ -0,0 +1,142 @@
+package logic;
+
+import model.TableState;
+
+/**
+ * Splits the chips committed in a hand into a main pot and side pots and
+ * awards them.
+ *
+ * Each distinct all-in amount starts a new layer: a layer holds what every
+ * seat put in between the previous level and this one, and only seats still
+ * in the hand that reached the level can win it. Layers with the same
+ * contenders are merged; chips no live seat can win (dead money above every
+ * contender) fall into the layer below. A pot tied between several seats is
+ * split evenly and the odd chips go one at a time to the tied seats in
+ * order starting left of the button.
+ *
+ * Everything is exact {@code long} arithmetic over preallocated arrays, so
+ * the total awarded always equals the total committed.
+ */
+public class SidePots {
+    private final long[] levels = new long[TableState.MAX_SEATS];
+    private final long[] amounts = new long[TableState.MAX_SEATS];
+    private final int[] eligible = new int[TableState.MAX_SEATS]; // seat bitmask per pot
+    private final long[] won = new long[TableState.MAX_SEATS];
+    private int potCount;
+
+    /** Builds the pots from the seats' committed chips; returns the number of pots. */
+    public int build(TableState seats) {
+        int n = seats.getSeatCount();
+
+        // Distinct levels committed by seats still in the hand, ascending
+        int levelCount = 0;
+        for (int seat = 0; seat < n; seat++) {
+            long c = seats.getCommitted(seat);
+            if (c == 0 || seats.is(seat, TableState.FOLDED)) {
+                continue;
+            }
+            int i = levelCount;
+            while (i > 0 && levels[i - 1] > c) {
+                i--;
+            }
+            if (i > 0 && levels[i - 1] == c) {
+                continue;
+            }
+            System.arraycopy(levels, i, levels, i + 1, levelCount - i);
+            levels[i] = c;
+            levelCount++;
+        }
+
+        potCount = 0;
+        long previous = 0;
+        for (int l = 0; l < levelCount; l++) {
+            long level = levels[l];
+            long amount = 0;
+            int contenders = 0;
+            for (int seat = 0; seat < n; seat++) {
+                long c = seats.getCommitted(seat);
+                amount += Math.min(c, level) - Math.min(c, previous);
+                if (c >= level && !seats.is(seat, TableState.FOLDED)) {
+                    contenders |= 1 << seat;
+                }
+            }
+            if (potCount > 0 && eligible[potCount - 1] == contenders) {
+                amounts[potCount - 1] += amount;
+            } else {
+                amounts[potCount] = amount;
+                eligible[potCount] = contenders;
+                potCount++;
+            }
+            previous = level;
+        }
+
+        // Dead money committed above the highest live level
+        long dead = 0;
+        for (int seat = 0; seat < n; seat++) {
+            dead += Math.max(0, seats.getCommitted(seat) - previous);
+        }
+        if (dead > 0 && potCount > 0) {
+            amounts[potCount - 1] += dead;
+        }
+        return potCount;
+    }
+
+    /**
+     * Awards the pots from the last {@link #build}. {@code ranks} holds each
+     * seat's showdown rank (higher wins); it is ignored for uncontested pots.
+     * Returns the chips won per seat, valid until the next call.
+     */
+    public long[] award(int[] ranks, int buttonSeat, int seatCount) {
+        for (int seat = 0; seat < seatCount; seat++) {
+            won[seat] = 0;
+        }
+        for (int p = 0; p < potCount; p++) {
+            int contenders = eligible[p];
+            int winners = 0;
+            if (Integer.bitCount(contenders) == 1) {
+                winners = contenders;
+            } else {
+                int best = Integer.MIN_VALUE;
+                for (int seat = 0; seat < seatCount; seat++) {
+                    if ((contenders & (1 << seat)) == 0) {
+                        continue;
+                    }
+                    if (ranks[seat] > best) {
+                        best = ranks[seat];
+                        winners = 1 << seat;
+                    } else if (ranks[seat] == best) {
+                        winners |= 1 << seat;
+                    }
+                }
+            }
+
+            int count = Integer.bitCount(winners);
+            long share = amounts[p] / count;
+            long odd = amounts[p] % count;
+            for (int i = 1; i <= seatCount; i++) {
+                int seat = (buttonSeat + i) % seatCount;
+                if ((winners & (1 << seat)) != 0) {
+                    won[seat] += share;
+                    if (odd > 0) {
+                        won[seat]++;
+                        odd--;
+                    }
+                }
+            }
+        }
+        return won;
+    }
+
+    public int getPotCount() {
+        return potCount;
+    }
+
+    public long getAmount(int pot) {
+        return amounts[pot];
+    }
+
+    /** Seats that can win a pot, as a bitmask of seat indices. */
+    public int getEligible(int pot) {
+        return eligible[pot];
+    }
+}
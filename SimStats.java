@@ -0,0 +1,47 @@
+package sim;
+
+/**
+ * Simulation counters owned by a single thread and merged at the end.
+ */
+public class SimStats {
+    long tables;
+    long hands;
+    long actions;
+    long showdowns;
+    long rebuys;
+
+    void add(long hands, long actions, long showdowns, long rebuys) {
+        this.hands += hands;
+        this.actions += actions;
+        this.showdowns += showdowns;
+        this.rebuys += rebuys;
+    }
+
+    public void merge(SimStats other) {
+        tables += other.tables;
+        hands += other.hands;
+        actions += other.actions;
+        showdowns += other.showdowns;
+        rebuys += other.rebuys;
+    }
+
+    public long getTables() {
+        return tables;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public long getActions() {
+        return actions;
+    }
+
+    public long getShowdowns() {
+        return showdowns;
+    }
+
+    public long getRebuys() {
+        return rebuys;
+    }
+}
@@ -0,0 +1,38 @@
+package model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Minimal SplitMix64 generator that can be re-seeded in place, so a table
+ * can start every hand on a fresh deterministic stream without allocating.
+ */
+public class SplitMix64 implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /** The position in the stream; {@code setSeed(getState())} resumes from here. */
+    public long getState() {
+        return state;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /** SplitMix64 output function; also a good 64-bit hash. */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,265 @@
+package history;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import logic.GameState;
+import logic.TexasHoldem;
+import model.TableState;
+
+/**
+ * Writes a binary hand history ({@link HistoryWriter}) out as
+ * PokerStars-style text that {@link StarsParser} and other tools can read.
+ *
+ * Records are streamed from a {@link HistoryReader} and formatted straight
+ * into a reused byte buffer with hand-rolled number and card formatting, so
+ * exporting allocates nothing per record. Players are named
+ * {@code Player<id>} after their history ids, amounts are whole chips and
+ * the time stamp is omitted since the binary log does not record one.
+ *
+ * Usage: {@code java history.StarsExporter HISTORY_DIR PREFIX OUT_FILE}.
+ */
+public class StarsExporter {
+    private static final String[] STREETS = {"", "*** FLOP *** ", "*** TURN *** ", "*** RIVER *** "};
+
+    private final long smallBlind;
+    private final long bigBlind;
+    private byte[] out = new byte[1 << 16];
+    private int length;
+
+    // Hand in progress
+    private final int[] playerId = new int[TableState.MAX_SEATS];
+    private final long[] stack = new long[TableState.MAX_SEATS];
+    private final long[] streetBet = new long[TableState.MAX_SEATS];
+    private final int[] board = new int[5];
+    private int boardCount;
+    private long betLevel;
+    private long handNumber;
+    private int tableId;
+    private int button;
+    private int blinds;
+    private boolean holeCardsStarted;
+    private boolean showdownStarted;
+
+    public StarsExporter() {
+        this(TexasHoldem.SMALL_BLIND, TexasHoldem.BIG_BLIND);
+    }
+
+    public StarsExporter(long smallBlind, long bigBlind) {
+        this.smallBlind = smallBlind;
+        this.bigBlind = bigBlind;
+    }
+
+    /** Exports every hand of a log; returns the number of hands written. */
+    public long export(Path directory, String prefix, Path file) throws IOException {
+        long hands = 0;
+        try (HistoryReader reader = new HistoryReader(directory, prefix);
+             OutputStream stream = Files.newOutputStream(file)) {
+            length = 0;
+            while (reader.next()) {
+                if (accept(reader.record())) {
+                    hands++;
+                }
+                if (length > out.length / 2) {
+                    stream.write(out, 0, length);
+                    length = 0;
+                }
+            }
+            stream.write(out, 0, length);
+        }
+        return hands;
+    }
+
+    // Returns true when a hand has been completed
+    private boolean accept(HandRecord r) {
+        int seat = r.getSeat();
+        switch (r.getType()) {
+            case HandRecord.HAND_START:
+                handNumber = r.getAmount();
+                tableId = r.getAux();
+                button = seat;
+                boardCount = 0;
+                betLevel = 0;
+                blinds = 0;
+                holeCardsStarted = false;
+                showdownStarted = false;
+                for (int i = 0; i < TableState.MAX_SEATS; i++) {
+                    playerId[i] = -1;
+                    streetBet[i] = 0;
+                }
+                text("PokerStars Hand #").number(handNumber).text(":  Hold'em No Limit (")
+                    .number(smallBlind).text("/").number(bigBlind).text(")").newline();
+                text("Table 'Table ").number(tableId).text("' ").number(TableState.MAX_SEATS)
+                    .text("-max Seat #").number(button + 1).text(" is the button").newline();
+                return false;
+            case HandRecord.SEAT:
+                playerId[seat] = r.getAux();
+                stack[seat] = r.getAmount();
+                text("Seat ").number(seat + 1).text(": ").name(seat).text(" (").number(stack[seat])
+                    .text(" in chips)").newline();
+                return false;
+            case HandRecord.BLIND:
+                put(seat, r.getAmount());
+                name(seat).text(blinds++ == 0 ? ": posts small blind " : ": posts big blind ")
+                    .number(r.getAmount()).allIn(seat).newline();
+                betLevel = Math.max(betLevel, streetBet[seat]);
+                return false;
+            case HandRecord.HOLE:
+                if (!holeCardsStarted) {
+                    text("*** HOLE CARDS ***").newline();
+                    holeCardsStarted = true;
+                }
+                text("Dealt to ").name(seat).text(" [").card(r.getCard(0)).text(" ").card(r.getCard(1))
+                    .text("]").newline();
+                return false;
+            case HandRecord.ACTION:
+                action(seat, r.getAction(), r.getAmount());
+                return false;
+            case HandRecord.BOARD:
+                street(r);
+                return false;
+            case HandRecord.WIN:
+                if (r.getAction() == 1) {
+                    if (!showdownStarted) {
+                        text("*** SHOW DOWN ***").newline();
+                        showdownStarted = true;
+                    }
+                    name(seat).text(": shows [").card(r.getCard(0)).text(" ").card(r.getCard(1)).text("]").newline();
+                }
+                if (r.getAmount() > 0) {
+                    name(seat).text(" collected ").number(r.getAmount()).text(" from pot").newline();
+                }
+                return false;
+            case HandRecord.HAND_END:
+                text("*** SUMMARY ***").newline();
+                text("Total pot ").number(r.getAmount()).text(" | Rake 0").newline();
+                if (boardCount > 0) {
+                    text("Board [").cards(0, boardCount).text("]").newline();
+                }
+                newline().newline();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void action(int seat, int code, long amount) {
+        put(seat, amount);
+        name(seat);
+        if (code == GameState.FOLD) {
+            text(": folds");
+        } else if (code == GameState.CHECK || (code == GameState.CALL && amount == 0)) {
+            text(": checks");
+        } else if (code == GameState.CALL || streetBet[seat] <= betLevel) {
+            // A raise too short to reach the bet is a call for less
+            text(": calls ").number(amount);
+        } else if (betLevel == 0) {
+            text(": bets ").number(amount);
+        } else {
+            text(": raises ").number(streetBet[seat] - betLevel).text(" to ").number(streetBet[seat]);
+        }
+        allIn(seat).newline();
+        betLevel = Math.max(betLevel, streetBet[seat]);
+    }
+
+    private void street(HandRecord r) {
+        int round = r.getAction();
+        for (int i = 0; i < TableState.MAX_SEATS; i++) {
+            streetBet[i] = 0;
+        }
+        betLevel = 0;
+        text(STREETS[Math.min(round, 3)]);
+        if (boardCount > 0) {
+            text("[").cards(0, boardCount).text("] ");
+        }
+        int first = boardCount;
+        for (int i = 0; i < 3 && r.getCard(i) != HandRecord.NO_CARD && boardCount < 5; i++) {
+            board[boardCount++] = r.getCard(i);
+        }
+        text("[").cards(first, boardCount).text("]").newline();
+    }
+
+    private void put(int seat, long amount) {
+        streetBet[seat] += amount;
+        stack[seat] -= amount;
+    }
+
+    private StarsExporter allIn(int seat) {
+        return stack[seat] == 0 ? text(" and is all-in") : this;
+    }
+
+    private StarsExporter name(int seat) {
+        return text("Player").number(playerId[seat] >= 0 ? playerId[seat] : seat);
+    }
+
+    private StarsExporter cards(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                text(" ");
+            }
+            card(board[i]);
+        }
+        return this;
+    }
+
+    private StarsExporter card(int index) {
+        ensure(2);
+        out[length++] = (byte) StarsParser.RANKS.charAt(index % 13);
+        out[length++] = (byte) StarsParser.SUITS.charAt(index / 13);
+        return this;
+    }
+
+    private StarsExporter number(long value) {
+        ensure(20);
+        if (value < 0) {
+            out[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            out[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte tmp = out[i];
+            out[i] = out[j];
+            out[j] = tmp;
+        }
+        return this;
+    }
+
+    private StarsExporter text(String s) {
+        ensure(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            out[length++] = (byte) s.charAt(i);
+        }
+        return this;
+    }
+
+    private StarsExporter newline() {
+        ensure(1);
+        out[length++] = '\n';
+        return this;
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > out.length) {
+            byte[] bigger = new byte[Math.max(out.length * 2, length + bytes)];
+            System.arraycopy(out, 0, bigger, 0, length);
+            out = bigger;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: java history.StarsExporter HISTORY_DIR PREFIX OUT_FILE");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        long hands = new StarsExporter().export(Paths.get(args[0]), args[1], Paths.get(args[2]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d hands exported in %.2fs to %s%n", hands, seconds, args[2]);
+    }
+}
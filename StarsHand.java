@@ -0,0 +1,208 @@
+package history;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import logic.GameState;
+import logic.TexasHoldem;
+
+/**
+ * One hand parsed from a PokerStars-style text history.
+ *
+ * {@link StarsParser} refills a single instance for every hand, so the
+ * fields are preallocated arrays and player names are byte ranges into the
+ * parser's buffer; {@link #getName(int)} materialises one on demand. Seats
+ * are numbered 0..{@link #getSeatCount()}-1 in table order; the site's own
+ * seat numbers are kept in {@link #getSeatNumber(int)}. Chip amounts are in
+ * hundredths of the file's unit, so cash and play-money hands both come out
+ * as exact longs.
+ */
+public class StarsHand {
+    public static final int MAX_SEATS = 10;
+    public static final int MAX_ACTIONS = 256;
+
+    // Action types; the first four are GameState's codes
+    public static final int FOLD = GameState.FOLD;
+    public static final int CHECK = GameState.CHECK;
+    public static final int CALL = GameState.CALL;
+    public static final int RAISE = GameState.RAISE; // amount is the total bet raised to
+    public static final int BET = 4;                 // amount is the bet
+
+    long handId;
+    int tableStart;
+    int tableLength;
+    long smallBlind;
+    long bigBlind;
+    int buttonNumber;
+    boolean supported;
+    String unsupportedReason;
+
+    int seatCount;
+    final int[] seatNumber = new int[MAX_SEATS];
+    final long[] stack = new long[MAX_SEATS];
+    final int[] nameStart = new int[MAX_SEATS];
+    final int[] nameLength = new int[MAX_SEATS];
+    final int[] hole = new int[MAX_SEATS * 2];
+    final long[] posted = new long[MAX_SEATS];
+    final long[] collected = new long[MAX_SEATS];
+    final boolean[] shown = new boolean[MAX_SEATS];
+    int smallBlindSeat;
+    int bigBlindSeat;
+
+    final int[] board = new int[5];
+    int boardCount;
+
+    int actionCount;
+    final int[] actionSeat = new int[MAX_ACTIONS];
+    final int[] actionStreet = new int[MAX_ACTIONS];
+    final int[] actionType = new int[MAX_ACTIONS];
+    final long[] actionAmount = new long[MAX_ACTIONS];
+    boolean showdown;
+
+    ByteBuffer source;
+
+    void clear() {
+        handId = 0;
+        tableLength = 0;
+        smallBlind = 0;
+        bigBlind = 0;
+        buttonNumber = -1;
+        supported = true;
+        unsupportedReason = null;
+        seatCount = 0;
+        for (int i = 0; i < MAX_SEATS; i++) {
+            hole[2 * i] = -1;
+            hole[2 * i + 1] = -1;
+            posted[i] = 0;
+            collected[i] = 0;
+            shown[i] = false;
+        }
+        smallBlindSeat = -1;
+        bigBlindSeat = -1;
+        boardCount = 0;
+        actionCount = 0;
+        showdown = false;
+    }
+
+    void unsupported(String reason) {
+        if (supported) {
+            supported = false;
+            unsupportedReason = reason;
+        }
+    }
+
+    public long getHandId() {
+        return handId;
+    }
+
+    /** Name of the table, or "" if the history does not give one. */
+    public String getTableName() {
+        byte[] bytes = new byte[tableLength];
+        source.get(tableStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public long getSmallBlind() {
+        return smallBlind;
+    }
+
+    public long getBigBlind() {
+        return bigBlind;
+    }
+
+    /** Seat index of the button, or -1 if the button sits on an empty seat. */
+    public int getButton() {
+        for (int i = 0; i < seatCount; i++) {
+            if (seatNumber[i] == buttonNumber) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** False if the hand uses something the engine cannot replay (antes, dead blinds, other games). */
+    public boolean isSupported() {
+        return supported;
+    }
+
+    public String getUnsupportedReason() {
+        return unsupportedReason;
+    }
+
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    public int getSeatNumber(int seat) {
+        return seatNumber[seat];
+    }
+
+    public long getStack(int seat) {
+        return stack[seat];
+    }
+
+    public String getName(int seat) {
+        byte[] bytes = new byte[nameLength[seat]];
+        source.get(nameStart[seat], bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Hole card {@code i} (0 or 1) as a card index, or -1 if never shown. */
+    public int getHoleCard(int seat, int i) {
+        return hole[2 * seat + i];
+    }
+
+    public int getSmallBlindSeat() {
+        return smallBlindSeat;
+    }
+
+    public int getBigBlindSeat() {
+        return bigBlindSeat;
+    }
+
+    /** Blind posted by a seat. */
+    public long getPosted(int seat) {
+        return posted[seat];
+    }
+
+    /** Chips a seat collected from the pot, including any uncalled bet returned. */
+    public long getCollected(int seat) {
+        return collected[seat];
+    }
+
+    public boolean isShown(int seat) {
+        return shown[seat];
+    }
+
+    public int getBoardCount() {
+        return boardCount;
+    }
+
+    public int getBoardCard(int i) {
+        return board[i];
+    }
+
+    public int getActionCount() {
+        return actionCount;
+    }
+
+    public int getActionSeat(int i) {
+        return actionSeat[i];
+    }
+
+    /** Street of an action, {@link TexasHoldem#PRE_FLOP} to {@link TexasHoldem#RIVER}. */
+    public int getActionStreet(int i) {
+        return actionStreet[i];
+    }
+
+    public int getActionType(int i) {
+        return actionType[i];
+    }
+
+    public long getActionAmount(int i) {
+        return actionAmount[i];
+    }
+
+    public boolean isShowdown() {
+        return showdown;
+    }
+}
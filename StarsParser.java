@@ -0,0 +1,445 @@
+package history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import logic.TexasHoldem;
+import model.Card;
+
+/**
+ * Streaming parser for PokerStars-style text hand histories of No Limit
+ * Hold'em.
+ *
+ * The file is memory-mapped in large windows and scanned byte by byte:
+ * lines are matched against ASCII byte prefixes and numbers, cards and
+ * names are read in place, so no line is ever turned into a String. Each
+ * hand is filled into one reused {@link StarsHand} and handed to the
+ * consumer, which must not keep it. A window always restarts at the first
+ * hand it could not finish, so files of any size are read with bounded
+ * memory.
+ */
+public class StarsParser {
+    public static final long DEFAULT_WINDOW_BYTES = 256L << 20;
+
+    static final String RANKS = "23456789TJQKA";
+    static final String SUITS = "shdc"; // same order as the Card suit indices
+
+    private static final byte[] HAND = ascii("PokerStars Hand #");
+    private static final byte[] GAME = ascii("Hold'em No Limit");
+    private static final byte[] TABLE = ascii("Table '");
+    private static final byte[] BUTTON = ascii("Seat #");
+    private static final byte[] SEAT = ascii("Seat ");
+    private static final byte[] IN_CHIPS = ascii(" in chips");
+    private static final byte[] SITTING_OUT = ascii("sitting out");
+    private static final byte[] HOLE_CARDS = ascii("*** HOLE CARDS ***");
+    private static final byte[] FLOP = ascii("*** FLOP ***");
+    private static final byte[] TURN = ascii("*** TURN ***");
+    private static final byte[] RIVER = ascii("*** RIVER ***");
+    private static final byte[] SHOW_DOWN = ascii("*** SHOW DOWN ***");
+    private static final byte[] SUMMARY = ascii("*** SUMMARY ***");
+    private static final byte[] STREET = ascii("*** ");
+    private static final byte[] DEALT_TO = ascii("Dealt to ");
+    private static final byte[] UNCALLED = ascii("Uncalled bet (");
+    private static final byte[] RETURNED_TO = ascii(") returned to ");
+    private static final byte[] COLLECTED = ascii(" collected ");
+    private static final byte[] FOLDS = ascii("folds");
+    private static final byte[] CHECKS = ascii("checks");
+    private static final byte[] CALLS = ascii("calls ");
+    private static final byte[] BETS = ascii("bets ");
+    private static final byte[] RAISES = ascii("raises ");
+    private static final byte[] TO = ascii(" to ");
+    private static final byte[] POSTS_SMALL = ascii("posts small blind ");
+    private static final byte[] POSTS_BIG = ascii("posts big blind ");
+    private static final byte[] POSTS = ascii("posts ");
+    private static final byte[] SHOWS = ascii("shows [");
+
+    private final StarsHand hand = new StarsHand();
+    private final long windowBytes;
+    private ByteBuffer buf;
+    private int street;
+    private boolean inHand;
+    private boolean summary;
+    private long hands;
+    private long skipped;
+
+    public StarsParser() {
+        this(DEFAULT_WINDOW_BYTES);
+    }
+
+    public StarsParser(long windowBytes) {
+        this.windowBytes = Math.min(windowBytes, Integer.MAX_VALUE);
+    }
+
+    /** Parses a whole file; returns the number of supported hands passed to {@code consumer}. */
+    public long parse(Path file, Consumer<StarsHand> consumer) throws IOException {
+        long before = hands;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long base = 0;
+            while (base < size) {
+                long length = Math.min(windowBytes, size - base);
+                boolean last = base + length >= size;
+                buf = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+                hand.source = buf;
+                int resume = parseWindow((int) length, last, consumer);
+                if (last) {
+                    break;
+                }
+                if (resume == 0) {
+                    throw new IOException("Hand at offset " + base + " is larger than the parse window");
+                }
+                base += resume;
+            }
+        } finally {
+            buf = null;
+            hand.source = null;
+        }
+        return hands - before;
+    }
+
+    /** Supported hands parsed so far. */
+    public long getHands() {
+        return hands;
+    }
+
+    /** Hands seen but not passed on because they are not replayable. */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    // Returns where the next window must start: the unfinished hand, if any
+    private int parseWindow(int length, boolean last, Consumer<StarsHand> consumer) {
+        inHand = false;
+        int handStart = 0;
+        int pos = 0;
+        if (length >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF) {
+            pos = 3; // UTF-8 byte order mark
+        }
+        while (pos < length) {
+            int end = indexOf(pos, length, (byte) '\n');
+            if (end < 0) {
+                if (!last) {
+                    return inHand ? handStart : pos;
+                }
+                end = length;
+            }
+            int lineEnd = end > pos && buf.get(end - 1) == '\r' ? end - 1 : end;
+            if (startsWith(pos, lineEnd, HAND)) {
+                if (inHand) {
+                    emit(consumer);
+                }
+                handStart = pos;
+                beginHand(pos, lineEnd);
+            } else if (inHand) {
+                line(pos, lineEnd);
+            }
+            pos = end + 1;
+        }
+        if (inHand) {
+            if (!last) {
+                return handStart;
+            }
+            emit(consumer);
+        }
+        return length;
+    }
+
+    private void emit(Consumer<StarsHand> consumer) {
+        inHand = false;
+        if (hand.supported && hand.seatCount >= 2 && hand.bigBlindSeat >= 0) {
+            hands++;
+            consumer.accept(hand);
+        } else {
+            skipped++;
+        }
+    }
+
+    private void beginHand(int s, int e) {
+        hand.clear();
+        inHand = true;
+        summary = false;
+        street = -1;
+        hand.handId = parseLong(s + HAND.length, e);
+        int game = indexOf(s, e, GAME);
+        if (game < 0) {
+            hand.unsupported("not No Limit Hold'em");
+            return;
+        }
+        int open = indexOf(game, e, (byte) '(');
+        int slash = open < 0 ? -1 : indexOf(open, e, (byte) '/');
+        if (slash < 0) {
+            hand.unsupported("no blinds in header");
+            return;
+        }
+        hand.smallBlind = parseAmount(open + 1, slash);
+        hand.bigBlind = parseAmount(slash + 1, e);
+    }
+
+    private void line(int s, int e) {
+        if (summary || s >= e) {
+            return;
+        }
+        if (startsWith(s, e, STREET)) {
+            street(s, e);
+        } else if (startsWith(s, e, TABLE)) {
+            int close = indexOf(s + TABLE.length, e, (byte) '\'');
+            if (close >= 0) {
+                hand.tableStart = s + TABLE.length;
+                hand.tableLength = close - hand.tableStart;
+            }
+            int button = indexOf(s, e, BUTTON);
+            if (button >= 0) {
+                hand.buttonNumber = (int) parseLong(button + BUTTON.length, e);
+            }
+        } else if (street < 0 && startsWith(s, e, SEAT)) {
+            seat(s, e);
+        } else if (startsWith(s, e, DEALT_TO)) {
+            int nameStart = s + DEALT_TO.length;
+            int bracket = indexOf(nameStart, e, (byte) '[');
+            int seat = bracket < 0 ? -1 : findSeat(nameStart, bracket - 1);
+            if (seat >= 0) {
+                cards(bracket + 1, e, seat);
+            }
+        } else if (startsWith(s, e, UNCALLED)) {
+            int close = indexOf(s, e, RETURNED_TO);
+            int seat = close < 0 ? -1 : findSeat(close + RETURNED_TO.length, e);
+            if (seat >= 0) {
+                hand.collected[seat] += parseAmount(s + UNCALLED.length, close);
+            }
+        } else {
+            playerLine(s, e);
+        }
+    }
+
+    private void street(int s, int e) {
+        if (startsWith(s, e, HOLE_CARDS)) {
+            street = TexasHoldem.PRE_FLOP;
+        } else if (startsWith(s, e, FLOP)) {
+            street = TexasHoldem.FLOP;
+            board(s, e);
+        } else if (startsWith(s, e, TURN)) {
+            street = TexasHoldem.TURN;
+            board(s, e);
+        } else if (startsWith(s, e, RIVER)) {
+            street = TexasHoldem.RIVER;
+            board(s, e);
+        } else if (startsWith(s, e, SHOW_DOWN)) {
+            hand.showdown = true;
+        } else if (startsWith(s, e, SUMMARY)) {
+            summary = true;
+        } else {
+            hand.unsupported("unknown street marker");
+        }
+    }
+
+    // The cards dealt on a street are in the last bracket group
+    private void board(int s, int e) {
+        int open = -1;
+        for (int i = e - 1; i >= s; i--) {
+            if (buf.get(i) == '[') {
+                open = i;
+                break;
+            }
+        }
+        for (int i = open + 1; open >= 0 && i + 1 < e && buf.get(i) != ']'; i += 3) {
+            int card = card(i);
+            if (card < 0 || hand.boardCount == 5) {
+                hand.unsupported("bad board");
+                return;
+            }
+            hand.board[hand.boardCount++] = card;
+        }
+    }
+
+    private void seat(int s, int e) {
+        int colon = indexOf(s, e, (byte) ':');
+        int chips = indexOf(s, e, IN_CHIPS);
+        if (colon < 0 || chips < 0 || indexOf(chips, e, SITTING_OUT) >= 0) {
+            return; // players sitting out are not dealt in
+        }
+        int open = chips;
+        while (open > colon && buf.get(open) != '(') {
+            open--;
+        }
+        if (hand.seatCount == StarsHand.MAX_SEATS) {
+            hand.unsupported("too many seats");
+            return;
+        }
+        int seat = hand.seatCount++;
+        hand.seatNumber[seat] = (int) parseLong(s + SEAT.length, colon);
+        hand.nameStart[seat] = colon + 2;
+        hand.nameLength[seat] = open - 1 - (colon + 2);
+        hand.stack[seat] = parseAmount(open + 1, chips);
+    }
+
+    private void playerLine(int s, int e) {
+        int seat = -1;
+        int verb = -1;
+        for (int i = 0; i < hand.seatCount; i++) {
+            int after = s + hand.nameLength[i];
+            if (after + 1 < e && nameAt(i, s)) {
+                if (buf.get(after) == ':' && buf.get(after + 1) == ' ') {
+                    seat = i;
+                    verb = after + 2;
+                    break;
+                }
+                if (startsWith(after, e, COLLECTED)) {
+                    hand.collected[i] += parseAmount(after + COLLECTED.length, e);
+                    return;
+                }
+            }
+        }
+        if (seat < 0) {
+            return; // chat, joins, time-outs and the like
+        }
+
+        if (startsWith(verb, e, FOLDS)) {
+            action(seat, StarsHand.FOLD, 0);
+        } else if (startsWith(verb, e, CHECKS)) {
+            action(seat, StarsHand.CHECK, 0);
+        } else if (startsWith(verb, e, CALLS)) {
+            action(seat, StarsHand.CALL, parseAmount(verb + CALLS.length, e));
+        } else if (startsWith(verb, e, BETS)) {
+            action(seat, StarsHand.BET, parseAmount(verb + BETS.length, e));
+        } else if (startsWith(verb, e, RAISES)) {
+            int to = indexOf(verb, e, TO);
+            action(seat, StarsHand.RAISE, to < 0 ? 0 : parseAmount(to + TO.length, e));
+        } else if (startsWith(verb, e, POSTS_SMALL)) {
+            if (hand.smallBlindSeat >= 0) {
+                hand.unsupported("second small blind");
+            }
+            hand.smallBlindSeat = seat;
+            hand.posted[seat] = parseAmount(verb + POSTS_SMALL.length, e);
+        } else if (startsWith(verb, e, POSTS_BIG)) {
+            if (hand.bigBlindSeat >= 0) {
+                hand.unsupported("second big blind");
+            }
+            hand.bigBlindSeat = seat;
+            hand.posted[seat] = parseAmount(verb + POSTS_BIG.length, e);
+        } else if (startsWith(verb, e, POSTS)) {
+            hand.unsupported("antes or dead blinds");
+        } else if (startsWith(verb, e, SHOWS)) {
+            cards(verb + SHOWS.length, e, seat);
+            hand.shown[seat] = true;
+        }
+    }
+
+    private void action(int seat, int type, long amount) {
+        if (street < 0 || hand.actionCount == StarsHand.MAX_ACTIONS) {
+            hand.unsupported("action outside a betting round");
+            return;
+        }
+        int i = hand.actionCount++;
+        hand.actionSeat[i] = seat;
+        hand.actionStreet[i] = street;
+        hand.actionType[i] = type;
+        hand.actionAmount[i] = amount;
+    }
+
+    private void cards(int s, int e, int seat) {
+        if (s + 4 < e) {
+            hand.hole[2 * seat] = card(s);
+            hand.hole[2 * seat + 1] = card(s + 3);
+        }
+    }
+
+    private boolean nameAt(int seat, int s) {
+        int start = hand.nameStart[seat];
+        for (int i = 0; i < hand.nameLength[seat]; i++) {
+            if (buf.get(start + i) != buf.get(s + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Seat whose name is exactly bytes [s, e)
+    private int findSeat(int s, int e) {
+        for (int i = 0; i < hand.seatCount; i++) {
+            if (hand.nameLength[i] == e - s && nameAt(i, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Card index for a two-byte card like {@code Ah}, or -1. */
+    private int card(int at) {
+        int rank = RANKS.indexOf(buf.get(at));
+        int suit = SUITS.indexOf(buf.get(at + 1));
+        return rank < 0 || suit < 0 ? -1 : Card.of(rank, suit).getIndex();
+    }
+
+    // Skips currency symbols; reads digits, thousands commas and up to two decimals, in hundredths
+    private long parseAmount(int s, int e) {
+        int i = s;
+        while (i < e && !isDigit(buf.get(i))) {
+            i++;
+        }
+        long units = 0;
+        while (i < e && (isDigit(buf.get(i)) || buf.get(i) == ',')) {
+            if (buf.get(i) != ',') {
+                units = units * 10 + (buf.get(i) - '0');
+            }
+            i++;
+        }
+        long cents = 0;
+        if (i + 1 < e && buf.get(i) == '.' && isDigit(buf.get(i + 1))) {
+            cents = (buf.get(i + 1) - '0') * 10;
+            if (i + 2 < e && isDigit(buf.get(i + 2))) {
+                cents += buf.get(i + 2) - '0';
+            }
+        }
+        return units * 100 + cents;
+    }
+
+    private long parseLong(int s, int e) {
+        long value = 0;
+        for (int i = s; i < e && isDigit(buf.get(i)); i++) {
+            value = value * 10 + (buf.get(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private boolean startsWith(int s, int e, byte[] prefix) {
+        if (e - s < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf.get(s + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(int s, int e, byte b) {
+        for (int i = s; i < e; i++) {
+            if (buf.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(int s, int e, byte[] needle) {
+        for (int i = s; i + needle.length <= e; i++) {
+            if (startsWith(i, e, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,174 @@
+package history;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import logic.TexasHoldem;
+import model.Player;
+
+/**
+ * Replays parsed text hands through {@link TexasHoldem}.
+ *
+ * Each hand is dealt from a stacked deck holding every card the history
+ * reveals, with the recorded button, blinds and stacks; the recorded
+ * actions are then applied in order and the engine settles the pot. A hand
+ * is verified when the engine pays the same seats the history does; hands
+ * where a player reached showdown without showing cannot be verified.
+ * Pass a {@link HistoryWriter} to re-record the replayed hands in the
+ * binary format, under their recorded hand numbers; tables are numbered
+ * from 0 in the order their names first appear.
+ *
+ * Usage: {@code java history.StarsReplayer FILE [HISTORY_DIR]}.
+ */
+public class StarsReplayer {
+    private final int[] deal = new int[2 * StarsHand.MAX_SEATS + 8];
+    private final Player[] bySeat = new Player[StarsHand.MAX_SEATS];
+    private final HashMap<String, Integer> tableIds = new HashMap<>();
+    private HistoryWriter history;
+    private long replayed;
+    private long verified;
+    private long mismatched;
+    private long unverifiable;
+
+    public void setHistory(HistoryWriter history) {
+        this.history = history;
+    }
+
+    /** Replays one hand; returns the table it was played on, or null if it could not be set up. */
+    public TexasHoldem replay(StarsHand hand) {
+        int seats = hand.getSeatCount();
+        int button = hand.getButton();
+        if (button < 0) {
+            mismatched++;
+            return null;
+        }
+
+        // No seed tree: the deal is stacked from the history
+        int tableId = tableIds.computeIfAbsent(hand.getTableName(), name -> tableIds.size());
+        TexasHoldem game = new TexasHoldem(null, tableId);
+        game.setNextHandNumber(hand.getHandId());
+        game.setBlinds(hand.getSmallBlind(), hand.getBigBlind());
+        game.setHistory(history);
+        for (int seat = 0; seat < seats; seat++) {
+            bySeat[seat] = new Player(hand.getName(seat), hand.getStack(seat), false);
+            bySeat[seat].setId(hand.getSeatNumber(seat));
+            game.addPlayer(bySeat[seat]);
+        }
+        game.setNextButton(bySeat[button]);
+
+        // Hole cards in seat order, then burn, flop, burn, turn, burn, river
+        int n = 0;
+        for (int seat = 0; seat < seats; seat++) {
+            deal[n++] = hand.getHoleCard(seat, 0);
+            deal[n++] = hand.getHoleCard(seat, 1);
+        }
+        for (int i = 0; i < 5; i++) {
+            if (i == 0 || i >= 3) {
+                deal[n++] = -1;
+            }
+            deal[n++] = i < hand.getBoardCount() ? hand.getBoardCard(i) : -1;
+        }
+        game.setNextDeal(deal, n);
+        game.startNewHand();
+
+        if (bySeat[hand.getBigBlindSeat()].getCurrentBet() != hand.getPosted(hand.getBigBlindSeat())
+                || (hand.getSmallBlindSeat() >= 0
+                    && bySeat[hand.getSmallBlindSeat()].getCurrentBet() != hand.getPosted(hand.getSmallBlindSeat()))) {
+            mismatched++; // blinds not where the engine puts them
+            return null;
+        }
+
+        for (int i = 0; i < hand.getActionCount(); i++) {
+            dealTo(game, hand.getActionStreet(i));
+            Player player = bySeat[hand.getActionSeat(i)];
+            long amount = hand.getActionAmount(i);
+            switch (hand.getActionType(i)) {
+                case StarsHand.FOLD: game.processPlayerAction(player, "fold", 0); break;
+                case StarsHand.CHECK: game.processPlayerAction(player, "check", 0); break;
+                case StarsHand.CALL: game.processPlayerAction(player, "call", 0); break;
+                case StarsHand.BET: game.processPlayerAction(player, "raise", amount); break;
+                default:
+                    game.processPlayerAction(player, "raise", amount - game.getCurrentBetLevel());
+                    break;
+            }
+        }
+        // All-in run-outs deal the rest of the board without betting
+        dealTo(game, hand.getBoardCount() == 5 ? TexasHoldem.RIVER
+                   : hand.getBoardCount() == 4 ? TexasHoldem.TURN
+                   : hand.getBoardCount() == 3 ? TexasHoldem.FLOP : TexasHoldem.PRE_FLOP);
+        game.resetBets();
+        game.distributePots();
+        replayed++;
+        check(hand, game);
+        return game;
+    }
+
+    private void dealTo(TexasHoldem game, int street) {
+        while (game.getCurrentRound() < street) {
+            game.resetBets();
+            if (game.getCurrentRound() == TexasHoldem.PRE_FLOP) {
+                game.dealFlop();
+            } else if (game.getCurrentRound() == TexasHoldem.FLOP) {
+                game.dealTurn();
+            } else {
+                game.dealRiver();
+            }
+        }
+    }
+
+    private void check(StarsHand hand, TexasHoldem game) {
+        for (int seat = 0; seat < hand.getSeatCount(); seat++) {
+            if (!bySeat[seat].isFolded() && game.getActivePlayerCount() > 1 && hand.getHoleCard(seat, 0) < 0) {
+                unverifiable++;
+                return;
+            }
+        }
+        for (int seat = 0; seat < hand.getSeatCount(); seat++) {
+            if ((game.getWinnings(bySeat[seat]) > 0) != (hand.getCollected(seat) > 0)) {
+                mismatched++;
+                return;
+            }
+        }
+        verified++;
+    }
+
+    public long getReplayed() {
+        return replayed;
+    }
+
+    public long getVerified() {
+        return verified;
+    }
+
+    public long getMismatched() {
+        return mismatched;
+    }
+
+    public long getUnverifiable() {
+        return unverifiable;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java history.StarsReplayer FILE [HISTORY_DIR]");
+            System.exit(2);
+        }
+        StarsParser parser = new StarsParser();
+        StarsReplayer replayer = new StarsReplayer();
+        HistoryWriter history = args.length > 1 ? new HistoryWriter(Paths.get(args[1]), "import") : null;
+        replayer.setHistory(history);
+
+        long start = System.nanoTime();
+        parser.parse(Path.of(args[0]), replayer::replay);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (history != null) {
+            history.close();
+        }
+
+        System.out.printf("%d hands parsed (%d skipped) in %.2fs: %.0f hands/s%n",
+            parser.getHands(), parser.getSkipped(), seconds, parser.getHands() / seconds);
+        System.out.printf("replayed %d: verified %d, mismatched %d, unverifiable %d%n",
+            replayer.getReplayed(), replayer.getVerified(), replayer.getMismatched(), replayer.getUnverifiable());
+    }
+}
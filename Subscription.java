@@ -0,0 +1,124 @@
+package event;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One subscriber of an {@link EventBus}: a bounded ring and a daemon thread
+ * that drains it into the listener.
+ *
+ * When the ring is full the publisher never waits indefinitely: with
+ * {@link Overflow#DROP} the event is dropped at once, with
+ * {@link Overflow#SPIN} the publisher spins for a bounded number of
+ * iterations first. Dropped events are counted and show up as gaps in
+ * {@link GameEvent#getSequence()}.
+ */
+public class Subscription {
+    public enum Overflow { DROP, SPIN }
+
+    static final int SPIN_LIMIT = 1 << 12;
+
+    private final GameEventListener listener;
+    private final EventRing ring;
+    private final Overflow overflow;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+    private volatile long dropped;
+    private volatile long delivered;
+    private volatile long failed;
+
+    Subscription(String name, GameEventListener listener, int capacity, Overflow overflow) {
+        this.listener = listener;
+        this.ring = new EventRing(capacity);
+        this.overflow = overflow;
+        this.thread = new Thread(this::drain, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Publisher thread only
+    void offer(long sequence, int type, int tableId, long handNumber, int seat, int action, int round,
+               long amount, long cards) {
+        GameEvent slot = ring.claim();
+        if (slot == null && overflow == Overflow.SPIN) {
+            for (int i = 0; i < SPIN_LIMIT && slot == null; i++) {
+                Thread.onSpinWait();
+                slot = ring.claim();
+            }
+        }
+        if (slot == null) {
+            dropped = dropped + 1; // single writer
+            return;
+        }
+        slot.set(sequence, type, tableId, handNumber, seat, action, round, amount, cards);
+        ring.publish();
+        if (sleeping) {
+            sleeping = false;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void drain() {
+        int idle = 0;
+        while (running) {
+            GameEvent event = ring.peek();
+            if (event == null) {
+                if (++idle < 64) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // Announce the nap and look once more; the timed park bounds
+                // the delay if a publish still slips in between
+                sleeping = true;
+                if (ring.peek() == null && running) {
+                    LockSupport.parkNanos(this, 1_000_000L);
+                }
+                sleeping = false;
+                idle = 0;
+                continue;
+            }
+            idle = 0;
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                // A failing listener must not stop the stream
+                failed = failed + 1;
+            } finally {
+                ring.release();
+                delivered = delivered + 1; // single writer
+            }
+        }
+    }
+
+    /** Stops the consumer thread once it has finished the event in hand. */
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    /** Events whose listener threw. */
+    public long getFailed() {
+        return failed;
+    }
+
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+}
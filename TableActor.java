@@ -0,0 +1,144 @@
+package logic;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import model.Player;
+
+/**
+ * Owns one {@link TexasHoldem} table and is the only thing that touches it.
+ *
+ * Any thread may send the actor a message (a command or a query); messages
+ * go into a lock-free multi-producer mailbox and are run one batch at a
+ * time on the given executor, so the table has a single writer at any
+ * moment without holding a lock, and many actors share a pool the way
+ * simulated tables do. Its {@link HandRunner} resumes in the mailbox too,
+ * so agent decisions arriving from timers, the network or the EDT are
+ * applied in order with everything else.
+ *
+ * Readers never see the live table: after each batch the actor publishes
+ * an immutable {@link TableSnapshot} and tells the snapshot listener.
+ */
+public class TableActor implements Executor {
+    // Messages run per turn before the actor yields its thread to other tables
+    private static final int MAX_BATCH = 256;
+
+    private final TexasHoldem game;
+    private final HandRunner runner;
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile TableSnapshot snapshot = TableSnapshot.EMPTY;
+    private volatile Consumer<TableSnapshot> snapshotListener;
+
+    /**
+     * @param agents agent per seat, indexed by {@link Player#getPosition()}
+     * @param executor runs the mailbox; a pool can carry any number of actors
+     */
+    public TableActor(TexasHoldem game, Agent[] agents, Executor executor) {
+        this.game = game;
+        this.executor = executor;
+        this.runner = new HandRunner(game, agents, this);
+        execute(() -> { }); // publishes the first snapshot
+    }
+
+    /** Queues a message for the table's thread. */
+    @Override
+    public void execute(Runnable message) {
+        mailbox.add(message);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /** Runs a query against the table in its mailbox; a query that throws fails the future. */
+    public <T> CompletableFuture<T> ask(Function<TexasHoldem, T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                result.complete(query.apply(game));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Plays the next hand. The future completes with the table as it was
+     * settled, or exceptionally if a hand was still in progress.
+     */
+    public CompletableFuture<TableSnapshot> playHand() {
+        CompletableFuture<TableSnapshot> result = new CompletableFuture<>();
+        execute(() -> {
+            CompletableFuture<Player> hand;
+            try {
+                hand = runner.playHandAsync();
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            hand.whenComplete((winner, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(TableSnapshot.of(game));
+                }
+            });
+        });
+        return result;
+    }
+
+    /** See {@link HandRunner#setDecisionTimeout}. */
+    public void setDecisionTimeout(long millis) {
+        execute(() -> runner.setDecisionTimeout(millis));
+    }
+
+    /** The table as of the end of the last batch of messages. */
+    public TableSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Told about every new snapshot, on the table's thread; keep it short. */
+    public void setSnapshotListener(Consumer<TableSnapshot> listener) {
+        this.snapshotListener = listener;
+    }
+
+    private void drain() {
+        try {
+            int count = 0;
+            Runnable message;
+            while (count < MAX_BATCH && (message = mailbox.poll()) != null) {
+                count++;
+                try {
+                    message.run();
+                } catch (RuntimeException e) {
+                    System.err.println("table " + game.getTableId() + ": message failed: " + e);
+                }
+            }
+            if (count > 0) {
+                TableSnapshot latest = TableSnapshot.of(game);
+                snapshot = latest;
+                Consumer<TableSnapshot> listener = snapshotListener;
+                if (listener != null) {
+                    try {
+                        listener.accept(latest);
+                    } catch (RuntimeException e) {
+                        System.err.println("table " + game.getTableId() + ": snapshot listener failed: " + e);
+                    }
+                }
+            }
+        } finally {
+            // Whatever failed above, the actor must stay schedulable
+            scheduled.set(false);
+            // A message added after the poll above but before the flag was cleared
+            // found the actor still scheduled, so check once more
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+}
@@ -1,28 +1,39 @@
 package ui;
 
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 import javax.swing.*;
 import model.Card;
-import model.Player;
+import logic.TableSnapshot;
 import logic.TexasHoldem;
+import metrics.Metrics;
 
 public class TablePanel extends JPanel {
     private static final long serialVersionUID = 1L;
     
-    private TexasHoldem game;
+    private final Supplier<TableSnapshot> snapshots;
+    private TableSnapshot game; // the snapshot being painted
     private int centerX;
     private int centerY;
     private int radius = 200;
     
-    public TablePanel(TexasHoldem game) {
-        this.game = game;
+    /** @param snapshots the table's latest snapshot; painting never touches the live table */
+    public TablePanel(Supplier<TableSnapshot> snapshots) {
+        this.snapshots = snapshots;
         setOpaque(false);
     }
     
     @Override
     protected void paintComponent(Graphics g) {
+        long start = Metrics.REPAINTS.start();
+        paintTable(g);
+        Metrics.REPAINTS.stop(start);
+    }
+    
+    private void paintTable(Graphics g) {
         super.paintComponent(g);
+        game = snapshots.get();
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
@@ -51,7 +62,7 @@ public class TablePanel extends JPanel {
     }
     
     private void drawCommunityCards(Graphics2D g2d) {
-        ArrayList<Card> communityCards = game.getCommunityCards();
+        List<Card> communityCards = game.getBoard();
         if (communityCards.isEmpty()) return;
         
         int cardWidth = 40;
@@ -76,12 +87,12 @@ public class TablePanel extends JPanel {
     }
     
     private void drawPlayers(Graphics2D g2d) {
-        ArrayList<Player> players = game.getPlayers();
+        List<TableSnapshot.Seat> players = game.getSeats();
         int numPlayers = players.size();
+        TableSnapshot.Seat currentPlayer = game.getCurrent();
         
         for (int i = 0; i < numPlayers; i++) {
-            Player player = players.get(i);
-            Player currentPlayer = game.getCurrentPlayer();
+            TableSnapshot.Seat player = players.get(i);
             
             // Calculate position using polar coordinates
             double angle = 2 * Math.PI * i / numPlayers;
@@ -89,7 +100,7 @@ public class TablePanel extends JPanel {
             int y = centerY + (int)(radius * Math.sin(angle));
             
             // Check if this player is the current player (highlight)
-            if (currentPlayer != null && currentPlayer.equals(player)) {
+            if (currentPlayer == player) {
                 g2d.setColor(Color.CYAN);
                 g2d.setStroke(new BasicStroke(3));
                 g2d.drawOval(x - 50, y - 40, 100, 80);
@@ -100,7 +111,7 @@ public class TablePanel extends JPanel {
         }
     }
     
-    private void drawPlayerInfo(Graphics2D g2d, int x, int y, Player player) {
+    private void drawPlayerInfo(Graphics2D g2d, int x, int y, TableSnapshot.Seat player) {
         // Draw player background
         Color bgColor = player.isAI() ? new Color(50, 50, 150, 200) : new Color(150, 50, 50, 200);
         g2d.setColor(bgColor);
@@ -127,7 +138,7 @@ public class TablePanel extends JPanel {
         g2d.setColor(Color.YELLOW);
         g2d.setFont(new Font("Arial", Font.PLAIN, 12));
         fm = g2d.getFontMetrics();
-        String chips = (int)player.getChips() + " chips";
+        String chips = player.getChips() + " chips";
         int chipsWidth = fm.stringWidth(chips);
         g2d.drawString(chips, x - chipsWidth / 2, y + 10);
         
@@ -147,9 +158,10 @@ public class TablePanel extends JPanel {
         }
         
         // Draw player cards
-        if (!player.isFolded() && player.getHand().size() >= 2) {
+        List<Card> holeCards = player.getHoleCards();
+        if (!player.isFolded() && holeCards.size() >= 2) {
             int cardY = y + 40;
-            int currentRound = game.getCurrentRound();
+            int currentRound = game.getRound();
             boolean isShowdown = (currentRound >= 4); // After river
             if (player.isAI() && !isShowdown && currentRound <= TexasHoldem.RIVER) {
                 // Draw face-down cards for AI
@@ -157,8 +169,8 @@ public class TablePanel extends JPanel {
                 drawCardBack(g2d, x + 5, cardY, 30, 40);
             } else {
                 // Draw actual cards
-                Card card1 = player.getHand().getCards().get(0);
-                Card card2 = player.getHand().getCards().get(1);
+                Card card1 = holeCards.get(0);
+                Card card2 = holeCards.get(1);
                 drawCard(g2d, x - 30, cardY, 30, 40, card1);
                 drawCard(g2d, x + 5, cardY, 30, 40, card2);
             }
@@ -0,0 +1,275 @@
+package history;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import logic.GameState;
+import logic.SeedTree;
+import logic.TexasHoldem;
+import model.Card;
+import model.Player;
+
+/**
+ * Brings a table back after a crash: its latest checkpoint restores the
+ * exact state at that moment, then the hand history records written after
+ * it are replayed through the engine the way {@link logic.HandRunner}
+ * played them, up to the last action before the crash.
+ *
+ * Seeded tables deal the replayed hands from their seed and every card is
+ * checked against the log. Other tables are dealt the logged cards from a
+ * stacked deck, and a hand cut short by the crash goes on from a freshly
+ * shuffled one. A table that ran dry and was re-seated (see
+ * {@link sim.TableSession}) is re-seated from the logged stacks. Any
+ * record the engine does not reproduce fails the recovery.
+ *
+ * Usage: {@code java history.TableRecovery CHECKPOINT_DIR TABLE
+ * [HISTORY_DIR PREFIX] [--seed N]}, which prints the recovered table.
+ */
+public class TableRecovery {
+    private final SeedTree seeds; // null for unseeded tables
+    private TexasHoldem game;
+
+    private TableRecovery(SeedTree seeds) {
+        this.seeds = seeds;
+    }
+
+    /**
+     * Restores table {@code tableId} from {@code store} and, if
+     * {@code historyDir} is given, replays its log {@code prefix} from the
+     * checkpoint on. Returns null if the table has no checkpoint.
+     *
+     * @param seeds the seed tree the table dealt from, or null
+     */
+    public static TexasHoldem recover(CheckpointStore store, int tableId, SeedTree seeds,
+                                      Path historyDir, String prefix) throws IOException {
+        CheckpointStore.Entry entry = store.latest(tableId);
+        if (entry == null) {
+            return null;
+        }
+        TableRecovery recovery = new TableRecovery(seeds);
+        recovery.game = recovery.newTable(tableId);
+        recovery.game.readCheckpoint(entry.getBody());
+        if (historyDir != null && entry.getLogSegment() >= 0
+                && Files.isRegularFile(HistoryWriter.segmentPath(historyDir, prefix, entry.getLogSegment()))) {
+            try (HistoryReader reader = new HistoryReader(historyDir, prefix, entry.getLogSegment(),
+                                                          entry.getLogOffset())) {
+                recovery.replay(reader);
+            }
+        }
+        return recovery.game;
+    }
+
+    private TexasHoldem newTable(int tableId) {
+        return seeds != null ? new TexasHoldem(seeds, tableId) : new TexasHoldem();
+    }
+
+    // Records are copied out first, so a hand's deal can be looked up ahead of its actions
+    private void replay(HistoryReader reader) throws IOException {
+        ArrayList<long[]> records = new ArrayList<>();
+        while (reader.next()) {
+            HandRecord record = reader.record();
+            records.add(new long[] {record.getType(), record.getSeat(), record.getAction(), record.getCard(0),
+                                    record.getCard(1), record.getCard(2), record.getAux(), record.getAmount()});
+        }
+        boolean settled = !game.isHandInProgress();
+        boolean stacked = false;
+        if (!settled && seeds == null) {
+            // The checkpoint does not hold the random source, so deal the
+            // rest of the hand it caught from the log as well
+            int[] deal = loggedDeal(records, -1);
+            game.setRemainingDeal(deal, deal.length);
+            stacked = true;
+        }
+        for (int i = 0; i < records.size(); i++) {
+            long[] r = records.get(i);
+            int type = (int) r[0];
+            int seat = (int) r[1];
+            switch (type) {
+                case HandRecord.HAND_START:
+                    if (!settled) {
+                        throw mismatch(i, "a new hand started before the last one was settled");
+                    }
+                    startHand(records, i);
+                    stacked = seeds == null;
+                    settled = false;
+                    break;
+                case HandRecord.HOLE: {
+                    Player player = game.getPlayerAt(seat);
+                    if (player.getHand().size() != 2 || player.getHand().getCard(0).getIndex() != r[3]
+                            || player.getHand().getCard(1).getIndex() != r[4]) {
+                        throw mismatch(i, "seat " + seat + " was dealt other hole cards");
+                    }
+                    break;
+                }
+                case HandRecord.ACTION:
+                    act(i, game.getPlayerAt(seat), (int) r[2], r[7]);
+                    break;
+                case HandRecord.BOARD:
+                    game.resetBets();
+                    int round = (int) r[2];
+                    if (round == TexasHoldem.FLOP) {
+                        game.dealFlop();
+                    } else if (round == TexasHoldem.TURN) {
+                        game.dealTurn();
+                    } else {
+                        game.dealRiver();
+                    }
+                    ArrayList<Card> board = game.getCommunityCards();
+                    int from = round == TexasHoldem.FLOP ? 0 : board.size() - 1;
+                    for (int c = from; c < board.size(); c++) {
+                        if (board.get(c).getIndex() != r[3 + c - from]) {
+                            throw mismatch(i, "other community cards were dealt");
+                        }
+                    }
+                    break;
+                case HandRecord.WIN:
+                case HandRecord.HAND_END:
+                    if (!settled) {
+                        // The engine writes all of these while settling, so the
+                        // first one means the hand was settled
+                        game.resetBets();
+                        if (game.determineWinner() != null) {
+                            game.distributePots();
+                        }
+                        settled = true;
+                    }
+                    if (type == HandRecord.WIN && game.getWinnings(game.getPlayerAt(seat)) != r[7]) {
+                        throw mismatch(i, "seat " + seat + " was paid differently");
+                    }
+                    break;
+                default:
+                    // SEAT and BLIND are checked when the hand is started
+                    break;
+            }
+        }
+        if (!settled && stacked) {
+            // The rest of the interrupted hand was never dealt, so it stays random
+            game.shuffleRemaining();
+        }
+    }
+
+    private void startHand(ArrayList<long[]> records, int start) throws IOException {
+        long[] header = records.get(start);
+        long handNumber = header[7];
+        int seatCount = (int) header[2];
+        int withChips = 0;
+        for (Player player : game.getPlayers()) {
+            withChips += player.hasChips() ? 1 : 0;
+        }
+        if (withChips < 2) {
+            reseat(records, start, seatCount);
+        }
+        // The button moves on from the restored one by itself
+        game.setNextHandNumber(handNumber);
+        if (seeds == null) {
+            int[] deal = loggedDeal(records, start);
+            game.setNextDeal(deal, deal.length);
+        }
+        game.startNewHand();
+        if (game.getHandNumber() != handNumber || game.getPlayers().size() != seatCount) {
+            throw mismatch(start, "hand " + handNumber + " could not be dealt with the recovered seats");
+        }
+        for (int i = start + 1; i < records.size() && i <= start + seatCount; i++) {
+            long[] r = records.get(i);
+            if (r[0] == HandRecord.SEAT && game.getPlayerAt((int) r[1]).getChips()
+                    + game.getPlayerAt((int) r[1]).getCurrentBet() != r[7]) {
+                throw mismatch(i, "seat " + r[1] + " started the hand with another stack");
+            }
+        }
+    }
+
+    // Seats fresh stacks from the hand's SEAT records, keeping names by seat
+    private void reseat(ArrayList<long[]> records, int start, int seatCount) throws IOException {
+        TexasHoldem fresh = newTable(game.getTableId());
+        fresh.setBlinds(game.getSmallBlind(), game.getBigBlind());
+        for (int i = start + 1; i <= start + seatCount && i < records.size(); i++) {
+            long[] r = records.get(i);
+            if (r[0] != HandRecord.SEAT || r[1] != fresh.getPlayers().size()) {
+                throw mismatch(i, "re-seated players do not match");
+            }
+            Player old = game.getPlayerAt((int) r[1]);
+            Player player = new Player(old != null ? old.getName() : "Seat " + r[1], r[7], old == null || old.isAI());
+            player.setId((int) r[6]);
+            fresh.addPlayer(player);
+        }
+        game = fresh;
+    }
+
+    // Hole cards in dealing order, then burn and flop, burn and turn, burn and
+    // river, from the records after start up to the next hand
+    private static int[] loggedDeal(ArrayList<long[]> records, int start) {
+        ArrayList<Integer> deal = new ArrayList<>();
+        for (int i = start + 1; i < records.size() && records.get(i)[0] != HandRecord.HAND_START; i++) {
+            long[] r = records.get(i);
+            if (r[0] == HandRecord.HOLE) {
+                deal.add((int) r[3]);
+                deal.add((int) r[4]);
+            } else if (r[0] == HandRecord.BOARD) {
+                deal.add(-1);
+                for (int c = 3; c <= 5 && r[c] != HandRecord.NO_CARD; c++) {
+                    deal.add((int) r[c]);
+                }
+            }
+        }
+        int[] order = new int[Card.NUM_CARDS];
+        Arrays.fill(order, -1);
+        for (int i = 0; i < deal.size(); i++) {
+            order[i] = deal.get(i);
+        }
+        return order;
+    }
+
+    private void act(int index, Player player, int code, long chips) throws IOException {
+        long before = game.getPot();
+        long toCall = game.getCurrentBetLevel() - player.getCurrentBet();
+        long raise = code == GameState.RAISE ? chips - toCall : 0;
+        game.processPlayerAction(player, GameState.actionName(code), raise);
+        if (game.getPot() - before != chips) {
+            throw mismatch(index, "seat " + player.getSeat() + " put in " + (game.getPot() - before)
+                                  + " instead of " + chips);
+        }
+    }
+
+    private IOException mismatch(int index, String what) {
+        return new IOException("Log does not replay from the checkpoint: record " + index + " after it: " + what);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Long seed = null;
+        ArrayList<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() != 2 && positional.size() != 4) {
+            System.err.println("Usage: java history.TableRecovery CHECKPOINT_DIR TABLE [HISTORY_DIR PREFIX] [--seed N]");
+            System.exit(2);
+        }
+        int tableId = Integer.parseInt(positional.get(1));
+        Path historyDir = positional.size() == 4 ? Paths.get(positional.get(2)) : null;
+        String prefix = positional.size() == 4 ? positional.get(3) : null;
+
+        TexasHoldem game;
+        try (CheckpointStore store = new CheckpointStore(Paths.get(positional.get(0)))) {
+            game = recover(store, tableId, seed != null ? new SeedTree(seed) : null, historyDir, prefix);
+        }
+        if (game == null) {
+            System.err.println("No checkpoint for table " + tableId);
+            System.exit(1);
+        }
+        System.out.printf("table %d, hand %d %s, pot %d, board %s%n", tableId, game.getHandNumber(),
+            game.isHandInProgress() ? "in progress (round " + game.getCurrentRound() + ")" : "settled",
+            game.getPot(), game.getCommunityCards());
+        for (Player player : game.getPlayers()) {
+            System.out.printf("  seat %d %-12s %8d chips, bet %d%s%s%n", player.getSeat(), player.getName(),
+                player.getChips(), player.getCurrentBet(), player.isFolded() ? ", folded" : "",
+                player.getHand().size() > 0 ? ", " + player.getHand().getCards() : "");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package sim;
+
+import history.HistoryWriter;
+import java.util.SplittableRandom;
+import logic.Agent;
+import logic.HandRunner;
+import logic.SeedTree;
+import logic.TexasHoldem;
+import model.Player;
+
+/**
+ * One simulated table played hand after hand. When fewer than two players
+ * have chips left the table is re-seated with fresh stacks, continuing the
+ * hand numbering so every hand still has its own seeded deal.
+ */
+public class TableSession {
+    private final SeedTree seeds;
+    private final int tableId;
+    private final String[] agentTypes;
+    private final long startingStack;
+    private final SplittableRandom agentRandom;
+
+    private HandRunner runner;
+    private HistoryWriter history;
+    private long hands;
+    private long actions;
+    private long showdowns;
+    private long rebuys;
+
+    public TableSession(SeedTree seeds, int tableId, String[] agentTypes, long startingStack) {
+        this.seeds = seeds;
+        this.tableId = tableId;
+        this.agentTypes = agentTypes;
+        this.startingStack = startingStack;
+        this.agentRandom = seeds.tableRandom(tableId);
+        seatPlayers();
+    }
+
+    private void seatPlayers() {
+        if (runner != null) {
+            runner.getGame().flushMetrics();
+            actions += runner.getActions();
+            rebuys++;
+        }
+        TexasHoldem game = new TexasHoldem(seeds, tableId);
+        game.setNextHandNumber(hands + 1);
+        game.setHistory(history);
+        Agent[] agents = new Agent[agentTypes.length];
+        for (int seat = 0; seat < agentTypes.length; seat++) {
+            String name = agentTypes[seat] + "-" + seat;
+            Player player = new Player(name, startingStack, true);
+            player.setId(seat);
+            game.addPlayer(player);
+            agents[seat] = Agents.create(agentTypes[seat], name, agentRandom.split());
+        }
+        runner = new HandRunner(game, agents);
+    }
+
+    /** Plays the next hand, re-seating the table first if it has run dry. */
+    public void playHand() {
+        Player winner = runner.playHand();
+        if (winner == null) {
+            seatPlayers();
+            winner = runner.playHand();
+        }
+        hands++;
+        if (runner.getGame().isShowdown()) {
+            showdowns++;
+        }
+    }
+
+    /** Records this table's hands, including after re-seating; null stops recording. */
+    public void setHistory(HistoryWriter history) {
+        this.history = history;
+        runner.getGame().setHistory(history);
+    }
+
+    public TexasHoldem getGame() {
+        return runner.getGame();
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public long getActions() {
+        return actions + runner.getActions();
+    }
+
+    public long getShowdowns() {
+        return showdowns;
+    }
+
+    public long getRebuys() {
+        return rebuys;
+    }
+}
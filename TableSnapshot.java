@@ -0,0 +1,175 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.Card;
+import model.Hand;
+import model.HandEvaluator;
+import model.Player;
+
+/**
+ * Immutable copy of a table at one moment, safe to read from any thread.
+ *
+ * The table's owner (a {@link TableActor}, or whoever a remote mirror runs
+ * on) takes one whenever the table changed and publishes it through a
+ * volatile field; readers such as the GUI only ever see complete
+ * snapshots and never touch the live players.
+ */
+public final class TableSnapshot {
+    public static final TableSnapshot EMPTY = new TableSnapshot(0, TexasHoldem.PRE_FLOP, 0, 0, -1,
+                                                                List.of(), List.of());
+
+    private final long handNumber;
+    private final int round;
+    private final long pot;
+    private final long betLevel;
+    private final int currentSeat;
+    private final List<Card> board;
+    private final long boardMask;
+    private final List<Seat> seats;
+
+    private TableSnapshot(long handNumber, int round, long pot, long betLevel, int currentSeat,
+                          List<Card> board, List<Seat> seats) {
+        this.handNumber = handNumber;
+        this.round = round;
+        this.pot = pot;
+        this.betLevel = betLevel;
+        this.currentSeat = currentSeat;
+        this.board = board;
+        this.boardMask = Hand.maskOf(board);
+        this.seats = seats;
+    }
+
+    /** Copies the table; must run on the thread that owns it. */
+    public static TableSnapshot of(TableView table) {
+        ArrayList<Player> players = table.getPlayers();
+        Seat[] seats = new Seat[players.size()];
+        for (int i = 0; i < seats.length; i++) {
+            Player player = players.get(i);
+            seats[i] = new Seat(player, table.getWinnings(player));
+        }
+        Player current = table.getCurrentPlayer();
+        return new TableSnapshot(table.getHandNumber(), table.getCurrentRound(), table.getPot(),
+                                 table.getCurrentBetLevel(), current != null ? current.getPosition() : -1,
+                                 List.copyOf(table.getCommunityCards()), List.of(seats));
+    }
+
+    public long getHandNumber() {
+        return handNumber;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public long getPot() {
+        return pot;
+    }
+
+    public long getBetLevel() {
+        return betLevel;
+    }
+
+    public List<Card> getBoard() {
+        return board;
+    }
+
+    /** Seats in table order. */
+    public List<Seat> getSeats() {
+        return seats;
+    }
+
+    /** The seat at a position, or null if nobody sits there. */
+    public Seat getSeat(int position) {
+        for (Seat seat : seats) {
+            if (seat.position == position) {
+                return seat;
+            }
+        }
+        return null;
+    }
+
+    /** The seat to act, or null if nobody is. */
+    public Seat getCurrent() {
+        return currentSeat >= 0 ? getSeat(currentSeat) : null;
+    }
+
+    /** The seat that collected the most when the last hand was settled, or null. */
+    public Seat getWinner() {
+        Seat winner = null;
+        for (Seat seat : seats) {
+            if (seat.winnings > 0 && (winner == null || seat.winnings > winner.winnings)) {
+                winner = seat;
+            }
+        }
+        return winner;
+    }
+
+    /** {@link HandEvaluator} rank of a seat's hole cards with the board. */
+    public int getHandRank(Seat seat) {
+        return HandEvaluator.evaluate(seat.holeMask | boardMask);
+    }
+
+    /** One player as the snapshot saw them. */
+    public static final class Seat {
+        private final int position;
+        private final String name;
+        private final boolean ai;
+        private final long chips;
+        private final long currentBet;
+        private final boolean folded;
+        private final boolean allIn;
+        private final List<Card> holeCards;
+        private final long holeMask;
+        private final long winnings;
+
+        private Seat(Player player, long winnings) {
+            this.position = player.getPosition();
+            this.name = player.getName();
+            this.ai = player.isAI();
+            this.chips = player.getChips();
+            this.currentBet = player.getCurrentBet();
+            this.folded = player.isFolded();
+            this.allIn = player.isAllIn();
+            this.holeCards = List.copyOf(player.getHand().getCards());
+            this.holeMask = Hand.maskOf(holeCards);
+            this.winnings = winnings;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isAI() {
+            return ai;
+        }
+
+        public long getChips() {
+            return chips;
+        }
+
+        public long getCurrentBet() {
+            return currentBet;
+        }
+
+        public boolean isFolded() {
+            return folded;
+        }
+
+        public boolean isAllIn() {
+            return allIn;
+        }
+
+        public List<Card> getHoleCards() {
+            return holeCards;
+        }
+
+        public long getWinnings() {
+            return winnings;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Seat state of one table in primitive arrays (struct of arrays): chip
+ * stacks, current bets, chips committed this hand, a status bitfield and
+ * hole cards as card masks. Chip amounts are exact {@code long} units.
+ * A full table costs a few hundred bytes in six arrays, copies with
+ * {@link System#arraycopy}, and keeps a street's hot data contiguous.
+ * {@link Player} is a façade over one seat of it.
+ */
+public class TableState {
+    public static final int MAX_SEATS = 10;
+
+    public static final int OCCUPIED = 1;
+    public static final int AI = 1 << 1;
+    public static final int FOLDED = 1 << 2;
+    public static final int ALL_IN = 1 << 3;
+    public static final int VACANT = 1 << 4; // released for good, see release()
+
+    private final long[] chips;
+    private final long[] bets;
+    private final long[] committed; // total put in this hand, for side pots
+    private final int[] status;
+    private final long[] holeCards;
+    private int seatCount;
+
+    public TableState() {
+        this(MAX_SEATS);
+    }
+
+    public TableState(int capacity) {
+        chips = new long[capacity];
+        bets = new long[capacity];
+        committed = new long[capacity];
+        status = new int[capacity];
+        holeCards = new long[capacity];
+    }
+
+    /** Claims the first released seat, or else the next free one, and returns its index. */
+    public int addSeat(long stack, boolean ai) {
+        int seat = 0;
+        while (seat < seatCount && (status[seat] & VACANT) == 0) {
+            seat++;
+        }
+        if (seat == chips.length) {
+            throw new IllegalStateException("Table is full (" + chips.length + " seats)");
+        }
+        if (seat == seatCount) {
+            seatCount++;
+        }
+        chips[seat] = stack;
+        bets[seat] = 0;
+        committed[seat] = 0;
+        status[seat] = OCCUPIED | (ai ? AI : 0);
+        holeCards[seat] = 0L;
+        return seat;
+    }
+
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    public int getCapacity() {
+        return chips.length;
+    }
+
+    public long getChips(int seat) {
+        return chips[seat];
+    }
+
+    public void setChips(int seat, long amount) {
+        chips[seat] = amount;
+    }
+
+    public long getBet(int seat) {
+        return bets[seat];
+    }
+
+    public void setBet(int seat, long amount) {
+        bets[seat] = amount;
+    }
+
+    public int getStatus(int seat) {
+        return status[seat];
+    }
+
+    public boolean is(int seat, int flag) {
+        return (status[seat] & flag) != 0;
+    }
+
+    public void set(int seat, int flag, boolean on) {
+        status[seat] = on ? status[seat] | flag : status[seat] & ~flag;
+    }
+
+    public long getHoleCards(int seat) {
+        return holeCards[seat];
+    }
+
+    public void addHoleCard(int seat, Card card) {
+        holeCards[seat] |= card.getMask();
+    }
+
+    /** Moves chips from the stack into the seat's bet; a bet of the whole stack is all-in. */
+    public void bet(int seat, long amount) {
+        if (amount >= chips[seat]) {
+            amount = chips[seat];
+            status[seat] |= ALL_IN;
+        }
+        bets[seat] += amount;
+        committed[seat] += amount;
+        chips[seat] -= amount;
+    }
+
+    public void call(int seat, long amount) {
+        long callAmount = Math.min(amount, chips[seat]);
+        if (callAmount >= chips[seat]) {
+            status[seat] |= ALL_IN;
+        }
+        bet(seat, callAmount);
+    }
+
+    /** Chips this seat has put into the pot so far this hand. */
+    public long getCommitted(int seat) {
+        return committed[seat];
+    }
+
+    public void setCommitted(int seat, long amount) {
+        committed[seat] = amount;
+    }
+
+    /** Clears per-hand seat state: bet, committed chips, folded, all-in and hole cards. */
+    public void newHand(int seat) {
+        bets[seat] = 0;
+        committed[seat] = 0;
+        status[seat] &= ~(FOLDED | ALL_IN);
+        holeCards[seat] = 0L;
+    }
+
+    /**
+     * Gives a seat up for good: it is emptied and the next {@link #addSeat}
+     * may hand it to somebody else. Seats left unoccupied any other way,
+     * like those of broke players, stay theirs.
+     */
+    public void release(int seat) {
+        newHand(seat);
+        chips[seat] = 0;
+        status[seat] = VACANT;
+    }
+
+    /** Writes every claimed seat: count, then chips, bet, committed, status and hole cards per seat. */
+    public void writeState(ByteBuffer out) {
+        out.put((byte) seatCount);
+        for (int seat = 0; seat < seatCount; seat++) {
+            out.putLong(chips[seat]).putLong(bets[seat]).putLong(committed[seat])
+               .putInt(status[seat]).putLong(holeCards[seat]);
+        }
+    }
+
+    /** Replaces all seats with ones written by {@link #writeState}. */
+    public void readState(ByteBuffer in) {
+        int n = in.get();
+        if (n < 0 || n > chips.length) {
+            throw new IllegalArgumentException("Bad seat count " + n + " for " + chips.length + " seats");
+        }
+        for (int seat = 0; seat < n; seat++) {
+            chips[seat] = in.getLong();
+            bets[seat] = in.getLong();
+            committed[seat] = in.getLong();
+            status[seat] = in.getInt();
+            holeCards[seat] = in.getLong();
+        }
+        seatCount = n;
+    }
+
+    /** Copies another table's seats into this one; capacities must match. */
+    public void copyFrom(TableState other) {
+        int n = other.seatCount;
+        System.arraycopy(other.chips, 0, chips, 0, n);
+        System.arraycopy(other.bets, 0, bets, 0, n);
+        System.arraycopy(other.committed, 0, committed, 0, n);
+        System.arraycopy(other.status, 0, status, 0, n);
+        System.arraycopy(other.holeCards, 0, holeCards, 0, n);
+        seatCount = n;
+    }
+}
@@ -0,0 +1,34 @@
+package logic;
+
+import java.util.ArrayList;
+import model.Card;
+import model.Player;
+
+/**
+ * Read-only view of a table as players and the UI see it: seats, board,
+ * pot and whose turn it is. The engine is one; a mirror of a table played
+ * on a server is another, so agents and the GUI work with either.
+ */
+public interface TableView {
+    ArrayList<Player> getPlayers();
+
+    ArrayList<Card> getCommunityCards();
+
+    long getPot();
+
+    long getHandNumber();
+
+    int getTableId();
+
+    int getCurrentRound();
+
+    long getCurrentBetLevel();
+
+    /** The player to act, or null if nobody is. */
+    Player getCurrentPlayer();
+
+    Player getPlayerAt(int seat);
+
+    /** Chips a player collected when the last hand was settled. */
+    long getWinnings(Player player);
+}
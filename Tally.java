@@ -0,0 +1,61 @@
+package equity;
+
+/**
+ * Mergeable win/tie/lose counters for one worker. Each worker fills its own
+ * instance and the results are merged once it is done, so no counter is
+ * ever shared between threads.
+ */
+class Tally {
+    long wins;
+    long ties;
+    long losses;
+    double equitySum;
+    double equitySquares;
+    long rejected; // deals given up on because the holdings kept colliding
+
+    /**
+     * Records one showdown given the hero's rank, the best opposing rank and
+     * how many opponents hold exactly that best rank.
+     */
+    void record(int heroRank, int bestOpponent, int opponentsAtBest) {
+        if (heroRank > bestOpponent) {
+            wins++;
+            equitySum += 1.0;
+            equitySquares += 1.0;
+        } else if (heroRank == bestOpponent) {
+            ties++;
+            double share = 1.0 / (opponentsAtBest + 1);
+            equitySum += share;
+            equitySquares += share * share;
+        } else {
+            losses++;
+        }
+    }
+
+    long count() {
+        return wins + ties + losses;
+    }
+
+    void merge(Tally other) {
+        wins += other.wins;
+        ties += other.ties;
+        losses += other.losses;
+        equitySum += other.equitySum;
+        equitySquares += other.equitySquares;
+        rejected += other.rejected;
+    }
+
+    EquityResult toResult(boolean exact) {
+        long n = count();
+        if (n == 0) {
+            return new EquityResult(0, 0.0, 0.0, 0.0, 0.0, exact ? 0.0 : 1.0);
+        }
+        double mean = equitySum / n;
+        double halfWidth = 0.0;
+        if (!exact) {
+            double variance = Math.max(0.0, equitySquares / n - mean * mean);
+            halfWidth = 1.96 * Math.sqrt(variance / n);
+        }
+        return new EquityResult(n, (double) wins / n, (double) ties / n, (double) losses / n, mean, halfWidth);
+    }
+}
@@ -1,22 +1,64 @@
 package logic;
 
 import java.util.ArrayList;
+import event.EventBus;
+import event.GameEvent;
+import history.HandRecord;
+import history.HistoryWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import metrics.ActionEvent;
+import metrics.HandEvent;
+import metrics.Metrics;
+import metrics.ShowdownEvent;
+import model.BoardAnalysis;
 import model.Card;
 import model.Deck;
+import model.HandState;
 import model.Player;
+import model.SplitMix64;
+import model.TableState;
 
-public class TexasHoldem {
+public class TexasHoldem implements TableView {
     private ArrayList<Player> players;
+    private TableState seats;
     private Deck deck;
     private ArrayList<Card> communityCards;
-    private int pot;
-    private int currentRound;
-    private int currentPlayerIndex;
-    private double currentBetLevel;
+    private long communityMask;
+    private HandState boardState;
+    private BoardAnalysis boardAnalysis;
+    // Pot, bet level, round, player to act and seat state
+    private GameState state;
+    private Player[] bySeat;
+    private SidePots sidePots;
+    private int[] showdownRanks;
+    private long[] winnings;
+    private boolean showdown; // the last settled hand went to a contested showdown
+    private HistoryWriter history; // null when not recording
+    private EventBus events; // null when nobody listens
+    private long smallBlindAmount = SMALL_BLIND;
+    private long bigBlindAmount = BIG_BLIND;
+    private int[] presetDeal; // stacked deck for the next hand, or null
+    private int presetCount;
     private int dealerIndex = 0;
     private int smallBlindIndex;
     private int bigBlindIndex;
     
+    // Seeded tables re-seed the deck from (seed, table, hand) every hand
+    private SeedTree seeds;
+    private int tableId;
+    private long handNumber;
+    private SplitMix64 dealRandom;
+    
+    // Counted here and added to Metrics once per report period (or every
+    // METRICS_BATCH hands), so the hot path never touches a shared counter
+    private static final int METRICS_BATCH = 64;
+    private long metricsHands;
+    private long metricsActions;
+    private long metricsPeriod;
+    private HandEvent handEvent; // null unless a flight recording wants hands
+    
     public static final int PRE_FLOP = 0;
     public static final int FLOP = 1;
     public static final int TURN = 2;
@@ -28,18 +70,66 @@ public class TexasHoldem {
     
     public TexasHoldem() {
         players = new ArrayList<>();
+        seats = new TableState();
+        state = new GameState(seats, 0);
+        bySeat = new Player[seats.getCapacity()];
+        sidePots = new SidePots();
+        showdownRanks = new int[seats.getCapacity()];
+        winnings = new long[seats.getCapacity()];
         deck = new Deck();
         communityCards = new ArrayList<>();
-        pot = 0;
-        currentRound = PRE_FLOP;
+        boardState = new HandState();
+        boardAnalysis = new BoardAnalysis();
     }
     
+    public TexasHoldem(SeedTree seeds, int tableId) {
+        this();
+        this.seeds = seeds;
+        this.tableId = tableId;
+        this.dealRandom = new SplitMix64(0L);
+        deck.setRandom(dealRandom);
+    }
+    
+    // A player's position is its seat index at this table; players are kept in
+    // seat order and the button stays with its player
     public void addPlayer(Player player) {
-        players.add(player);
+        player.attach(seats);
+        player.setPosition(player.getSeat());
+        bySeat[player.getSeat()] = player;
+        int index = players.size();
+        while (index > 0 && players.get(index - 1).getSeat() > player.getSeat()) {
+            index--;
+        }
+        players.add(index, player);
+        if (index <= dealerIndex && players.size() > 1) {
+            dealerIndex++;
+        }
+    }
+    
+    /**
+     * Takes a player off the table between hands and releases the seat for
+     * the next {@link #addPlayer}. The button moves on to the next player as
+     * usual.
+     */
+    public void removePlayer(Player player) {
+        int index = players.indexOf(player);
+        if (index >= 0) {
+            players.remove(index);
+            if (index <= dealerIndex) {
+                dealerIndex--;
+            }
+        }
+        seats.release(player.getSeat());
     }
     
     public void startNewHand() {
         // Remove players with no chips
+        for (Player player : players) {
+            if (!player.hasChips()) {
+                seats.newHand(player.getSeat());
+                seats.set(player.getSeat(), TableState.OCCUPIED, false);
+            }
+        }
         players.removeIf(p -> !p.hasChips());
         
         if (players.size() < 2) {
@@ -47,141 +137,389 @@ public class TexasHoldem {
         }
         
         // Reset for new hand
-        deck.reset();
-        deck.shuffle();
+        handNumber++;
+        showdown = false;
+        if (seeds != null) {
+            dealRandom.setSeed(seeds.handSeed(tableId, handNumber));
+        }
+        if (presetDeal != null) {
+            deck.arrange(presetDeal, presetCount);
+            presetDeal = null;
+        } else {
+            deck.reset();
+            deck.shuffle();
+        }
         communityCards.clear();
-        pot = 0;
-        currentRound = PRE_FLOP;
-        currentBetLevel = 0;
+        communityMask = 0L;
+        boardState.clear();
+        boardAnalysis.clear();
+        state.clearHistory();
+        state.setPot(0);
+        state.setRound(PRE_FLOP);
+        state.setBetLevel(0);
+        state.setActed(0L);
         
         // Set dealer position (rotate)
         dealerIndex = (dealerIndex + 1) % players.size();
-        smallBlindIndex = (dealerIndex + 1) % players.size();
+        // Heads-up the dealer posts the small blind
+        smallBlindIndex = players.size() == 2 ? dealerIndex : (dealerIndex + 1) % players.size();
         bigBlindIndex = (smallBlindIndex + 1) % players.size();
+        state.setButton(players.get(dealerIndex).getSeat());
         
         // Reset all players for new hand
+        Arrays.fill(winnings, 0);
         for (Player player : players) {
             player.newHand();
         }
         
-        // Post blinds
-        if (players.size() > 2) {
-            players.get(smallBlindIndex).bet(SMALL_BLIND);
-            players.get(bigBlindIndex).bet(BIG_BLIND);
-            pot += SMALL_BLIND + BIG_BLIND;
-            currentBetLevel = BIG_BLIND;
+        if (++metricsHands >= METRICS_BATCH || metricsPeriod != Metrics.period()) {
+            flushMetrics();
+        }
+        handEvent = HandEvent.start();
+        if (history != null) {
+            history.append(HandRecord.HAND_START, players.get(dealerIndex).getSeat(), players.size(),
+                           HandRecord.NO_CARD, HandRecord.NO_CARD, HandRecord.NO_CARD, tableId, handNumber);
+            for (Player player : players) {
+                history.append(HandRecord.SEAT, player.getSeat(), 0, HandRecord.NO_CARD, HandRecord.NO_CARD,
+                               HandRecord.NO_CARD, player.getId(), player.getChips());
+            }
         }
         
+        // Post blinds (a short stack posts what it has)
+        Player smallBlind = players.get(smallBlindIndex);
+        Player bigBlind = players.get(bigBlindIndex);
+        smallBlind.bet(smallBlindAmount);
+        bigBlind.bet(bigBlindAmount);
+        if (history != null) {
+            logBlind(smallBlind);
+            logBlind(bigBlind);
+        }
+        if (events != null) {
+            publish(GameEvent.HAND_START, players.get(dealerIndex).getSeat(), 0, handNumber, 0L);
+            publish(GameEvent.BLIND, smallBlind.getSeat(), 0, smallBlind.getCurrentBet(), 0L);
+            publish(GameEvent.BLIND, bigBlind.getSeat(), 0, bigBlind.getCurrentBet(), 0L);
+        }
+        state.setPot(smallBlind.getCurrentBet() + bigBlind.getCurrentBet());
+        state.setBetLevel(bigBlindAmount);
+        
         // Deal hole cards
         dealHoleCards();
         
         // Start first betting round
-        currentPlayerIndex = (bigBlindIndex + 1) % players.size();
+        state.setCurrentSeat(players.get((bigBlindIndex + 1) % players.size()).getSeat());
     }
     
     private void dealHoleCards() {
         for (Player player : players) {
-            player.getHand().addCard(deck.deal());
-            player.getHand().addCard(deck.deal());
+            player.dealCard(deck.deal());
+            player.dealCard(deck.deal());
+            if (history != null) {
+                history.append(HandRecord.HOLE, player.getSeat(), 0, player.getHand().getCard(0).getIndex(),
+                               player.getHand().getCard(1).getIndex(), HandRecord.NO_CARD, 0, 0);
+            }
+            if (events != null) {
+                publish(GameEvent.HOLE, player.getSeat(), 0, 0, player.getHand().getMask());
+            }
         }
     }
     
+    private void logBlind(Player player) {
+        history.append(HandRecord.BLIND, player.getSeat(), 0, HandRecord.NO_CARD, HandRecord.NO_CARD,
+                       HandRecord.NO_CARD, 0, player.getCurrentBet());
+    }
+    
+    // Logs the community cards dealt from index 'from' on
+    private void logBoard(int from) {
+        int size = communityCards.size();
+        history.append(HandRecord.BOARD, -1, state.getRound(), communityCards.get(from).getIndex(),
+                       from + 1 < size ? communityCards.get(from + 1).getIndex() : HandRecord.NO_CARD,
+                       from + 2 < size ? communityCards.get(from + 2).getIndex() : HandRecord.NO_CARD, 0, 0);
+    }
+    
+    private void dealCommunityCard() {
+        dealtToBoard(deck.deal());
+    }
+    
+    private void dealtToBoard(Card card) {
+        communityCards.add(card);
+        communityMask |= card.getMask();
+        boardState.addCard(card);
+    }
+    
     public void dealFlop() {
         deck.deal(); // Burn card
-        communityCards.add(deck.deal());
-        communityCards.add(deck.deal());
-        communityCards.add(deck.deal());
-        currentRound = FLOP;
+        dealCommunityCard();
+        dealCommunityCard();
+        dealCommunityCard();
+        boardAnalysis.update(boardState);
+        state.openStreet(FLOP);
+        if (history != null) {
+            logBoard(0);
+        }
+        if (events != null) {
+            publish(GameEvent.STREET, -1, 0, 0, communityMask);
+        }
     }
     
     public void dealTurn() {
         deck.deal(); // Burn card
-        communityCards.add(deck.deal());
-        currentRound = TURN;
+        dealCommunityCard();
+        boardAnalysis.update(boardState);
+        state.openStreet(TURN);
+        if (history != null) {
+            logBoard(3);
+        }
+        if (events != null) {
+            publish(GameEvent.STREET, -1, 0, 0, communityMask);
+        }
     }
     
     public void dealRiver() {
         deck.deal(); // Burn card
-        communityCards.add(deck.deal());
-        currentRound = RIVER;
+        dealCommunityCard();
+        boardAnalysis.update(boardState);
+        state.openStreet(RIVER);
+        if (history != null) {
+            logBoard(4);
+        }
+        if (events != null) {
+            publish(GameEvent.STREET, -1, 0, 0, communityMask);
+        }
     }
     
-    public void processPlayerAction(String action, double amount) {
-        Player player = players.get(currentPlayerIndex);
-        
-        if (player.isFolded() || player.isAllIn()) {
-            moveToNextPlayer();
+    public void processPlayerAction(String action, long amount) {
+        ActionEvent event = ActionEvent.start();
+        int seat = state.getCurrentSeat();
+        long potBefore = state.getPot();
+        applyAction(action, amount);
+        if (event != null && event.shouldCommit()) {
+            event.tableId = tableId;
+            event.handNumber = handNumber;
+            event.street = roundName(state.getRound());
+            event.seat = seat;
+            event.action = action;
+            event.chips = state.getPot() - potBefore;
+            event.pot = state.getPot();
+            event.commit();
+        }
+    }
+    
+    private void applyAction(String action, long amount) {
+        metricsActions++;
+        int code = GameState.actionCode(action);
+        if (history == null && events == null) {
+            state.apply(code, amount);
             return;
         }
-        
-        double betToCall = currentBetLevel - player.getCurrentBet();
-        
-        switch (action.toLowerCase()) {
-            case "fold":
-                player.fold();
-                break;
-            case "check":
-                // Check is only valid if there's no bet to call
-                // If there is a bet to call, just leave current bet as is
-                break;
-            case "call":
-                double callAmount = Math.min(betToCall, player.getChips());
-                player.call(callAmount);
-                pot += callAmount;
-                if (callAmount < betToCall) {
-                    player.isAllIn(); // All-in on call
-                }
-                break;
-            case "raise":
-                double totalRaise = betToCall + amount;
-                double actualRaise = Math.min(totalRaise, player.getChips());
-                player.bet(actualRaise);
-                pot += actualRaise;
-                currentBetLevel = player.getCurrentBet();
-                break;
+        int seat = state.getCurrentSeat();
+        boolean canAct = !seats.is(seat, TableState.FOLDED) && !seats.is(seat, TableState.ALL_IN);
+        long potBefore = state.getPot();
+        state.apply(code, amount);
+        if (canAct && history != null) {
+            history.append(HandRecord.ACTION, seat, code, HandRecord.NO_CARD, HandRecord.NO_CARD,
+                           HandRecord.NO_CARD, 0, state.getPot() - potBefore);
+        }
+        if (canAct && events != null) {
+            publish(GameEvent.ACTION, seat, code, state.getPot() - potBefore, 0L);
         }
-        
-        moveToNextPlayer();
     }
     
-    private void moveToNextPlayer() {
-        int startIndex = currentPlayerIndex;
-        int attempts = 0;
-        
-        do {
-            currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
-            attempts++;
-            
-            // Prevent infinite loop
-            if (attempts >= players.size()) {
-                break;
-            }
-        } while ((players.get(currentPlayerIndex).isFolded() || 
-                 players.get(currentPlayerIndex).isAllIn()) && 
-                 currentPlayerIndex != startIndex);
+    /**
+     * Applies an action for {@code player} whatever the turn order says, as
+     * a replay of a recorded hand does; the next player is chosen as usual.
+     */
+    public void processPlayerAction(Player player, String action, long amount) {
+        state.setCurrentSeat(player.getSeat());
+        processPlayerAction(action, amount);
     }
     
     public boolean isBettingRoundComplete() {
-        int activePlayers = 0;
-        int playersAtCurrentBet = 0;
-        
+        return state.isBettingRoundComplete();
+    }
+    
+    /** Blinds posted from the next hand on (default {@value #SMALL_BLIND}/{@value #BIG_BLIND}). */
+    public void setBlinds(long smallBlind, long bigBlind) {
+        this.smallBlindAmount = smallBlind;
+        this.bigBlindAmount = bigBlind;
+    }
+    
+    public long getSmallBlind() {
+        return smallBlindAmount;
+    }
+    
+    public long getBigBlind() {
+        return bigBlindAmount;
+    }
+    
+    /** Puts the button on {@code player} for the next hand instead of rotating it. */
+    public void setNextButton(Player player) {
+        int index = players.indexOf(player);
+        dealerIndex = (index - 1 + players.size()) % players.size();
+    }
+    
+    /**
+     * Deals the next hand from a stacked deck (see {@link Deck#arrange}):
+     * two hole cards per player in seat order, then burn and flop, burn and
+     * turn, burn and river.
+     */
+    public void setNextDeal(int[] order, int count) {
+        presetDeal = order;
+        presetCount = count;
+    }
+    
+    /** Adds the hands and actions not yet counted in {@link Metrics}, as before the table is dropped. */
+    public void flushMetrics() {
+        Metrics.addHands(metricsHands, metricsActions);
+        metricsHands = 0;
+        metricsActions = 0;
+        metricsPeriod = Metrics.period();
+    }
+    
+    /**
+     * Stacks the rest of the hand in progress the way {@link #setNextDeal}
+     * stacks a whole one, starting with the next card to be dealt.
+     */
+    public void setRemainingDeal(int[] order, int count) {
+        deck.arrangeRemaining(order, count);
+    }
+    
+    /**
+     * Deals the rest of the hand in progress from a shuffled deck again,
+     * after part of it came from {@link #setNextDeal} or
+     * {@link #setRemainingDeal}.
+     */
+    public void shuffleRemaining() {
+        deck.shuffle();
+    }
+    
+    /** Whether a hand has been dealt and not settled yet. */
+    public boolean isHandInProgress() {
+        return state.getPot() > 0;
+    }
+    
+    /**
+     * Writes the complete table in a compact binary form: blinds, button,
+     * betting state, the random source's position, deck order and cursor,
+     * board and every seat, mid-hand or between hands. A stacked deal set
+     * for the next hand is not included. Runs in a few microseconds and
+     * touches nothing but {@code out}, so a checkpoint is a cheap copy
+     * taken on the table's thread.
+     */
+    public void writeCheckpoint(ByteBuffer out) {
+        out.putInt(tableId).putLong(handNumber).putLong(smallBlindAmount).putLong(bigBlindAmount);
+        out.put((byte) dealerIndex).put((byte) smallBlindIndex).put((byte) bigBlindIndex);
+        out.put((byte) state.getRound()).putLong(state.getPot()).putLong(state.getBetLevel())
+           .put((byte) state.getCurrentSeat()).put((byte) state.getButton()).putLong(state.getActed());
+        out.put((byte) (dealRandom != null ? 1 : 0)).putLong(dealRandom != null ? dealRandom.getState() : 0L);
+        deck.writeState(out);
+        out.put((byte) communityCards.size());
+        for (Card card : communityCards) {
+            out.put((byte) card.getIndex());
+        }
+        int seatCount = seats.getSeatCount();
+        out.put((byte) seatCount);
+        for (int seat = 0; seat < seatCount; seat++) {
+            Player player = bySeat[seat];
+            byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+            int nameLength = Math.min(name.length, 255);
+            out.putInt(player.getId()).put((byte) nameLength).put(name, 0, nameLength);
+            out.put((byte) player.getHand().size());
+            for (int i = 0; i < player.getHand().size(); i++) {
+                out.put((byte) player.getHand().getCard(i).getIndex());
+            }
+            out.putLong(winnings[seat]);
+        }
+        seats.writeState(out);
+        out.put((byte) players.size());
         for (Player player : players) {
-            if (!player.isFolded()) {
-                activePlayers++;
-                if (Math.abs(player.getCurrentBet() - currentBetLevel) < 0.01 || player.isAllIn()) {
-                    playersAtCurrentBet++;
-                }
+            out.put((byte) player.getSeat());
+        }
+    }
+    
+    /**
+     * Restores a table written by {@link #writeCheckpoint} into this one,
+     * which must have no players yet and be seeded the same way. Hands
+     * continue exactly where the checkpointed table would have gone on.
+     */
+    public void readCheckpoint(ByteBuffer in) {
+        if (!players.isEmpty() || seats.getSeatCount() > 0) {
+            throw new IllegalStateException("Table already has players");
+        }
+        int id = in.getInt();
+        if (seeds != null && id != tableId) {
+            throw new IllegalArgumentException("Checkpoint of table " + id + " restored into table " + tableId);
+        }
+        tableId = id;
+        handNumber = in.getLong();
+        smallBlindAmount = in.getLong();
+        bigBlindAmount = in.getLong();
+        int dealer = in.get();
+        smallBlindIndex = in.get();
+        bigBlindIndex = in.get();
+        state.clearHistory();
+        state.setRound(in.get());
+        state.setPot(in.getLong());
+        state.setBetLevel(in.getLong());
+        state.setCurrentSeat(in.get());
+        state.setButton(in.get());
+        state.setActed(in.getLong());
+        boolean seeded = in.get() != 0;
+        long randomState = in.getLong();
+        if (seeded && dealRandom != null) {
+            dealRandom.setSeed(randomState);
+        }
+        deck.readState(in);
+        communityCards.clear();
+        communityMask = 0L;
+        boardState.clear();
+        for (int n = in.get(); n > 0; n--) {
+            dealtToBoard(Card.get(in.get()));
+        }
+        if (communityCards.size() >= 3) {
+            boardAnalysis.update(boardState);
+        } else {
+            boardAnalysis.clear();
+        }
+        int seatCount = in.get();
+        for (int seat = 0; seat < seatCount; seat++) {
+            int playerId = in.getInt();
+            byte[] name = new byte[in.get() & 0xFF];
+            in.get(name);
+            Player player = new Player(new String(name, StandardCharsets.UTF_8), 0, false);
+            player.setId(playerId);
+            addPlayer(player);
+            for (int n = in.get(); n > 0; n--) {
+                player.dealCard(Card.get(in.get()));
             }
+            winnings[seat] = in.getLong();
         }
-        
-        return activePlayers <= 1 || playersAtCurrentBet == activePlayers;
+        // Chips, bets and status overwrite the placeholders the players were seated with
+        seats.readState(in);
+        players.clear();
+        for (int n = in.get(); n > 0; n--) {
+            players.add(bySeat[in.get()]);
+        }
+        // Set last, as seating the players above moves the button
+        dealerIndex = dealer;
     }
     
     public Player getCurrentPlayer() {
-        if (currentPlayerIndex < players.size()) {
-            return players.get(currentPlayerIndex);
-        }
-        return null;
+        return bySeat[state.getCurrentSeat()];
+    }
+
+    /** The player sitting in {@code seat}, as named by events and history records. */
+    public Player getPlayerAt(int seat) {
+        return bySeat[seat];
+    }
+    
+    /** Compact seat state of this table (chips, bets, status, hole cards). */
+    public TableState getTableState() {
+        return seats;
+    }
+    
+    /** Betting state of the hand in progress; fork it with {@link GameState#copyFrom}. */
+    public GameState getGameState() {
+        return state;
     }
     
     public ArrayList<Player> getPlayers() {
@@ -192,39 +530,103 @@ public class TexasHoldem {
         return communityCards;
     }
     
-    public int getPot() {
-        return pot;
+    public int getTableId() {
+        return tableId;
+    }
+    
+    /** Number of the hand in progress; the first hand is 1. */
+    public long getHandNumber() {
+        return handNumber;
+    }
+    
+    /**
+     * Makes the next {@link #startNewHand()} deal hand number {@code next}.
+     * Combined with the seed tree this replays any hand of a seeded run.
+     */
+    public void setNextHandNumber(long next) {
+        handNumber = next - 1;
+    }
+    
+    public long getCommunityMask() {
+        return communityMask;
+    }
+    
+    /** Incremental evaluation state of the community cards. */
+    public HandState getBoardState() {
+        return boardState;
+    }
+    
+    /** Board analysis for the current street, shared by all players' evaluations. */
+    public BoardAnalysis getBoardAnalysis() {
+        return boardAnalysis;
+    }
+    
+    public long getPot() {
+        return state.getPot();
     }
     
     public int getCurrentRound() {
-        return currentRound;
+        return state.getRound();
+    }
+    
+    /** "preflop", "flop", "turn", "river" or "showdown". */
+    public static String roundName(int round) {
+        switch (round) {
+            case PRE_FLOP: return "preflop";
+            case FLOP: return "flop";
+            case TURN: return "turn";
+            case RIVER: return "river";
+            default: return "showdown";
+        }
     }
     
     public Player determineWinner() {
-        ArrayList<Player> eligiblePlayers = new ArrayList<>();
-        for (Player player : players) {
-            if (!player.isFolded()) {
-                eligiblePlayers.add(player);
+        ShowdownEvent event = ShowdownEvent.start();
+        Player winner = findWinner();
+        if (event != null && event.shouldCommit()) {
+            event.tableId = tableId;
+            event.handNumber = handNumber;
+            event.street = roundName(state.getRound());
+            event.pot = state.getPot();
+            event.contenders = getActivePlayerCount();
+            event.winnerSeat = winner != null ? winner.getSeat() : -1;
+            event.commit();
+        }
+        return winner;
+    }
+    
+    // Scans the seats in place; the first of equal best hands wins
+    private Player findWinner() {
+        int first = -1;
+        int eligible = 0;
+        for (int i = 0; i < players.size(); i++) {
+            if (!players.get(i).isFolded()) {
+                first = eligible == 0 ? i : first;
+                eligible++;
             }
         }
         
-        if (eligiblePlayers.size() == 0) {
+        if (eligible == 0) {
             return null;
         }
         
-        if (eligiblePlayers.size() == 1) {
-            return eligiblePlayers.get(0);
+        if (eligible == 1) {
+            return players.get(first);
         }
         
         // Compare hands
-        Player winner = eligiblePlayers.get(0);
-        double bestStrength = winner.getHandStrength(communityCards);
+        Player winner = players.get(first);
+        int bestRank = winner.getHandRank(boardAnalysis);
         
-        for (int i = 1; i < eligiblePlayers.size(); i++) {
-            double strength = eligiblePlayers.get(i).getHandStrength(communityCards);
-            if (strength > bestStrength) {
-                bestStrength = strength;
-                winner = eligiblePlayers.get(i);
+        for (int i = first + 1; i < players.size(); i++) {
+            Player player = players.get(i);
+            if (player.isFolded()) {
+                continue;
+            }
+            int rank = player.getHandRank(boardAnalysis);
+            if (rank > bestRank) {
+                bestRank = rank;
+                winner = player;
             }
         }
         
@@ -232,29 +634,122 @@ public class TexasHoldem {
     }
     
     public void resetBets() {
-        for (Player player : players) {
-            player.resetBet();
-        }
-        currentBetLevel = 0;
+        state.resetBets();
     }
     
-    public void distributePot(Player winner) {
-        winner.winPot(pot);
-        pot = 0;
+    /**
+     * Settles the hand: splits the pot into main and side pots by all-in
+     * amounts and pays each to the best hand among the seats that can win
+     * it, splitting ties (see {@link SidePots}).
+     */
+    public void distributePots() {
+        boolean contested = getActivePlayerCount() > 1;
+        showdown = contested;
+        for (Player player : players) {
+            int seat = player.getSeat();
+            showdownRanks[seat] = contested && !player.isFolded() ? player.getHandRank(boardAnalysis) : 0;
+        }
+        sidePots.build(seats);
+        long[] won = sidePots.award(showdownRanks, players.get(dealerIndex).getSeat(), seats.getSeatCount());
+        for (Player player : players) {
+            int seat = player.getSeat();
+            winnings[seat] = won[seat];
+            player.winPot(won[seat]);
+        }
+        if (history != null) {
+            logResult(contested);
+        }
+        if (events != null) {
+            for (Player player : players) {
+                if (contested && !player.isFolded()) {
+                    publish(GameEvent.SHOWDOWN, player.getSeat(), 0, 0, player.getHand().getMask());
+                }
+            }
+            for (Player player : players) {
+                if (winnings[player.getSeat()] > 0) {
+                    publish(GameEvent.POT_AWARDED, player.getSeat(), 0, winnings[player.getSeat()], 0L);
+                }
+            }
+            publish(GameEvent.HAND_END, -1, 0, state.getPot(), 0L);
+        }
+        if (handEvent != null) {
+            handEvent.tableId = tableId;
+            handEvent.handNumber = handNumber;
+            handEvent.players = players.size();
+            handEvent.street = roundName(state.getRound());
+            handEvent.pot = state.getPot();
+            handEvent.showdown = contested;
+            handEvent.commit();
+            handEvent = null;
+        }
+        state.setPot(0);
     }
     
-    public int getActivePlayerCount() {
-        int count = 0;
+    private void logResult(boolean contested) {
         for (Player player : players) {
-            if (!player.isFolded()) {
-                count++;
+            boolean shown = contested && !player.isFolded();
+            if (winnings[player.getSeat()] > 0 || shown) {
+                history.append(HandRecord.WIN, player.getSeat(), shown ? 1 : 0,
+                               shown ? player.getHand().getCard(0).getIndex() : HandRecord.NO_CARD,
+                               shown ? player.getHand().getCard(1).getIndex() : HandRecord.NO_CARD,
+                               HandRecord.NO_CARD, 0, winnings[player.getSeat()]);
             }
         }
-        return count;
+        history.append(HandRecord.HAND_END, -1, 0, HandRecord.NO_CARD, HandRecord.NO_CARD,
+                       HandRecord.NO_CARD, 0, state.getPot());
+    }
+    
+    /**
+     * Records every hand from the next one on into {@code history}, or stops
+     * recording if it is null. See {@link HandRecord} for what is logged;
+     * the table id must fit its {@code aux} field.
+     */
+    public void setHistory(HistoryWriter history) {
+        if (history != null && (tableId < 0 || tableId > HandRecord.MAX_AUX)) {
+            throw new IllegalArgumentException("Table id " + tableId + " does not fit a hand history record (0 to "
+                                               + HandRecord.MAX_AUX + ")");
+        }
+        this.history = history;
+    }
+    
+    public HistoryWriter getHistory() {
+        return history;
+    }
+    
+    /** Publishes this table's events to {@code events}; null turns publishing off. */
+    public void setEventBus(EventBus events) {
+        this.events = events;
+    }
+    
+    public EventBus getEventBus() {
+        return events;
+    }
+    
+    private void publish(int type, int seat, int action, long amount, long cards) {
+        events.publish(type, tableId, handNumber, seat, action, state.getRound(), amount, cards);
+    }
+    
+    /** Chips a player collected when the last hand was settled. */
+    public long getWinnings(Player player) {
+        return winnings[player.getSeat()];
+    }
+    
+    /** Main and side pots of the last settled hand. */
+    public SidePots getSidePots() {
+        return sidePots;
+    }
+    
+    public int getActivePlayerCount() {
+        return state.getActivePlayerCount();
+    }
+    
+    public long getCurrentBetLevel() {
+        return state.getBetLevel();
     }
     
-    public double getCurrentBetLevel() {
-        return currentBetLevel;
+    /** True once the hand has been settled by comparing the hands of two or more players. */
+    public boolean isShowdown() {
+        return showdown;
     }
 }
 